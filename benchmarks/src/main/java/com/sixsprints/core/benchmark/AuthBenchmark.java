@@ -0,0 +1,46 @@
+package com.sixsprints.core.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sixsprints.core.exception.NotAuthorizedException;
+import com.sixsprints.core.utils.AuthUtil;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthBenchmark {
+
+  private static final String SUBJECT = "5e4a7b2c9d1f3a0012345678";
+
+  private String token;
+
+  @Setup
+  public void setup() {
+    token = AuthUtil.createToken(SUBJECT);
+  }
+
+  @Benchmark
+  public String createToken() {
+    return AuthUtil.createToken(SUBJECT);
+  }
+
+  @Benchmark
+  public String decodeToken() throws NotAuthorizedException {
+    return AuthUtil.decodeToken(token);
+  }
+
+}
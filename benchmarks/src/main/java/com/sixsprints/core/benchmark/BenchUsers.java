@@ -0,0 +1,26 @@
+package com.sixsprints.core.benchmark;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import com.sixsprints.core.benchmark.model.BenchGender;
+import com.sixsprints.core.benchmark.model.BenchUser;
+
+public class BenchUsers {
+
+  public static BenchUser user(int i) {
+    return BenchUser.builder().id("id" + i).slug("B" + i).sequence(i).active(true).email("email" + i + "@gmail.com")
+      .name("Name" + i).flag(i % 2 == 0).age(20 + i % 50).gender(BenchGender.values()[i % 3])
+      .roleName("ROLE" + i % 5).city("city" + i % 100).joinedOn(new Date(1500000000000L + i * 86400000L)).build();
+  }
+
+  public static List<BenchUser> users(int count) {
+    List<BenchUser> users = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      users.add(user(i));
+    }
+    return users;
+  }
+
+}
@@ -0,0 +1,87 @@
+package com.sixsprints.core.benchmark;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.supercsv.cellprocessor.ift.CellProcessor;
+import org.supercsv.util.CsvContext;
+
+import com.sixsprints.core.benchmark.model.BenchUserFields;
+import com.sixsprints.core.dto.FieldDto;
+import com.sixsprints.core.enums.DataType;
+import com.sixsprints.core.utils.CellProcessorUtil;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CellProcessorBenchmark {
+
+  // Master data lookups need a database, so the executed chain leaves SELECT columns out.
+  private static final String[] ROW = { "email1@gmail.com", "Name1", "yes", "42", "FEMALE", "city1", "01-02-2020" };
+
+  private List<FieldDto> fields;
+
+  private List<FieldDto> offlineFields;
+
+  private CellProcessor[] importChain;
+
+  private CellProcessor[] exportChain;
+
+  private Object[] parsedRow;
+
+  @Setup
+  public void setup() {
+    fields = BenchUserFields.fields();
+    offlineFields = fields.stream().filter(field -> !DataType.SELECT.equals(field.getDataType()))
+      .collect(Collectors.toList());
+    importChain = CellProcessorUtil.importProcessors(offlineFields, Collections.emptyMap(), null);
+    exportChain = CellProcessorUtil.exportProcessors(offlineFields, Collections.emptyMap());
+    parsedRow = execute(importChain, ROW);
+  }
+
+  @Benchmark
+  public CellProcessor[] buildImportProcessors() {
+    return CellProcessorUtil.importProcessors(fields, Collections.emptyMap(), null);
+  }
+
+  @Benchmark
+  public CellProcessor[] buildExportProcessors() {
+    return CellProcessorUtil.exportProcessors(fields, Collections.emptyMap());
+  }
+
+  @Benchmark
+  public void importRow(Blackhole blackhole) {
+    blackhole.consume(execute(importChain, ROW));
+  }
+
+  @Benchmark
+  public void exportRow(Blackhole blackhole) {
+    blackhole.consume(execute(exportChain, parsedRow));
+  }
+
+  private Object[] execute(CellProcessor[] processors, Object[] row) {
+    Object[] result = new Object[row.length];
+    for (int i = 0; i < row.length; i++) {
+      CsvContext context = new CsvContext(1, 1, i + 1);
+      result[i] = processors[i] == null ? row[i] : processors[i].execute(row[i], context);
+    }
+    return result;
+  }
+
+}
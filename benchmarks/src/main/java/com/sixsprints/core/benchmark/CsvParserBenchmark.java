@@ -0,0 +1,57 @@
+package com.sixsprints.core.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.supercsv.util.CsvContext;
+
+import com.sixsprints.core.benchmark.model.BenchGender;
+import com.sixsprints.core.utils.csv.ParseBoolean;
+import com.sixsprints.core.utils.csv.ParseDateImport;
+import com.sixsprints.core.utils.csv.ParseEnum;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CsvParserBenchmark {
+
+  private final CsvContext context = new CsvContext(1, 1, 1);
+
+  private final ParseDateImport parseDate = new ParseDateImport(ParseDateImport.IGNORE_EXCEPTION);
+
+  private final ParseEnum parseEnum = new ParseEnum(BenchGender.class, BenchGender.OTHER);
+
+  private final ParseBoolean parseBoolean = new ParseBoolean();
+
+  @Benchmark
+  public Object parseDate() {
+    return parseDate.execute("15-08-2019", context);
+  }
+
+  @Benchmark
+  public Object parseInvalidDate() {
+    return parseDate.execute("not a date", context);
+  }
+
+  @Benchmark
+  public Object parseEnum() {
+    return parseEnum.execute("female", context);
+  }
+
+  @Benchmark
+  public Object parseBoolean() {
+    return parseBoolean.execute("yes", context);
+  }
+
+}
@@ -0,0 +1,69 @@
+package com.sixsprints.core.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sixsprints.core.benchmark.model.BenchUser;
+import com.sixsprints.core.benchmark.service.BenchUserService;
+import com.sixsprints.core.utils.BeanWrapperUtil;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityCopyBenchmark {
+
+  private final CloningService service = new CloningService();
+
+  private BenchUser source;
+
+  private BenchUser same;
+
+  private BenchUser partial;
+
+  @Setup
+  public void setup() {
+    source = BenchUsers.user(1);
+    same = BenchUsers.user(1);
+    partial = BenchUser.builder().name("Changed").age(33).build();
+  }
+
+  @Benchmark
+  public BenchUser copyNonNullProperties() {
+    BenchUser target = BenchUsers.user(2);
+    BeanWrapperUtil.copyNonNullProperties(partial, target);
+    return target;
+  }
+
+  @Benchmark
+  public boolean checkAllPropsEqual() {
+    return BeanWrapperUtil.checkAllPropsEqual(source, same);
+  }
+
+  @Benchmark
+  public BenchUser serializationClone() {
+    return service.copy(source);
+  }
+
+  // Exposes the protected clone used by AbstractUpdateService.saveOrOverwrite.
+  private static class CloningService extends BenchUserService {
+
+    private BenchUser copy(BenchUser user) {
+      return clone(user);
+    }
+
+  }
+
+}
@@ -0,0 +1,94 @@
+package com.sixsprints.core.benchmark;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+
+import com.sixsprints.core.benchmark.model.BenchUser;
+import com.sixsprints.core.benchmark.model.BenchUserFields;
+import com.sixsprints.core.dto.FilterRequestDto;
+import com.sixsprints.core.dto.MetaData;
+import com.sixsprints.core.dto.filter.BooleanColumnFilter;
+import com.sixsprints.core.dto.filter.ColumnFilter;
+import com.sixsprints.core.dto.filter.DateColumnFilter;
+import com.sixsprints.core.dto.filter.ExactMatchColumnFilter;
+import com.sixsprints.core.dto.filter.NumberColumnFilter;
+import com.sixsprints.core.dto.filter.SearchColumnFilter;
+import com.sixsprints.core.dto.filter.SetColumnFilter;
+import com.sixsprints.core.dto.filter.SortModel;
+import com.sixsprints.core.utils.AppConstants;
+import com.sixsprints.core.utils.FilterCriteriaUtil;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterCriteriaBenchmark {
+
+  @Param({ "set", "number", "boolean", "date", "search", "exact", "all" })
+  private String filterType;
+
+  private MetaData<BenchUser> meta;
+
+  private FilterRequestDto filterRequestDto;
+
+  @Setup
+  public void setup() {
+    meta = MetaData.<BenchUser>builder().classType(BenchUser.class).fields(BenchUserFields.fields())
+      .defaultSort(Sort.by(Direction.DESC, "dateCreated")).build();
+    Map<String, ColumnFilter> filters = new HashMap<>();
+    if (matches("set")) {
+      filters.put("roleName", SetColumnFilter.builder().values(Arrays.asList("ROLE1", "ROLE2", "(blank)")).build());
+    }
+    if (matches("number")) {
+      filters.put("age", NumberColumnFilter.builder().type(AppConstants.IN_RANGE).filter(20).filterTo(40).build());
+    }
+    if (matches("boolean")) {
+      filters.put("flag", BooleanColumnFilter.builder().value(true).build());
+    }
+    if (matches("date")) {
+      filters.put("joinedOn", DateColumnFilter.builder().type(AppConstants.GREATER_THAN)
+        .filter(1500000000000L).build());
+    }
+    if (matches("search")) {
+      filters.put("search", SearchColumnFilter.builder().filter("name1").build());
+    }
+    if (matches("exact")) {
+      filters.put("email", ExactMatchColumnFilter.builder().filter("email1@gmail.com").build());
+    }
+    filterRequestDto = FilterRequestDto.builder().page(0).size(20).filterModel(filters)
+      .sortModel(Arrays.asList(SortModel.builder().colId("name").sort(Direction.ASC).build())).build();
+  }
+
+  @Benchmark
+  public Object buildCriteria() {
+    return FilterCriteriaUtil.buildCriteria(filterRequestDto, meta).getCriteriaObject();
+  }
+
+  @Benchmark
+  public Sort buildSort() {
+    return FilterCriteriaUtil.buildSort(filterRequestDto.getSortModel(), meta);
+  }
+
+  private boolean matches(String type) {
+    return "all".equals(filterType) || type.equals(filterType);
+  }
+
+}
@@ -0,0 +1,48 @@
+package com.sixsprints.core.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import com.sixsprints.core.benchmark.model.BenchUser;
+import com.sixsprints.core.benchmark.model.BenchUserDto;
+import com.sixsprints.core.benchmark.model.BenchUserTransformer;
+import com.sixsprints.core.dto.PageDto;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransformerBenchmark {
+
+  @Param({ "20", "750" })
+  private int pageSize;
+
+  private Page<BenchUser> page;
+
+  @Setup
+  public void setup() {
+    page = new PageImpl<>(BenchUsers.users(pageSize), PageRequest.of(0, pageSize), pageSize * 10L);
+  }
+
+  @Benchmark
+  public PageDto<BenchUserDto> pageEntityToPageDtoDto() {
+    return BenchUserTransformer.INSTANCE.pageEntityToPageDtoDto(page);
+  }
+
+}
@@ -0,0 +1,29 @@
+package com.sixsprints.core.benchmark.harness;
+
+import java.io.IOException;
+
+import de.flapdoodle.embed.mongo.MongodExecutable;
+import de.flapdoodle.embed.mongo.MongodStarter;
+import de.flapdoodle.embed.mongo.config.MongodConfigBuilder;
+import de.flapdoodle.embed.mongo.config.Net;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.process.runtime.Network;
+
+public class EmbeddedMongo implements AutoCloseable {
+
+  private final MongodExecutable executable;
+
+  public EmbeddedMongo(String version, int port) throws IOException {
+    executable = MongodStarter.getDefaultInstance().prepare(new MongodConfigBuilder()
+      .version(Version.Main.valueOf(version))
+      .net(new Net("localhost", port, Network.localhostIsIPv6()))
+      .build());
+    executable.start();
+  }
+
+  @Override
+  public void close() {
+    executable.stop();
+  }
+
+}
@@ -0,0 +1,112 @@
+package com.sixsprints.core.benchmark.harness;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class HarnessOptions {
+
+  private boolean embedded = true;
+
+  private String mongoVersion = "PRODUCTION";
+
+  private int records = 1_000_000;
+
+  private long seed = 42L;
+
+  private int seedBatchSize = 5_000;
+
+  private int threads = 8;
+
+  private List<Integer> pageDepths = list(0, 100, 1_000, 10_000);
+
+  private int pageSize = 50;
+
+  private int filterOps = 200;
+
+  private int exportRows = 100_000;
+
+  private int importRows = 10_000;
+
+  private int createOps = 10_000;
+
+  private String output = "harness-results.json";
+
+  private String label;
+
+  // Arguments are --key=value pairs named after the fields above, e.g. --records=5000000 --threads=16.
+  public static HarnessOptions parse(String[] args) {
+    HarnessOptions options = new HarnessOptions();
+    for (String arg : args) {
+      String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+      if (pair.length != 2) {
+        throw new IllegalArgumentException("Expected --key=value but got " + arg);
+      }
+      options.set(pair[0], pair[1]);
+    }
+    return options;
+  }
+
+  private void set(String key, String value) {
+    switch (key) {
+    case "embedded":
+      embedded = Boolean.parseBoolean(value);
+      break;
+    case "mongoVersion":
+      mongoVersion = value;
+      break;
+    case "records":
+      records = Integer.parseInt(value);
+      break;
+    case "seed":
+      seed = Long.parseLong(value);
+      break;
+    case "seedBatchSize":
+      seedBatchSize = Integer.parseInt(value);
+      break;
+    case "threads":
+      threads = Integer.parseInt(value);
+      break;
+    case "pageDepths":
+      pageDepths = new ArrayList<>();
+      for (String depth : value.split(",")) {
+        pageDepths.add(Integer.parseInt(depth.trim()));
+      }
+      break;
+    case "pageSize":
+      pageSize = Integer.parseInt(value);
+      break;
+    case "filterOps":
+      filterOps = Integer.parseInt(value);
+      break;
+    case "exportRows":
+      exportRows = Integer.parseInt(value);
+      break;
+    case "importRows":
+      importRows = Integer.parseInt(value);
+      break;
+    case "createOps":
+      createOps = Integer.parseInt(value);
+      break;
+    case "output":
+      output = value;
+      break;
+    case "label":
+      label = value;
+      break;
+    default:
+      throw new IllegalArgumentException("Unknown option " + key);
+    }
+  }
+
+  private static List<Integer> list(Integer... values) {
+    List<Integer> list = new ArrayList<>();
+    for (Integer value : values) {
+      list.add(value);
+    }
+    return list;
+  }
+
+}
@@ -0,0 +1,39 @@
+package com.sixsprints.core.benchmark.harness;
+
+import java.util.Arrays;
+
+public class LatencyRecorder {
+
+  private long[] samples = new long[1024];
+
+  private int count;
+
+  public synchronized void record(long nanos) {
+    if (count == samples.length) {
+      samples = Arrays.copyOf(samples, count * 2);
+    }
+    samples[count++] = nanos;
+  }
+
+  public synchronized WorkloadResult.WorkloadResultBuilder summarise() {
+    long[] sorted = Arrays.copyOf(samples, count);
+    Arrays.sort(sorted);
+    double mean = count == 0 ? 0 : Arrays.stream(sorted).average().getAsDouble();
+    return WorkloadResult.builder().operations(count).meanMillis(millis(mean))
+      .p50Millis(percentile(sorted, 0.50)).p90Millis(percentile(sorted, 0.90)).p99Millis(percentile(sorted, 0.99))
+      .p999Millis(percentile(sorted, 0.999)).maxMillis(count == 0 ? 0 : millis(sorted[count - 1]));
+  }
+
+  private double percentile(long[] sorted, double percentile) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int index = (int) Math.ceil(percentile * sorted.length) - 1;
+    return millis(sorted[Math.max(0, Math.min(index, sorted.length - 1))]);
+  }
+
+  private double millis(double nanos) {
+    return nanos / 1_000_000d;
+  }
+
+}
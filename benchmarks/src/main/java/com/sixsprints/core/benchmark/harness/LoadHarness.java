@@ -0,0 +1,294 @@
+package com.sixsprints.core.benchmark.harness;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.sixsprints.core.Application;
+import com.sixsprints.core.benchmark.BenchUsers;
+import com.sixsprints.core.benchmark.model.BenchUser;
+import com.sixsprints.core.benchmark.model.BenchUserDto;
+import com.sixsprints.core.benchmark.model.BenchUserFields;
+import com.sixsprints.core.benchmark.model.BenchUserTransformer;
+import com.sixsprints.core.benchmark.service.BenchUserService;
+import com.sixsprints.core.dto.BulkUpdateInfo;
+import com.sixsprints.core.dto.DatasetConfig;
+import com.sixsprints.core.dto.DatasetStats;
+import com.sixsprints.core.dto.FilterRequestDto;
+import com.sixsprints.core.dto.ImportResponseWrapper;
+import com.sixsprints.core.dto.filter.ColumnFilter;
+import com.sixsprints.core.dto.filter.NumberColumnFilter;
+import com.sixsprints.core.dto.filter.SetColumnFilter;
+import com.sixsprints.core.dto.filter.SortModel;
+import com.sixsprints.core.enums.UpdateAction;
+import com.sixsprints.core.generic.create.DatasetGenerator;
+import com.sixsprints.core.utils.AppConstants;
+
+import lombok.extern.slf4j.Slf4j;
+
+// End-to-end throughput harness: seeds a realistic collection, then drives the generic services through
+// paginated filters, streaming export, CSV import and concurrent creates. Results are written as JSON so runs
+// can be diffed across commits. ParentMongoConfig connects to localhost:27017, which is where the embedded
+// mongod is started unless --embedded=false points the run at an already running server.
+@Slf4j
+public class LoadHarness {
+
+  private static final int MONGO_PORT = 27017;
+
+  private static final String COLLECTION = "benchUser";
+
+  private static final String CUSTOM_SEQUENCES = "customSequences";
+
+  private static final int ROLES = 5;
+
+  private final HarnessOptions options;
+
+  private final BenchUserService service;
+
+  private final MongoTemplate mongo;
+
+  private final List<WorkloadResult> results = new ArrayList<>();
+
+  public LoadHarness(HarnessOptions options, BenchUserService service, MongoTemplate mongo) {
+    this.options = options;
+    this.service = service;
+    this.mongo = mongo;
+  }
+
+  public static void main(String[] args) throws Exception {
+    HarnessOptions options = HarnessOptions.parse(args);
+    EmbeddedMongo embedded = options.isEmbedded() ? new EmbeddedMongo(options.getMongoVersion(), MONGO_PORT) : null;
+    try (ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class)
+      .web(WebApplicationType.NONE)
+      .properties("spring.autoconfigure.exclude="
+        + "org.springframework.boot.autoconfigure.mongo.embedded.EmbeddedMongoAutoConfiguration")
+      .run()) {
+      LoadHarness harness = new LoadHarness(options, context.getBean(BenchUserService.class),
+        context.getBean(MongoTemplate.class));
+      harness.run();
+    } finally {
+      if (embedded != null) {
+        embedded.close();
+      }
+    }
+  }
+
+  public void run() throws Exception {
+    results.add(seed());
+    for (Integer depth : options.getPageDepths()) {
+      results.add(filter(depth));
+    }
+    results.add(export());
+    // Unchanged rows are skipped by their content hash, so the update and create paths are measured on their own
+    String run = UUID.randomUUID().toString().substring(0, 8);
+    results.add(importCsv("import.unchanged", dto -> {
+    }));
+    results.add(importCsv("import.update", dto -> dto.setName(dto.getName() + " " + run)));
+    results.add(importCsv("import.create", dto -> dto.setEmail("import-" + run + "-" + dto.getEmail())));
+    results.add(create());
+    write();
+  }
+
+  protected WorkloadResult seed() {
+    mongo.dropCollection(BenchUser.class);
+    mongo.dropCollection(BenchUserFields.ROLE_COLLECTION);
+    mongo.remove(new Query(Criteria.where("_id").is(COLLECTION)), CUSTOM_SEQUENCES);
+    for (int i = 0; i < ROLES; i++) {
+      mongo.insert(new Document("name", "ROLE" + i), BenchUserFields.ROLE_COLLECTION);
+    }
+
+    DatasetStats stats = new DatasetGenerator<>(mongo, BenchUserService.benchUserMetaData(), DatasetConfig.builder()
+      .seed(options.getSeed()).batchSize(options.getSeedBatchSize()).threads(options.getThreads()).build())
+        .generate(options.getRecords());
+    log.info("Seeded {} users in {} ms", stats.getInserted(), stats.getDurationMillis());
+    // Dropping the collection removed the mapped indexes; rebuilding them after the load is cheaper than during it.
+    IndexOperations indexOps = mongo.indexOps(BenchUser.class);
+    new MongoPersistentEntityIndexResolver((MongoMappingContext) mongo.getConverter().getMappingContext())
+      .resolveIndexFor(BenchUser.class).forEach(indexOps::ensureIndex);
+    return throughput("seed", options.getThreads(), stats.getBatches(), stats.getInserted(), stats.getFailed(),
+      stats.getDurationMillis() * 1_000_000);
+  }
+
+  protected WorkloadResult filter(int depth) throws Exception {
+    LatencyRecorder recorder = new LatencyRecorder();
+    AtomicLong rows = new AtomicLong();
+    AtomicLong errors = new AtomicLong();
+    long elapsed = concurrently(options.getFilterOps(), i -> {
+      FilterRequestDto request = FilterRequestDto.builder().page(depth).size(options.getPageSize())
+        .filterModel(roleFilter(i))
+        .sortModel(Arrays.asList(SortModel.builder().colId("joinedOn").sort(Direction.DESC).build())).build();
+      long start = System.nanoTime();
+      try {
+        rows.addAndGet(service.filter(request).getNumberOfElements());
+      } catch (Exception e) {
+        errors.incrementAndGet();
+        log.warn("Filter at page {} failed: {}", depth, e.getMessage());
+      }
+      recorder.record(System.nanoTime() - start);
+    });
+    return recorder.summarise().workload("filter.page" + depth).threads(options.getThreads()).rows(rows.get())
+      .errors(errors.get()).durationMillis(elapsed / 1_000_000)
+      .operationsPerSecond(perSecond(options.getFilterOps(), elapsed)).rowsPerSecond(perSecond(rows.get(), elapsed))
+      .build();
+  }
+
+  protected WorkloadResult export() throws Exception {
+    int rows = Math.min(options.getExportRows(), options.getRecords());
+    long start = System.nanoTime();
+    service.exportData(BenchUserTransformer.INSTANCE, firstRows(rows), new PrintWriter(new DiscardingWriter()),
+      Locale.ENGLISH);
+    return throughput("export", 1, 1, rows, 0, System.nanoTime() - start);
+  }
+
+  protected WorkloadResult importCsv(String workload, Consumer<BenchUserDto> change) throws Exception {
+    int rows = Math.min(options.getImportRows(), options.getRecords());
+    StringWriter csv = new StringWriter();
+    service.exportData(BenchUserTransformer.INSTANCE, firstRows(rows), new PrintWriter(csv), Locale.ENGLISH);
+
+    long start = System.nanoTime();
+    ImportResponseWrapper<BenchUserDto> parsed = service
+      .importData(new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), Locale.ENGLISH);
+    parsed.getData().forEach(change);
+    List<BenchUser> users = parsed.getData().stream().map(BenchUserTransformer.INSTANCE::toDomain)
+      .collect(Collectors.toList());
+    List<BulkUpdateInfo<BenchUser>> info = service.updateAll(users);
+    long elapsed = System.nanoTime() - start;
+
+    long invalid = info.stream().filter(each -> UpdateAction.INVALID.equals(each.getUpdateAction())).count();
+    long errors = invalid + rows - parsed.getData().size();
+    return throughput(workload, 1, 1, rows, errors, elapsed);
+  }
+
+  protected WorkloadResult create() throws Exception {
+    LatencyRecorder recorder = new LatencyRecorder();
+    AtomicLong errors = new AtomicLong();
+    String run = UUID.randomUUID().toString().substring(0, 8);
+    long elapsed = concurrently(options.getCreateOps(), i -> {
+      BenchUser user = BenchUsers.user(i);
+      user.setId(null);
+      user.setSlug(null);
+      user.setSequence(null);
+      user.setEmail("create-" + run + "-" + i + "@gmail.com");
+      long start = System.nanoTime();
+      try {
+        service.create(user);
+      } catch (Exception e) {
+        errors.incrementAndGet();
+        log.warn("Create failed: {}", e.getMessage());
+      }
+      recorder.record(System.nanoTime() - start);
+    });
+    return recorder.summarise().workload("create").threads(options.getThreads()).rows(options.getCreateOps())
+      .errors(errors.get()).durationMillis(elapsed / 1_000_000)
+      .operationsPerSecond(perSecond(options.getCreateOps(), elapsed))
+      .rowsPerSecond(perSecond(options.getCreateOps(), elapsed)).build();
+  }
+
+  protected void write() throws Exception {
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("label", options.getLabel());
+    report.put("timestamp", new Date());
+    report.put("java", System.getProperty("java.version"));
+    report.put("options", options);
+    report.put("results", results);
+    ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+      .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    mapper.writeValue(new File(options.getOutput()), report);
+    System.out.println(mapper.writeValueAsString(report));
+  }
+
+  private long concurrently(int operations, Operation operation) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(options.getThreads());
+    try {
+      long start = System.nanoTime();
+      List<Future<?>> futures = new ArrayList<>(operations);
+      for (int i = 0; i < operations; i++) {
+        int index = i;
+        futures.add(executor.submit(() -> operation.run(index)));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+      return System.nanoTime() - start;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private Map<String, ColumnFilter> roleFilter(int i) {
+    return ImmutableMap.<String, ColumnFilter>of("roleName",
+      SetColumnFilter.builder().values(Lists.newArrayList("ROLE" + i % ROLES, "ROLE" + (i + 1) % ROLES)).build());
+  }
+
+  private FilterRequestDto firstRows(int rows) {
+    return FilterRequestDto.builder().filterModel(ImmutableMap.<String, ColumnFilter>of("sequence",
+      NumberColumnFilter.builder().type(AppConstants.LESS_THAN_OR_EQUAL).filter(rows).build())).build();
+  }
+
+  private WorkloadResult throughput(String workload, int threads, long operations, long rows, long errors,
+    long elapsed) {
+    return WorkloadResult.builder().workload(workload).threads(threads).operations(operations).rows(rows)
+      .errors(errors).durationMillis(elapsed / 1_000_000).operationsPerSecond(perSecond(operations, elapsed))
+      .rowsPerSecond(perSecond(rows, elapsed)).build();
+  }
+
+  private double perSecond(long count, long nanos) {
+    return nanos == 0 ? 0 : count * 1_000_000_000d / nanos;
+  }
+
+  private interface Operation {
+
+    void run(int index);
+
+  }
+
+  private static class DiscardingWriter extends Writer {
+
+    @Override
+    public void write(char[] buffer, int offset, int length) {
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+  }
+
+}
@@ -0,0 +1,42 @@
+package com.sixsprints.core.benchmark.harness;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkloadResult {
+
+  private String workload;
+
+  private int threads;
+
+  private long operations;
+
+  private long errors;
+
+  private long rows;
+
+  private long durationMillis;
+
+  private double operationsPerSecond;
+
+  private double rowsPerSecond;
+
+  private double meanMillis;
+
+  private double p50Millis;
+
+  private double p90Millis;
+
+  private double p99Millis;
+
+  private double p999Millis;
+
+  private double maxMillis;
+
+}
@@ -0,0 +1,7 @@
+package com.sixsprints.core.benchmark.model;
+
+public enum BenchGender {
+
+  MALE, FEMALE, OTHER;
+
+}
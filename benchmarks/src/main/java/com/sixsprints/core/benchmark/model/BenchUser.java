@@ -0,0 +1,43 @@
+package com.sixsprints.core.benchmark.model;
+
+import java.util.Date;
+
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.sixsprints.core.domain.AbstractMongoEntity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+@Document
+@Data
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = false)
+public class BenchUser extends AbstractMongoEntity {
+
+  private static final long serialVersionUID = 2675184932017754211L;
+
+  @Indexed(unique = true)
+  private String email;
+
+  private String name;
+
+  private Boolean flag;
+
+  private Integer age;
+
+  private BenchGender gender;
+
+  private String roleName;
+
+  private String city;
+
+  private Date joinedOn;
+
+}
@@ -0,0 +1,32 @@
+package com.sixsprints.core.benchmark.model;
+
+import java.util.Date;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BenchUserDto {
+
+  private String email;
+
+  private String name;
+
+  private Boolean flag;
+
+  private Integer age;
+
+  private BenchGender gender;
+
+  private String roleName;
+
+  private String city;
+
+  private Date joinedOn;
+
+}
@@ -0,0 +1,32 @@
+package com.sixsprints.core.benchmark.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.sixsprints.core.dto.FieldDto;
+import com.sixsprints.core.enums.DataType;
+
+public class BenchUserFields {
+
+  public static final String ROLE_COLLECTION = "benchRole";
+
+  public static List<FieldDto> fields() {
+    List<FieldDto> fields = new ArrayList<FieldDto>();
+    int i = 0;
+    fields.add(FieldDto.builder().name("email").displayName("Email").sequence(i++).dataType(DataType.EMAIL).build());
+    fields.add(FieldDto.builder().name("name").displayName("Name").sequence(i++).dataType(DataType.TEXT).build());
+    fields.add(FieldDto.builder().name("flag").displayName("Flag").sequence(i++).dataType(DataType.BOOLEAN).build());
+    fields.add(FieldDto.builder().name("age").displayName("Age").sequence(i++).dataType(DataType.NUMBER)
+      .aggregationAllowed(true).build());
+    fields.add(FieldDto.builder().name("gender").displayName("Gender").sequence(i++).dataType(DataType.ENUM)
+      .enumClass(BenchGender.class).allValues(Arrays.asList(BenchGender.values())).build());
+    fields.add(FieldDto.builder().name("roleName").displayName("Role Name").sequence(i++)
+      .dataType(DataType.SELECT).collectionName(ROLE_COLLECTION).columnName("name").build());
+    fields.add(FieldDto.builder().name("city").displayName("City").sequence(i++).dataType(DataType.TEXT).build());
+    fields.add(FieldDto.builder().name("joinedOn").displayName("Joined On").sequence(i++).dataType(DataType.DATE)
+      .build());
+    return fields;
+  }
+
+}
@@ -0,0 +1,28 @@
+package com.sixsprints.core.benchmark.model;
+
+import com.sixsprints.core.transformer.GenericTransformer;
+
+public class BenchUserTransformer extends GenericTransformer<BenchUser, BenchUserDto> {
+
+  public static final BenchUserTransformer INSTANCE = new BenchUserTransformer();
+
+  @Override
+  public BenchUserDto toDto(BenchUser entity) {
+    if (entity == null) {
+      return null;
+    }
+    return BenchUserDto.builder().email(entity.getEmail()).name(entity.getName()).flag(entity.getFlag())
+      .age(entity.getAge()).gender(entity.getGender()).roleName(entity.getRoleName()).city(entity.getCity())
+      .joinedOn(entity.getJoinedOn()).build();
+  }
+
+  @Override
+  public BenchUser toDomain(BenchUserDto dto) {
+    if (dto == null) {
+      return null;
+    }
+    return BenchUser.builder().email(dto.getEmail()).name(dto.getName()).flag(dto.getFlag()).age(dto.getAge())
+      .gender(dto.getGender()).roleName(dto.getRoleName()).city(dto.getCity()).joinedOn(dto.getJoinedOn()).build();
+  }
+
+}
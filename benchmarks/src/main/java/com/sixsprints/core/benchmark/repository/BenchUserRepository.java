@@ -0,0 +1,13 @@
+package com.sixsprints.core.benchmark.repository;
+
+import org.springframework.stereotype.Repository;
+
+import com.sixsprints.core.benchmark.model.BenchUser;
+import com.sixsprints.core.repository.GenericRepository;
+
+@Repository
+public interface BenchUserRepository extends GenericRepository<BenchUser> {
+
+  BenchUser findByEmail(String email);
+
+}
@@ -0,0 +1,45 @@
+package com.sixsprints.core.benchmark.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+import com.sixsprints.core.benchmark.model.BenchUser;
+import com.sixsprints.core.benchmark.model.BenchUserDto;
+import com.sixsprints.core.benchmark.model.BenchUserFields;
+import com.sixsprints.core.benchmark.repository.BenchUserRepository;
+import com.sixsprints.core.dto.MetaData;
+import com.sixsprints.core.repository.GenericRepository;
+import com.sixsprints.core.service.AbstractCrudService;
+
+@Service
+public class BenchUserService extends AbstractCrudService<BenchUser> {
+
+  @Autowired
+  private BenchUserRepository benchUserRepository;
+
+  @Override
+  protected GenericRepository<BenchUser> repository() {
+    return benchUserRepository;
+  }
+
+  public static MetaData<BenchUser> benchUserMetaData() {
+    return MetaData.<BenchUser>builder().collection("benchUser").prefix("B")
+      .classType(BenchUser.class).dtoClassType(BenchUserDto.class)
+      .fields(BenchUserFields.fields())
+      .defaultSort(Sort.by(Sort.Direction.DESC, "dateCreated"))
+      .build();
+  }
+
+  @Override
+  protected MetaData<BenchUser> metaData(BenchUser entity) {
+    return benchUserMetaData();
+  }
+
+  @Override
+  protected Criteria duplicateCriteria(BenchUser entity) {
+    return Criteria.where("email").is(entity.getEmail());
+  }
+
+}
@@ -0,0 +1,274 @@
+package com.sixsprints.core.cache;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.sixsprints.core.domain.ChangeStreamToken;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+public class ChangeStreamListener implements SmartLifecycle {
+
+  private static final String _ID = "_id";
+
+  private static final String NS_COLL = "ns.coll";
+
+  private static final String IS_MASTER = "isMaster";
+
+  private static final String SET_NAME = "setName";
+
+  private static final String MSG = "msg";
+
+  private static final String MONGOS = "isdbgrid";
+
+  private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+
+  private static final int CHANGE_STREAM_FATAL_ERROR = 280;
+
+  private static final int CHANGE_STREAM_NOT_SUPPORTED = 40573;
+
+  private static final int TOKEN_SAVE_INTERVAL = 100;
+
+  private static final long MAX_AWAIT_MILLIS = 1000;
+
+  private static final long MAX_BACKOFF_MILLIS = 60000;
+
+  private final MongoOperations mongo;
+
+  private final ApplicationEventPublisher publisher;
+
+  private final String name;
+
+  private final Map<String, List<Consumer<EntityChangedEvent>>> listeners = new ConcurrentHashMap<>();
+
+  private volatile boolean running;
+
+  private volatile boolean restart;
+
+  private volatile boolean unsupported;
+
+  private Thread worker;
+
+  private BsonDocument resumeToken;
+
+  public ChangeStreamListener(MongoOperations mongo, ApplicationEventPublisher publisher, String name) {
+    this.mongo = mongo;
+    this.publisher = publisher;
+    this.name = name;
+  }
+
+  public synchronized void register(String collection, Consumer<EntityChangedEvent> listener) {
+    boolean added = !listeners.containsKey(collection);
+    listeners.computeIfAbsent(collection, key -> new CopyOnWriteArrayList<>()).add(listener);
+    if (added) {
+      restart = true;
+    }
+    if (running && worker == null && !unsupported) {
+      startWorker();
+    }
+  }
+
+  @Override
+  public synchronized void start() {
+    running = true;
+    if (!listeners.isEmpty() && !unsupported) {
+      startWorker();
+    }
+  }
+
+  @Override
+  public void stop() {
+    Thread current;
+    synchronized (this) {
+      running = false;
+      current = worker;
+      worker = null;
+    }
+    if (current != null) {
+      current.interrupt();
+      try {
+        current.join(MAX_AWAIT_MILLIS * 2);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  public boolean isUnsupported() {
+    return unsupported;
+  }
+
+  private void startWorker() {
+    worker = new Thread(this::watch, "change-stream-" + name);
+    worker.setDaemon(true);
+    worker.start();
+  }
+
+  private void watch() {
+    long backoff = MAX_AWAIT_MILLIS;
+    boolean checked = false;
+    while (running) {
+      restart = false;
+      List<String> collections = new ArrayList<>(listeners.keySet());
+      try {
+        if (!checked) {
+          if (!isReplicated()) {
+            disable("the server is not a replica set member or mongos");
+            return;
+          }
+          resumeToken = loadToken();
+          checked = true;
+        }
+      } catch (Exception ex) {
+        backoff = retry(ex, backoff);
+        continue;
+      }
+      try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = stream(collections).cursor()) {
+        backoff = MAX_AWAIT_MILLIS;
+        int unsaved = 0;
+        while (running && !restart) {
+          ChangeStreamDocument<Document> change = cursor.tryNext();
+          if (change != null) {
+            publish(change);
+            unsaved++;
+          }
+          resumeToken = cursor.getResumeToken();
+          if (unsaved >= TOKEN_SAVE_INTERVAL || (change == null && unsaved > 0)) {
+            saveToken();
+            unsaved = 0;
+          }
+        }
+        if (unsaved > 0) {
+          saveToken();
+        }
+      } catch (MongoCommandException ex) {
+        if (ex.getErrorCode() == CHANGE_STREAM_NOT_SUPPORTED) {
+          disable(ex.getMessage());
+          return;
+        }
+        if (ex.getErrorCode() == CHANGE_STREAM_HISTORY_LOST || ex.getErrorCode() == CHANGE_STREAM_FATAL_ERROR) {
+          log.warn("Change stream {} cannot resume. Dropping all watched caches. {}", name, ex.getMessage());
+          resumeToken = null;
+          saveToken();
+          collections.forEach(collection -> notify(collection, null, OperationType.INVALIDATE.getValue()));
+        } else {
+          backoff = retry(ex, backoff);
+        }
+      } catch (Exception ex) {
+        if (!running) {
+          return;
+        }
+        backoff = retry(ex, backoff);
+      }
+    }
+  }
+
+  private ChangeStreamIterable<Document> stream(List<String> collections) {
+    ChangeStreamIterable<Document> stream = mongo.execute(db -> db
+      .watch(Collections.singletonList(Aggregates.match(Filters.in(NS_COLL, collections)))))
+      .maxAwaitTime(MAX_AWAIT_MILLIS, TimeUnit.MILLISECONDS);
+    return resumeToken == null ? stream : stream.resumeAfter(resumeToken);
+  }
+
+  // Change streams need an oplog, so a standalone mongod can never serve them and is not worth retrying.
+  private boolean isReplicated() {
+    Document hello = mongo.execute(db -> db.runCommand(new Document(IS_MASTER, 1)));
+    return hello.containsKey(SET_NAME) || MONGOS.equals(hello.getString(MSG));
+  }
+
+  private synchronized void disable(String reason) {
+    unsupported = true;
+    worker = null;
+    log.warn("Change stream {} is disabled, {}. Watched caches rely on their TTL only.", name, reason);
+  }
+
+  private long retry(Exception ex, long backoff) {
+    log.warn("Change stream {} failed. Retrying in {} ms. {}", name, backoff, ex.getMessage());
+    try {
+      Thread.sleep(backoff);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      running = false;
+    }
+    return Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+  }
+
+  private void publish(ChangeStreamDocument<Document> change) {
+    OperationType operation = change.getOperationType();
+    String collection = change.getNamespace() == null ? null : change.getNamespace().getCollectionName();
+    if (collection == null) {
+      listeners.keySet().forEach(watched -> notify(watched, null, operation.getValue()));
+      return;
+    }
+    BsonDocument key = change.getDocumentKey();
+    String entityId = key == null || !key.containsKey(_ID) ? null : id(key.get(_ID));
+    notify(collection, entityId, operation.getValue());
+  }
+
+  private void notify(String collection, String entityId, String operation) {
+    EntityChangedEvent event = new EntityChangedEvent(this, collection, entityId, operation);
+    for (Consumer<EntityChangedEvent> listener : listeners.getOrDefault(collection, Collections.emptyList())) {
+      try {
+        listener.accept(event);
+      } catch (Exception ex) {
+        log.error("Change listener for {} failed. {}", collection, ex.getMessage());
+      }
+    }
+    publisher.publishEvent(event);
+  }
+
+  private String id(BsonValue value) {
+    if (value.isObjectId()) {
+      return value.asObjectId().getValue().toHexString();
+    }
+    if (value.isString()) {
+      return value.asString().getValue();
+    }
+    return value.toString();
+  }
+
+  private BsonDocument loadToken() {
+    ChangeStreamToken token = mongo.findOne(query(where(_ID).is(name)), ChangeStreamToken.class);
+    return token == null || token.getToken() == null ? null : BsonDocument.parse(token.getToken());
+  }
+
+  private void saveToken() {
+    try {
+      mongo.save(ChangeStreamToken.builder().id(name).token(resumeToken == null ? null : resumeToken.toJson())
+        .dateModified(new Date()).build());
+    } catch (Exception ex) {
+      log.warn("Could not persist the resume token of change stream {}. {}", name, ex.getMessage());
+    }
+  }
+
+}
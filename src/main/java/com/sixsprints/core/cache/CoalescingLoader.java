@@ -0,0 +1,115 @@
+package com.sixsprints.core.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import com.sixsprints.core.dto.LoaderConfig;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+public class CoalescingLoader<V> {
+
+  private final LoaderConfig config;
+
+  private final Function<List<String>, Map<String, V>> batchLoader;
+
+  private final ScheduledExecutorService executor;
+
+  private final Map<String, CompletableFuture<V>> inFlight = new HashMap<>();
+
+  private List<String> pending = new ArrayList<>();
+
+  public CoalescingLoader(String name, LoaderConfig config, Function<List<String>, Map<String, V>> batchLoader) {
+    this.config = config;
+    this.batchLoader = batchLoader;
+    AtomicInteger count = new AtomicInteger();
+    this.executor = Executors.newScheduledThreadPool(config.getThreads(), runnable -> {
+      Thread thread = new Thread(runnable, "loader-" + name + "-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  public CompletableFuture<V> load(String key) {
+    CompletableFuture<V> future;
+    List<String> batch = null;
+    synchronized (this) {
+      future = inFlight.get(key);
+      if (future != null) {
+        return future;
+      }
+      future = new CompletableFuture<>();
+      inFlight.put(key, future);
+      pending.add(key);
+      if (pending.size() >= config.getMaxBatchSize() || (pending.size() == 1 && !schedule())) {
+        batch = drain();
+      }
+    }
+    if (batch != null) {
+      dispatch(batch);
+    }
+    return future;
+  }
+
+  public void close() {
+    executor.shutdown();
+  }
+
+  // False once the loader is closed; the caller then loads the batch itself, outside the lock
+  private boolean schedule() {
+    try {
+      executor.schedule(() -> {
+        List<String> batch;
+        synchronized (this) {
+          batch = drain();
+        }
+        dispatch(batch);
+      }, config.getWindowMillis(), TimeUnit.MILLISECONDS);
+      return true;
+    } catch (RejectedExecutionException ex) {
+      return false;
+    }
+  }
+
+  private List<String> drain() {
+    List<String> batch = pending;
+    pending = new ArrayList<>();
+    return batch;
+  }
+
+  private void dispatch(List<String> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    Map<String, V> loaded = null;
+    RuntimeException failure = null;
+    try {
+      loaded = batchLoader.apply(batch);
+    } catch (RuntimeException ex) {
+      log.warn("Coalesced load of {} keys failed. {}", batch.size(), ex.getMessage());
+      failure = ex;
+    }
+    List<CompletableFuture<V>> futures = new ArrayList<>();
+    synchronized (this) {
+      batch.forEach(key -> futures.add(inFlight.remove(key)));
+    }
+    for (int i = 0; i < batch.size(); i++) {
+      if (failure != null) {
+        futures.get(i).completeExceptionally(failure);
+      } else {
+        futures.get(i).complete(loaded.get(batch.get(i)));
+      }
+    }
+  }
+
+}
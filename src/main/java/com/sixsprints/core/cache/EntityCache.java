@@ -0,0 +1,136 @@
+package com.sixsprints.core.cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.bson.Document;
+
+import com.sixsprints.core.dto.CacheConfig;
+import com.sixsprints.core.dto.CacheStats;
+
+import lombok.AllArgsConstructor;
+
+public class EntityCache {
+
+  private final int maxSize;
+
+  private final long ttlMillis;
+
+  private final LinkedHashMap<String, Entry> entries;
+
+  private final Map<String, String> slugs = new HashMap<>();
+
+  private long hits;
+
+  private long misses;
+
+  private long evictions;
+
+  private long invalidations;
+
+  private long generation;
+
+  public EntityCache(CacheConfig config) {
+    this.maxSize = config.getMaxSize();
+    this.ttlMillis = config.getTtlMillis();
+    this.entries = new LinkedHashMap<>(16, 0.75f, true);
+  }
+
+  public synchronized Document get(String id) {
+    Entry entry = entries.get(id);
+    if (entry == null) {
+      misses++;
+      return null;
+    }
+    if (entry.expiresAt < System.currentTimeMillis()) {
+      remove(id);
+      evictions++;
+      misses++;
+      return null;
+    }
+    hits++;
+    return entry.document;
+  }
+
+  public synchronized String idForSlug(String slug) {
+    return slugs.get(slug);
+  }
+
+  // Bumped by every invalidation; a fill read before the bump may hold a stale document
+  public synchronized long generation() {
+    return generation;
+  }
+
+  public synchronized boolean put(String id, String slug, Document document, long readGeneration) {
+    if (readGeneration != generation) {
+      return false;
+    }
+    put(id, slug, document);
+    return true;
+  }
+
+  public synchronized void put(String id, String slug, Document document) {
+    remove(id);
+    entries.put(id, new Entry(slug, document, System.currentTimeMillis() + ttlMillis));
+    if (slug != null) {
+      slugs.put(slug, id);
+    }
+    Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+    while (entries.size() > maxSize && eldest.hasNext()) {
+      Entry evicted = eldest.next().getValue();
+      eldest.remove();
+      removeSlug(evicted);
+      evictions++;
+    }
+  }
+
+  public synchronized void invalidate(String id) {
+    generation++;
+    if (remove(id) != null) {
+      invalidations++;
+    }
+  }
+
+  public synchronized void invalidateAll(Collection<String> ids) {
+    ids.forEach(this::invalidate);
+  }
+
+  public synchronized void clear() {
+    generation++;
+    invalidations += entries.size();
+    entries.clear();
+    slugs.clear();
+  }
+
+  public synchronized CacheStats stats() {
+    return CacheStats.builder().hits(hits).misses(misses).evictions(evictions).invalidations(invalidations)
+      .size(entries.size()).build();
+  }
+
+  private Entry remove(String id) {
+    Entry entry = entries.remove(id);
+    removeSlug(entry);
+    return entry;
+  }
+
+  private void removeSlug(Entry entry) {
+    if (entry != null && entry.slug != null) {
+      slugs.remove(entry.slug);
+    }
+  }
+
+  @AllArgsConstructor
+  private static class Entry {
+
+    private final String slug;
+
+    private final Document document;
+
+    private final long expiresAt;
+
+  }
+
+}
@@ -0,0 +1,29 @@
+package com.sixsprints.core.cache;
+
+import org.springframework.context.ApplicationEvent;
+
+import lombok.Getter;
+
+@Getter
+public class EntityChangedEvent extends ApplicationEvent {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String collection;
+
+  private final String entityId;
+
+  private final String operation;
+
+  public EntityChangedEvent(Object source, String collection, String entityId, String operation) {
+    super(source);
+    this.collection = collection;
+    this.entityId = entityId;
+    this.operation = operation;
+  }
+
+  public boolean isCollectionWide() {
+    return entityId == null;
+  }
+
+}
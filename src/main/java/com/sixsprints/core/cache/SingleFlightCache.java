@@ -0,0 +1,102 @@
+package com.sixsprints.core.cache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.sixsprints.core.dto.FilterCacheConfig;
+import com.sixsprints.core.exception.BaseRuntimeException;
+
+import lombok.AllArgsConstructor;
+
+public class SingleFlightCache<V> {
+
+  private final long ttlMillis;
+
+  private final int maxSize;
+
+  private final Map<String, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+  private final Map<String, Entry<V>> results = new ConcurrentHashMap<>();
+
+  private final AtomicLong generation;
+
+  public SingleFlightCache(FilterCacheConfig config) {
+    this(config, new AtomicLong());
+  }
+
+  // Caches sharing a generation invalidate each other, e.g. the services of one collection
+  public SingleFlightCache(FilterCacheConfig config, AtomicLong generation) {
+    this.ttlMillis = config.getTtlMillis();
+    this.maxSize = config.getMaxSize();
+    this.generation = generation;
+  }
+
+  public V get(String key, Supplier<V> loader) {
+    Entry<V> entry = results.get(key);
+    if (entry != null && entry.expiresAt > System.currentTimeMillis() && entry.generation == generation.get()) {
+      return entry.value;
+    }
+    CompletableFuture<V> future = new CompletableFuture<>();
+    CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+    if (existing != null) {
+      return await(existing);
+    }
+    long started = generation.get();
+    try {
+      V value = loader.get();
+      if (ttlMillis > 0 && started == generation.get()) {
+        store(key, value, started);
+      }
+      future.complete(value);
+      return value;
+    } catch (RuntimeException ex) {
+      future.completeExceptionally(ex);
+      throw ex;
+    } finally {
+      inFlight.remove(key, future);
+    }
+  }
+
+  public void invalidateAll() {
+    generation.incrementAndGet();
+    results.clear();
+  }
+
+  private void store(String key, V value, long loadedGeneration) {
+    long now = System.currentTimeMillis();
+    if (results.size() >= maxSize) {
+      results.values().removeIf(entry -> entry.expiresAt <= now || entry.generation != generation.get());
+      if (results.size() >= maxSize) {
+        results.clear();
+      }
+    }
+    results.put(key, new Entry<>(value, now + ttlMillis, loadedGeneration));
+  }
+
+  private V await(CompletableFuture<V> future) {
+    try {
+      return future.join();
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw BaseRuntimeException.builder().error(ex.getCause().getMessage()).build();
+    }
+  }
+
+  @AllArgsConstructor
+  private static class Entry<V> {
+
+    private final V value;
+
+    private final long expiresAt;
+
+    private final long generation;
+
+  }
+
+}
@@ -5,12 +5,16 @@ import java.time.LocalTime;
 import org.joda.time.DateTimeZone;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.datatype.jsr310.deser.LocalTimeDeserializer;
 import com.sixsprints.core.converters.LocalTimeSerializerAsString;
+import com.sixsprints.core.dto.AsyncConfig;
+import com.sixsprints.core.generic.AsyncExecutor;
+import com.sixsprints.core.generic.ContextPropagatingTaskDecorator;
 import com.sixsprints.core.utils.DateUtil;
 
 @Configuration
@@ -22,6 +26,12 @@ public class ParentBeans {
       .datePattern(defaultDateFormat()).shortDatePattern(defaultShortDateFormat()).build();
   }
 
+  // Shared by every service without an AsyncConfig of its own, so the thread count does not grow with the services
+  @Bean
+  public AsyncExecutor asyncExecutor() {
+    return new AsyncExecutor("shared", asyncConfig(), taskDecorator());
+  }
+
   @Bean
   public ObjectMapper mapper() {
     ObjectMapper mapper = new ObjectMapper();
@@ -39,6 +49,14 @@ public class ParentBeans {
     return module;
   }
 
+  protected AsyncConfig asyncConfig() {
+    return AsyncConfig.builder().build();
+  }
+
+  protected TaskDecorator taskDecorator() {
+    return new ContextPropagatingTaskDecorator();
+  }
+
   protected DateTimeZone defaultTimeZone() {
     return DateUtil.DEFAULT_TIMEZONE;
   }
@@ -0,0 +1,24 @@
+package com.sixsprints.core.config;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import com.sixsprints.core.cache.ChangeStreamListener;
+
+// Opt in by extending this next to ParentMongoConfig. Change streams need a replica set or a sharded cluster.
+@Configuration
+public class ParentChangeStreamConfig {
+
+  @Bean
+  public ChangeStreamListener changeStreamListener(MongoOperations mongoOperations,
+    ApplicationEventPublisher publisher) {
+    return new ChangeStreamListener(mongoOperations, publisher, changeStreamName(mongoOperations));
+  }
+
+  protected String changeStreamName(MongoOperations mongoOperations) {
+    return mongoOperations.execute(db -> db.getName());
+  }
+
+}
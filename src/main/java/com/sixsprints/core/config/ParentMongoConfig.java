@@ -13,14 +13,21 @@ import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
 import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
+import com.mongodb.event.CommandListener;
 import com.sixsprints.core.converters.BigDecimalToDecimal128Converter;
 import com.sixsprints.core.converters.ClassToStringConverter;
 import com.sixsprints.core.converters.Decimal128ToBigDecimalConverter;
 import com.sixsprints.core.converters.IntegerToLocalTimeConverter;
 import com.sixsprints.core.converters.LocalTimeToIntegerConverter;
 import com.sixsprints.core.converters.StringToClassConverter;
+import com.sixsprints.core.dto.RoundTripConfig;
+import com.sixsprints.core.dto.SlowQueryConfig;
+import com.sixsprints.core.monitoring.RoundTripTracker;
+import com.sixsprints.core.monitoring.SlowQueryListener;
 import com.sixsprints.core.repository.InheritanceAwareMongoRepositoryFactoryBean;
 
 @Configuration
@@ -45,10 +52,43 @@ public class ParentMongoConfig extends AbstractMongoClientConfiguration {
 
   @Override
   public MongoClient mongoClient() {
-    StringBuilder connectionString = new StringBuilder("mongodb://").append(getHost()).append(":").append(getPort())
+    MongoClientSettings.Builder settings = MongoClientSettings.builder()
+      .applyConnectionString(new ConnectionString(connectionString()));
+    commandListeners().forEach(settings::addCommandListener);
+    MongoClient client = MongoClients.create(settings.build());
+    slowQueryListener().attach(client, getDatabaseName());
+    return client;
+  }
+
+  @Bean
+  public SlowQueryListener slowQueryListener() {
+    return new SlowQueryListener(slowQueryConfig());
+  }
+
+  @Bean
+  public RoundTripTracker roundTripTracker() {
+    return new RoundTripTracker(roundTripConfig());
+  }
+
+  protected List<CommandListener> commandListeners() {
+    List<CommandListener> listeners = new ArrayList<>();
+    listeners.add(slowQueryListener());
+    listeners.add(roundTripTracker());
+    return listeners;
+  }
+
+  protected SlowQueryConfig slowQueryConfig() {
+    return SlowQueryConfig.builder().build();
+  }
+
+  protected RoundTripConfig roundTripConfig() {
+    return RoundTripConfig.builder().build();
+  }
+
+  protected String connectionString() {
+    return new StringBuilder("mongodb://").append(getHost()).append(":").append(getPort())
       .append("/")
-      .append(getDatabase());
-    return MongoClients.create(connectionString.toString());
+      .append(getDatabase()).toString();
   }
 
   @Override
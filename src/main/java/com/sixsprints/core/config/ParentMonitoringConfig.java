@@ -0,0 +1,50 @@
+package com.sixsprints.core.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import com.sixsprints.core.dto.IndexAdvisorConfig;
+import com.sixsprints.core.monitoring.IndexAdvisor;
+import com.sixsprints.core.monitoring.IndexAdvisorEndpoint;
+import com.sixsprints.core.monitoring.RoundTripFilter;
+import com.sixsprints.core.monitoring.RoundTripTracker;
+import com.sixsprints.core.monitoring.SlowQueryEndpoint;
+import com.sixsprints.core.monitoring.SlowQueryListener;
+
+@Configuration
+public class ParentMonitoringConfig {
+
+  @Bean
+  public IndexAdvisor indexAdvisor(MongoOperations mongoOperations) {
+    return new IndexAdvisor(mongoOperations, indexAdvisorConfig());
+  }
+
+  @Bean
+  public RoundTripFilter roundTripFilter(RoundTripTracker roundTripTracker) {
+    return new RoundTripFilter(roundTripTracker);
+  }
+
+  protected IndexAdvisorConfig indexAdvisorConfig() {
+    return IndexAdvisorConfig.builder().build();
+  }
+
+  // Actuator is optional; the endpoints are only exposed when the application brings it along
+  @Configuration
+  @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+  public static class MonitoringEndpointConfig {
+
+    @Bean
+    public IndexAdvisorEndpoint indexAdvisorEndpoint(IndexAdvisor indexAdvisor) {
+      return new IndexAdvisorEndpoint(indexAdvisor);
+    }
+
+    @Bean
+    public SlowQueryEndpoint slowQueryEndpoint(SlowQueryListener slowQueryListener) {
+      return new SlowQueryEndpoint(slowQueryListener);
+    }
+
+  }
+
+}
@@ -0,0 +1,49 @@
+package com.sixsprints.core.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+
+// Opt in by extending this next to ParentMongoConfig when using ReactiveAbstractCrudService. It opens a second,
+// reactive connection pool against the same database.
+@Configuration
+public class ParentReactiveMongoConfig {
+
+  @Autowired
+  private ParentMongoConfig mongoConfig;
+
+  // Same server and command listeners as the blocking client, so slow queries and round trips of both are seen
+  @Bean
+  public MongoClient reactiveMongoClient() {
+    MongoClientSettings.Builder settings = MongoClientSettings.builder()
+      .applyConnectionString(new ConnectionString(connectionString()));
+    mongoConfig.commandListeners().forEach(settings::addCommandListener);
+    return MongoClients.create(settings.build());
+  }
+
+  @Bean
+  public ReactiveMongoTemplate reactiveMongoTemplate(MongoClient reactiveMongoClient,
+    MappingMongoConverter mappingMongoConverter, MongoOperations mongoOperations) {
+    return new ReactiveMongoTemplate(
+      new SimpleReactiveMongoDatabaseFactory(reactiveMongoClient, databaseName(mongoOperations)),
+      mappingMongoConverter);
+  }
+
+  protected String connectionString() {
+    return mongoConfig.connectionString();
+  }
+
+  protected String databaseName(MongoOperations mongoOperations) {
+    return mongoOperations.execute(db -> db.getName());
+  }
+
+}
@@ -3,10 +3,12 @@ package com.sixsprints.core.controller;
 import java.io.IOException;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 
+import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -63,6 +65,23 @@ public abstract class AbstractCrudController<T extends AbstractMongoEntity, DTO,
     return RestUtil.successResponse(mapper.pageEntityToPageDtoDto(service.filter(filterRequestDto)));
   }
 
+  @PostMapping("/search/groups")
+  public ResponseEntity<?> filterGroups(U user, @RequestBody FilterRequestDto filterRequestDto) {
+    if (!service.isGroupLevel(filterRequestDto)) {
+      return filter(user, filterRequestDto);
+    }
+    Page<Map<String, Object>> page = service.filterGroups(filterRequestDto);
+    return RestUtil.successResponse(PageDto.<Map<String, Object>>builder().content(page.getContent())
+      .currentPage(page.getNumber()).currentPageSize(page.getNumberOfElements())
+      .totalPages(page.getTotalPages()).totalElements(page.getTotalElements()).build());
+  }
+
+  @PostMapping("/aggregate")
+  public ResponseEntity<RestResponse<List<Map<String, Object>>>> aggregate(U user,
+    @RequestBody FilterRequestDto filterRequestDto) {
+    return RestUtil.successResponse(service.aggregate(filterRequestDto));
+  }
+
   @PostMapping("/column/master")
   public ResponseEntity<RestResponse<List<String>>> getDistinctValues(@RequestParam String column,
     U user, @RequestBody FilterRequestDto filterRequestDto) {
@@ -75,6 +94,11 @@ public abstract class AbstractCrudController<T extends AbstractMongoEntity, DTO,
     return RestUtil.successResponse(null);
   }
 
+  @PostMapping("/delete/filter")
+  public ResponseEntity<RestResponse<Long>> deleteByFilter(U user, @RequestBody FilterRequestDto filterRequestDto) {
+    return RestUtil.successResponse(service.delete(filterRequestDto));
+  }
+
   @PostMapping(value = "/export", produces = "text/csv")
   public void download(U user,
     @RequestBody FilterRequestDto filterRequestDto, HttpServletResponse response, Locale locale)
@@ -56,6 +56,8 @@ public class AbstractMongoEntity implements Serializable {
   @LastModifiedBy
   private String lastModifiedBy;
 
+  protected String hash;
+
   public void copyEntityFrom(AbstractMongoEntity source) {
     this.id = source.id;
     this.active = source.active;
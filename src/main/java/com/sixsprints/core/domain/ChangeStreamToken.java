@@ -0,0 +1,27 @@
+package com.sixsprints.core.domain;
+
+import java.util.Date;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "changeStreamTokens")
+public class ChangeStreamToken {
+
+  @Id
+  private String id;
+
+  private String token;
+
+  private Date dateModified;
+
+}
@@ -0,0 +1,48 @@
+package com.sixsprints.core.domain;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.sixsprints.core.enums.HookEventStatus;
+import com.sixsprints.core.enums.HookType;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "hookEvents")
+@CompoundIndex(def = "{'service': 1, 'status': 1, 'nextAttemptAt': 1}")
+public class HookEvent {
+
+  @Id
+  private String id;
+
+  private String service;
+
+  private List<HookType> hookTypes;
+
+  private List<String> entityIds;
+
+  // Entity state as written, so handlers see what was saved even if it changed or was deleted since
+  private List<org.bson.Document> entities;
+
+  private HookEventStatus status;
+
+  private int attempts;
+
+  private Date nextAttemptAt;
+
+  private String lastError;
+
+  private Date dateCreated;
+
+}
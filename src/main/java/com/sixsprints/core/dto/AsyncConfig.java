@@ -0,0 +1,24 @@
+package com.sixsprints.core.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AsyncConfig {
+
+  @Builder.Default
+  private int maxConcurrency = 8;
+
+  @Builder.Default
+  private int queueCapacity = 500;
+
+  // Threads of a shared pool one service may hold at a time, see AsyncExecutor.forService
+  @Builder.Default
+  private int maxConcurrencyPerService = 4;
+
+}
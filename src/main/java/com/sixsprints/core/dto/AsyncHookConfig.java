@@ -0,0 +1,35 @@
+package com.sixsprints.core.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AsyncHookConfig {
+
+  @Builder.Default
+  private int workers = 4;
+
+  @Builder.Default
+  private int queueCapacity = 1000;
+
+  @Builder.Default
+  private int maxAttempts = 5;
+
+  @Builder.Default
+  private long retryBackoffMillis = 1000;
+
+  @Builder.Default
+  private long pollIntervalMillis = 5000;
+
+  @Builder.Default
+  private long leaseMillis = 60000;
+
+  @Builder.Default
+  private boolean transactional = Boolean.TRUE;
+
+}
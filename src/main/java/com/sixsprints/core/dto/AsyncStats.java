@@ -0,0 +1,30 @@
+package com.sixsprints.core.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AsyncStats {
+
+  private long submitted;
+
+  private long completed;
+
+  private long failed;
+
+  private long rejected;
+
+  private int active;
+
+  private int queued;
+
+  private long averageWaitMillis;
+
+  private long averageRunMillis;
+
+}
@@ -0,0 +1,20 @@
+package com.sixsprints.core.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheConfig {
+
+  @Builder.Default
+  private int maxSize = 1000;
+
+  @Builder.Default
+  private long ttlMillis = 60000;
+
+}
@@ -0,0 +1,42 @@
+package com.sixsprints.core.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DatasetConfig {
+
+  @Builder.Default
+  private long seed = 42L;
+
+  @Builder.Default
+  private int batchSize = 5_000;
+
+  @Builder.Default
+  private int threads = 4;
+
+  @Builder.Default
+  private double skew = 1.1;
+
+  @Builder.Default
+  private int distinctValues = 1_000;
+
+  @Builder.Default
+  private long referenceMillis = 1_577_836_800_000L;
+
+  @Builder.Default
+  private int dateRangeDays = 3 * 365;
+
+  @Builder.Default
+  private boolean reserveSlugs = true;
+
+  // Generated rows get sequences from here on; raise it when the collection already has rows
+  @Builder.Default
+  private int firstSequence = 1;
+
+}
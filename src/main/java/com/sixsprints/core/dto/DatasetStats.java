@@ -0,0 +1,28 @@
+package com.sixsprints.core.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DatasetStats {
+
+  private String collection;
+
+  private int requested;
+
+  private long inserted;
+
+  private long failed;
+
+  private int batches;
+
+  private Integer firstSequence;
+
+  private long durationMillis;
+
+}
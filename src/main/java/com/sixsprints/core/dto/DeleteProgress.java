@@ -0,0 +1,22 @@
+package com.sixsprints.core.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeleteProgress {
+
+  private boolean softDelete;
+
+  private int chunks;
+
+  private long processed;
+
+  private Long total;
+
+}
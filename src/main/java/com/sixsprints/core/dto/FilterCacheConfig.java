@@ -0,0 +1,20 @@
+package com.sixsprints.core.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FilterCacheConfig {
+
+  @Builder.Default
+  private long ttlMillis = 0;
+
+  @Builder.Default
+  private int maxSize = 256;
+
+}
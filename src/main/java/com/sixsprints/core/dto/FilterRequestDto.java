@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.Map;
 
 import com.sixsprints.core.dto.filter.ColumnFilter;
+import com.sixsprints.core.dto.filter.ColumnModel;
 import com.sixsprints.core.dto.filter.SortModel;
 
 import lombok.AllArgsConstructor;
@@ -27,4 +28,10 @@ public class FilterRequestDto {
 
   private Boolean deepFilter;
 
+  private List<ColumnModel> rowGroupCols;
+
+  private List<ColumnModel> valueCols;
+
+  private List<String> groupKeys;
+
 }
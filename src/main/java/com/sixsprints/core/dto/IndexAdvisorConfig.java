@@ -0,0 +1,29 @@
+package com.sixsprints.core.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IndexAdvisorConfig {
+
+  @Builder.Default
+  private long slowMillis = 100;
+
+  @Builder.Default
+  private double sampleRate = 0.01;
+
+  @Builder.Default
+  private double examinedRatio = 2;
+
+  @Builder.Default
+  private int maxShapes = 500;
+
+  @Builder.Default
+  private boolean autoApply = false;
+
+}
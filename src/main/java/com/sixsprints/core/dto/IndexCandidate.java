@@ -0,0 +1,38 @@
+package com.sixsprints.core.dto;
+
+import java.util.LinkedHashMap;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IndexCandidate {
+
+  private String collection;
+
+  private String shape;
+
+  private LinkedHashMap<String, Integer> keys;
+
+  private long executions;
+
+  private long slowExecutions;
+
+  private double avgMillis;
+
+  private String winningStage;
+
+  private long docsExamined;
+
+  private long nReturned;
+
+  private long estimatedDocsExaminedSaved;
+
+  private boolean applied;
+
+}
@@ -0,0 +1,26 @@
+package com.sixsprints.core.dto;
+
+import java.util.LinkedHashMap;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IndexPlan {
+
+  private String collection;
+
+  private LinkedHashMap<String, Integer> keys;
+
+  private String reason;
+
+  private boolean exists;
+
+  private boolean created;
+
+}
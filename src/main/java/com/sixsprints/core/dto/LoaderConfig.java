@@ -0,0 +1,26 @@
+package com.sixsprints.core.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoaderConfig {
+
+  @Builder.Default
+  private long windowMillis = 2;
+
+  @Builder.Default
+  private int maxBatchSize = 100;
+
+  @Builder.Default
+  private int threads = 2;
+
+  @Builder.Default
+  private long timeoutMillis = 5000;
+
+}
@@ -1,10 +1,14 @@
 package com.sixsprints.core.dto;
 
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.data.domain.Sort;
 
+import com.mongodb.ReadPreference;
 import com.sixsprints.core.domain.AbstractMongoEntity;
+import com.sixsprints.core.enums.IndexMode;
+import com.sixsprints.core.enums.ReadOperation;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -34,4 +38,38 @@ public class MetaData<T extends AbstractMongoEntity> {
   @Builder.Default
   private boolean ignoreNullWhileBulkUpdate = Boolean.TRUE;
 
+  @Builder.Default
+  private boolean contentHash = Boolean.FALSE;
+
+  private WriteBehindConfig writeBehind;
+
+  private AsyncHookConfig asyncHooks;
+
+  private CacheConfig cache;
+
+  private LoaderConfig loader;
+
+  private FilterCacheConfig filterCache;
+
+  private Map<ReadOperation, ReadPreference> readPreferences;
+
+  private AsyncConfig async;
+
+  @Builder.Default
+  private boolean watchChanges = Boolean.FALSE;
+
+  @Builder.Default
+  private IndexMode indexMode = IndexMode.OFF;
+
+  // Every planned index slows writes down; the ones past this count, in plan order, are left out
+  @Builder.Default
+  private int maxPlannedIndexes = 5;
+
+  @Builder.Default
+  private boolean metrics = Boolean.TRUE;
+
+  // Percentile histograms add a bucket series per timer; enable them only where latency SLOs are tracked
+  @Builder.Default
+  private boolean metricsHistogram = Boolean.FALSE;
+
 }
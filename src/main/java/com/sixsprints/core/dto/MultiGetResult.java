@@ -0,0 +1,21 @@
+package com.sixsprints.core.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultiGetResult<T> {
+
+  private Map<String, T> data;
+
+  private List<String> missing;
+
+}
@@ -0,0 +1,30 @@
+package com.sixsprints.core.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoundTripConfig {
+
+  @Builder.Default
+  private boolean enabled = true;
+
+  @Builder.Default
+  private int maxCommands = 50;
+
+  @Builder.Default
+  private long maxMillis = 1000;
+
+  // Bytes of the replies received within one scope
+  @Builder.Default
+  private long maxBytes = 16 * 1024 * 1024;
+
+  @Builder.Default
+  private int repeatThreshold = 10;
+
+}
@@ -0,0 +1,28 @@
+package com.sixsprints.core.dto;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoundTripStats {
+
+  private String name;
+
+  private int commands;
+
+  private long millis;
+
+  private long bytes;
+
+  private Map<String, Integer> repeated;
+
+  private boolean overBudget;
+
+}
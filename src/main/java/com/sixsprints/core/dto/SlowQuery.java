@@ -0,0 +1,38 @@
+package com.sixsprints.core.dto;
+
+import java.util.Date;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlowQuery {
+
+  private Date timestamp;
+
+  private String database;
+
+  private String collection;
+
+  private String commandName;
+
+  private String shape;
+
+  private String command;
+
+  private long durationMillis;
+
+  private String winningPlan;
+
+  private Long keysExamined;
+
+  private Long docsExamined;
+
+  private Long nReturned;
+
+}
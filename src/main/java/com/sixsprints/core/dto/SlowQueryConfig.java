@@ -0,0 +1,32 @@
+package com.sixsprints.core.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlowQueryConfig {
+
+  @Builder.Default
+  private long thresholdMillis = 200;
+
+  @Builder.Default
+  private int bufferSize = 200;
+
+  @Builder.Default
+  private int queueCapacity = 100;
+
+  private boolean explain;
+
+  private boolean captureCommand;
+
+  private String collection;
+
+  @Builder.Default
+  private long cappedBytes = 10 * 1024 * 1024;
+
+}
@@ -0,0 +1,28 @@
+package com.sixsprints.core.dto;
+
+import com.mongodb.WriteConcern;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WriteBehindConfig {
+
+  @Builder.Default
+  private int batchSize = 500;
+
+  @Builder.Default
+  private long flushIntervalMillis = 50;
+
+  @Builder.Default
+  private int maxPending = 10000;
+
+  @Builder.Default
+  private WriteConcern writeConcern = WriteConcern.ACKNOWLEDGED;
+
+}
@@ -0,0 +1,24 @@
+package com.sixsprints.core.dto.filter;
+
+import com.sixsprints.core.enums.AggregationFunction;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ColumnModel {
+
+  private String id;
+
+  private String displayName;
+
+  private String field;
+
+  private AggregationFunction aggFunc;
+
+}
@@ -0,0 +1,14 @@
+package com.sixsprints.core.enums;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+public enum AggregationFunction {
+
+  SUM, AVG, MIN, MAX, COUNT;
+
+  @JsonCreator
+  public static AggregationFunction fromValue(String value) {
+    return value == null ? null : valueOf(value.toUpperCase());
+  }
+
+}
@@ -0,0 +1,7 @@
+package com.sixsprints.core.enums;
+
+public enum HookType {
+
+  POST_SAVE, POST_UPDATE, POST_CREATE;
+
+}
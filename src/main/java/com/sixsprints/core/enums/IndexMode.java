@@ -0,0 +1,7 @@
+package com.sixsprints.core.enums;
+
+public enum IndexMode {
+
+  OFF, DRY_RUN, CREATE;
+
+}
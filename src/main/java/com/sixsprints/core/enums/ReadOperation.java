@@ -0,0 +1,7 @@
+package com.sixsprints.core.enums;
+
+public enum ReadOperation {
+
+  MULTI_GET, FILTER, FILTER_ALL, DISTINCT, EXPORT, STREAM, AGGREGATE;
+
+}
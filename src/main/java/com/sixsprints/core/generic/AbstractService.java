@@ -48,6 +48,7 @@ import com.sixsprints.core.exception.EntityInvalidException;
 import com.sixsprints.core.exception.EntityNotFoundException;
 import com.sixsprints.core.repository.GenericRepository;
 import com.sixsprints.core.utils.BeanWrapperUtil;
+import com.sixsprints.core.utils.ContentHashUtil;
 import com.sixsprints.core.utils.DateUtil;
 
 import lombok.extern.slf4j.Slf4j;
@@ -89,11 +90,13 @@ public abstract class AbstractService<T extends AbstractMongoEntity> implements
         domain.setSlug(prefix(domain) + getNextSequence(collection(domain)));
       }
     }
+    domain.setHash(null);
     return repository().save(domain);
   }
 
   @Override
   public List<T> save(List<T> domains) {
+    domains.forEach(domain -> domain.setHash(null));
     return repository().saveAll(domains);
   }
 
@@ -146,7 +149,7 @@ public abstract class AbstractService<T extends AbstractMongoEntity> implements
   @Override
   public void softDelete(List<String> ids) {
     Query query = new Query(new Criteria("id").in(ids));
-    Update update = new Update().set("active", Boolean.FALSE);
+    Update update = new Update().set("active", Boolean.FALSE).unset(ContentHashUtil.HASH);
     mongo.updateMulti(query, update, classType());
     List<String> slugs = findSlugByIds(ids);
     for (String slug : slugs) {
@@ -341,7 +344,8 @@ public abstract class AbstractService<T extends AbstractMongoEntity> implements
     if (values == null || values.isEmpty() || StringUtils.isEmpty(identifier)) {
       return false;
     }
-    Update update = new Update();
+    // This service never computes content hashes, so drop any left by the generic services
+    Update update = new Update().unset(ContentHashUtil.HASH);
     for (String key : values.keySet()) {
       update.set(key, values.get(key));
     }
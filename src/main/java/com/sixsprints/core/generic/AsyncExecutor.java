@@ -0,0 +1,184 @@
+package com.sixsprints.core.generic;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.http.HttpStatus;
+
+import com.sixsprints.core.dto.AsyncConfig;
+import com.sixsprints.core.dto.AsyncStats;
+import com.sixsprints.core.exception.BaseRuntimeException;
+
+public class AsyncExecutor {
+
+  private final String name;
+
+  private final AsyncConfig config;
+
+  private final ThreadPoolExecutor executor;
+
+  private final TaskDecorator decorator;
+
+  // Only set on the per service views of a shared pool, see forService
+  private final Semaphore permits;
+
+  private final Queue<PendingTask> pending = new ConcurrentLinkedQueue<>();
+
+  private final AtomicInteger pendingCount = new AtomicInteger();
+
+  private final LongAdder submitted = new LongAdder();
+
+  private final LongAdder completed = new LongAdder();
+
+  private final LongAdder failed = new LongAdder();
+
+  private final LongAdder rejected = new LongAdder();
+
+  private final LongAdder waitNanos = new LongAdder();
+
+  private final LongAdder runNanos = new LongAdder();
+
+  public AsyncExecutor(String name, AsyncConfig config) {
+    this(name, config, new ContextPropagatingTaskDecorator());
+  }
+
+  public AsyncExecutor(String name, AsyncConfig config, TaskDecorator decorator) {
+    this.name = name;
+    this.config = config;
+    this.decorator = decorator;
+    this.permits = null;
+    AtomicInteger count = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(config.getMaxConcurrency(), config.getMaxConcurrency(), 60L,
+      TimeUnit.SECONDS, new ArrayBlockingQueue<>(config.getQueueCapacity()), runnable -> {
+        Thread thread = new Thread(runnable, "async-" + name + "-" + count.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+    this.executor.allowCoreThreadTimeOut(true);
+  }
+
+  private AsyncExecutor(String name, AsyncExecutor shared) {
+    this.name = name;
+    this.config = shared.config;
+    this.decorator = shared.decorator;
+    this.executor = shared.executor;
+    this.permits = new Semaphore(Math.max(1, config.getMaxConcurrencyPerService()));
+  }
+
+  // A view on this pool that lets one service hold at most maxConcurrencyPerService of its threads and queue slots.
+  // Tasks beyond that wait in the service's own queue, so a hot service cannot starve the others, and the view keeps
+  // the stats of that service only.
+  public AsyncExecutor forService(String service) {
+    return new AsyncExecutor(service, this);
+  }
+
+  public <R> CompletableFuture<R> submit(Callable<R> task) {
+    CompletableFuture<R> future = new CompletableFuture<>();
+    long queuedAt = System.nanoTime();
+    Runnable runnable = decorator.decorate(() -> {
+      long startedAt = System.nanoTime();
+      waitNanos.add(startedAt - queuedAt);
+      try {
+        future.complete(task.call());
+        completed.increment();
+      } catch (Throwable ex) {
+        future.completeExceptionally(ex);
+        failed.increment();
+      } finally {
+        runNanos.add(System.nanoTime() - startedAt);
+        if (permits != null) {
+          permits.release();
+          drain();
+        }
+      }
+    });
+    if (permits == null) {
+      execute(new PendingTask(runnable, future));
+      return future;
+    }
+    if (pendingCount.incrementAndGet() > config.getQueueCapacity()) {
+      pendingCount.decrementAndGet();
+      reject(future);
+      return future;
+    }
+    pending.add(new PendingTask(runnable, future));
+    drain();
+    return future;
+  }
+
+  public AsyncStats stats() {
+    long done = completed.sum() + failed.sum();
+    int active = permits == null ? executor.getActiveCount()
+      : Math.max(1, config.getMaxConcurrencyPerService()) - permits.availablePermits();
+    int queued = permits == null ? executor.getQueue().size() : pendingCount.get();
+    return AsyncStats.builder().submitted(submitted.sum()).completed(completed.sum()).failed(failed.sum())
+      .rejected(rejected.sum()).active(active).queued(queued)
+      .averageWaitMillis(done == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(waitNanos.sum() / done))
+      .averageRunMillis(done == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(runNanos.sum() / done)).build();
+  }
+
+  // The views share the pool of the executor they came from, which is closed by its owner
+  public void close() {
+    if (permits == null) {
+      executor.shutdown();
+    }
+  }
+
+  private void drain() {
+    while (permits.tryAcquire()) {
+      PendingTask next = pending.poll();
+      if (next == null) {
+        permits.release();
+        if (pending.isEmpty()) {
+          return;
+        }
+        continue;
+      }
+      pendingCount.decrementAndGet();
+      if (!execute(next)) {
+        permits.release();
+      }
+    }
+  }
+
+  private boolean execute(PendingTask task) {
+    try {
+      executor.execute(task.runnable);
+      submitted.increment();
+      return true;
+    } catch (RejectedExecutionException ex) {
+      reject(task.future);
+      return false;
+    }
+  }
+
+  private void reject(CompletableFuture<?> future) {
+    rejected.increment();
+    future.completeExceptionally(BaseRuntimeException.builder().httpStatus(HttpStatus.TOO_MANY_REQUESTS)
+      .error("Too many concurrent requests for " + name).build());
+  }
+
+  private static class PendingTask {
+
+    private final Runnable runnable;
+
+    private final CompletableFuture<?> future;
+
+    private PendingTask(Runnable runnable, CompletableFuture<?> future) {
+      this.runnable = runnable;
+      this.future = future;
+    }
+
+  }
+
+}
@@ -0,0 +1,184 @@
+package com.sixsprints.core.generic;
+
+import static org.springframework.data.mongodb.core.FindAndModifyOptions.options;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.sixsprints.core.domain.HookEvent;
+import com.sixsprints.core.dto.AsyncHookConfig;
+import com.sixsprints.core.enums.HookEventStatus;
+import com.sixsprints.core.enums.HookType;
+import com.sixsprints.core.exception.BaseRuntimeException;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+public class AsyncHookDispatcher {
+
+  private static final String _ID = "_id";
+
+  private static final String SERVICE = "service";
+
+  private static final String STATUS = "status";
+
+  private static final String ATTEMPTS = "attempts";
+
+  private static final String NEXT_ATTEMPT_AT = "nextAttemptAt";
+
+  private static final String LAST_ERROR = "lastError";
+
+  private final String service;
+
+  private final AsyncHookConfig config;
+
+  private final MongoOperations mongo;
+
+  private final BiConsumer<HookType, List<Document>> handler;
+
+  private final ThreadPoolExecutor workers;
+
+  private final ScheduledExecutorService poller;
+
+  public AsyncHookDispatcher(String service, AsyncHookConfig config, MongoOperations mongo,
+    BiConsumer<HookType, List<Document>> handler) {
+    this.service = service;
+    this.config = config;
+    this.mongo = mongo;
+    this.handler = handler;
+    this.workers = new ThreadPoolExecutor(config.getWorkers(), config.getWorkers(), 0L, TimeUnit.MILLISECONDS,
+      new ArrayBlockingQueue<>(config.getQueueCapacity()), threadFactory("async-hook-"));
+    this.poller = Executors.newSingleThreadScheduledExecutor(threadFactory("async-hook-poller-"));
+    poller.scheduleWithFixedDelay(this::poll, config.getPollIntervalMillis(), config.getPollIntervalMillis(),
+      TimeUnit.MILLISECONDS);
+  }
+
+  public void record(List<HookType> hookTypes, List<String> entityIds, List<Document> entities) {
+    if (config.isTransactional() && !TransactionSynchronizationManager.isActualTransactionActive()) {
+      throw BaseRuntimeException.builder().httpStatus(HttpStatus.INTERNAL_SERVER_ERROR)
+        .error("Async hooks of " + service + " are transactional but no transaction is active. Configure a "
+          + "MongoTransactionManager on a replica set, or set AsyncHookConfig.transactional to false to accept "
+          + "hooks that can be lost when the outbox write fails.")
+        .build();
+    }
+    Date now = new Date();
+    HookEvent event = HookEvent.builder().service(service).hookTypes(hookTypes).entityIds(entityIds)
+      .entities(entities).status(HookEventStatus.PENDING).nextAttemptAt(now).dateCreated(now).build();
+    event = mongo.insert(event);
+    String eventId = event.getId();
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+        @Override
+        public void afterCommit() {
+          dispatch(eventId);
+        }
+      });
+    } else {
+      dispatch(eventId);
+    }
+  }
+
+  public void close() {
+    poller.shutdown();
+    workers.shutdown();
+    try {
+      workers.awaitTermination(config.getLeaseMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void dispatch(String eventId) {
+    try {
+      workers.execute(() -> {
+        HookEvent event = claim(where(_ID).is(eventId).and(STATUS).is(HookEventStatus.PENDING));
+        if (event != null) {
+          run(event);
+        }
+      });
+    } catch (RejectedExecutionException ex) {
+      log.debug("Hook workers for {} are saturated. Event {} is left for the poller.", service, eventId);
+    }
+  }
+
+  private void poll() {
+    try {
+      while (workers.getQueue().remainingCapacity() > 0) {
+        Criteria due = new Criteria().orOperator(where(STATUS).is(HookEventStatus.PENDING),
+          where(STATUS).is(HookEventStatus.PROCESSING));
+        HookEvent event = claim(due.and(NEXT_ATTEMPT_AT).lte(new Date()));
+        if (event == null) {
+          return;
+        }
+        try {
+          workers.execute(() -> run(event));
+        } catch (RejectedExecutionException ex) {
+          release(event);
+          return;
+        }
+      }
+    } catch (Exception ex) {
+      log.error("Polling hook events for {} failed. {}", service, ex.getMessage());
+    }
+  }
+
+  private HookEvent claim(Criteria criteria) {
+    Update update = new Update().set(STATUS, HookEventStatus.PROCESSING).inc(ATTEMPTS, 1)
+      .set(NEXT_ATTEMPT_AT, new Date(System.currentTimeMillis() + config.getLeaseMillis()));
+    return mongo.findAndModify(query(criteria.and(SERVICE).is(service)), update, options().returnNew(true),
+      HookEvent.class);
+  }
+
+  private void run(HookEvent event) {
+    try {
+      for (HookType hookType : event.getHookTypes()) {
+        handler.accept(hookType, event.getEntities());
+      }
+      mongo.remove(query(where(_ID).is(event.getId())), HookEvent.class);
+    } catch (Exception ex) {
+      log.warn("{} hooks for {} failed on attempt {}. {}", event.getHookTypes(), service, event.getAttempts(),
+        ex.getMessage());
+      boolean exhausted = event.getAttempts() >= config.getMaxAttempts();
+      long backoff = config.getRetryBackoffMillis() * (1L << Math.min(event.getAttempts() - 1, 16));
+      Update update = new Update().set(LAST_ERROR, ex.getMessage())
+        .set(STATUS, exhausted ? HookEventStatus.FAILED : HookEventStatus.PENDING)
+        .set(NEXT_ATTEMPT_AT, new Date(System.currentTimeMillis() + backoff));
+      mongo.updateFirst(query(where(_ID).is(event.getId())), update, HookEvent.class);
+    }
+  }
+
+  private void release(HookEvent event) {
+    Update update = new Update().set(STATUS, HookEventStatus.PENDING).inc(ATTEMPTS, -1).set(NEXT_ATTEMPT_AT,
+      new Date());
+    mongo.updateFirst(query(where(_ID).is(event.getId())), update, HookEvent.class);
+  }
+
+  private ThreadFactory threadFactory(String prefix) {
+    AtomicInteger count = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, prefix + service + "-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+}
@@ -0,0 +1,73 @@
+package com.sixsprints.core.generic;
+
+import java.util.Map;
+
+import org.slf4j.MDC;
+import org.springframework.context.i18n.LocaleContext;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+// Carries the caller's thread bound context (MDC, locale, request and, when Spring Security is present, the security
+// context) into the pooled thread, and restores what the pooled thread had before once the task is done.
+public class ContextPropagatingTaskDecorator implements TaskDecorator {
+
+  private static final boolean SECURITY_PRESENT = ClassUtils.isPresent(
+    "org.springframework.security.core.context.SecurityContextHolder",
+    ContextPropagatingTaskDecorator.class.getClassLoader());
+
+  @Override
+  public Runnable decorate(Runnable runnable) {
+    Map<String, String> mdc = MDC.getCopyOfContextMap();
+    LocaleContext locale = LocaleContextHolder.getLocaleContext();
+    RequestAttributes request = RequestContextHolder.getRequestAttributes();
+    Object security = SECURITY_PRESENT ? SecurityPropagation.capture() : null;
+    return () -> {
+      Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+      LocaleContext previousLocale = LocaleContextHolder.getLocaleContext();
+      RequestAttributes previousRequest = RequestContextHolder.getRequestAttributes();
+      Object previousSecurity = SECURITY_PRESENT ? SecurityPropagation.capture() : null;
+      apply(mdc, locale, request, security);
+      try {
+        runnable.run();
+      } finally {
+        apply(previousMdc, previousLocale, previousRequest, previousSecurity);
+      }
+    };
+  }
+
+  private void apply(Map<String, String> mdc, LocaleContext locale, RequestAttributes request, Object security) {
+    if (mdc == null) {
+      MDC.clear();
+    } else {
+      MDC.setContextMap(mdc);
+    }
+    LocaleContextHolder.setLocaleContext(locale);
+    RequestContextHolder.setRequestAttributes(request);
+    if (SECURITY_PRESENT) {
+      SecurityPropagation.restore(security);
+    }
+  }
+
+  // Only loaded when Spring Security is on the classpath
+  private static class SecurityPropagation {
+
+    private static Object capture() {
+      return SecurityContextHolder.getContext();
+    }
+
+    private static void restore(Object context) {
+      if (context == null) {
+        SecurityContextHolder.clearContext();
+      } else {
+        SecurityContextHolder.setContext((SecurityContext) context);
+      }
+    }
+
+  }
+
+}
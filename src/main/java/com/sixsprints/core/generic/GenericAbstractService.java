@@ -4,42 +4,58 @@ import static org.springframework.data.mongodb.core.FindAndModifyOptions.options
 import static org.springframework.data.mongodb.core.query.Criteria.where;
 import static org.springframework.data.mongodb.core.query.Query.query;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+import javax.annotation.PreDestroy;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
-import org.springframework.http.HttpStatus;
 import org.springframework.util.CollectionUtils;
-import org.springframework.util.StringUtils;
 
 import com.sixsprints.core.domain.AbstractMongoEntity;
 import com.sixsprints.core.domain.CustomSequence;
+import com.sixsprints.core.dto.AsyncConfig;
 import com.sixsprints.core.dto.MetaData;
-import com.sixsprints.core.exception.BaseRuntimeException;
-import com.sixsprints.core.exception.EntityAlreadyExistsException;
-import com.sixsprints.core.exception.EntityInvalidException;
-import com.sixsprints.core.exception.EntityNotFoundException;
+import com.sixsprints.core.monitoring.RoundTripTracker;
+import com.sixsprints.core.monitoring.ServiceMetrics;
 import com.sixsprints.core.repository.GenericRepository;
 
-public abstract class GenericAbstractService<T extends AbstractMongoEntity> extends ServiceHook<T> {
+import io.micrometer.core.instrument.MeterRegistry;
 
-  private static final String SEQ = "seq";
+public abstract class GenericAbstractService<T extends AbstractMongoEntity> extends GenericServiceSupport<T> {
 
-  private static final String _ID = "_id";
+  private static final String SEQ = "seq";
 
   @Autowired
   protected MongoOperations mongo;
 
-  protected abstract GenericRepository<T> repository();
+  @Autowired(required = false)
+  private MeterRegistry meterRegistry;
 
-  protected abstract MetaData<T> metaData(T entity);
+  @Autowired(required = false)
+  private RoundTripTracker roundTripTracker;
 
-  protected MetaData<T> metaData() {
-    return metaData(null);
-  }
+  @Autowired(required = false)
+  private AsyncExecutor sharedAsyncExecutor;
+
+  private volatile AsyncExecutor asyncExecutor;
+
+  private volatile ServiceMetrics metrics;
 
-  protected abstract T findDuplicate(T entity);
+  protected abstract GenericRepository<T> repository();
+
+  // Services that declare duplicateCriteria get the matching lookup for free, so the two never drift apart
+  protected T findDuplicate(T entity) {
+    Criteria criteria = duplicateCriteria(entity);
+    return criteria == null ? null : mongo.findOne(new Query(withInheritance(criteria)), metaData().getClassType());
+  }
 
   protected int getNextSequence(String seqName, int size) {
     CustomSequence counter = mongo.findAndModify(query(where(_ID).is(seqName)), new Update().inc(SEQ, size),
@@ -52,71 +68,79 @@ public abstract class GenericAbstractService<T extends AbstractMongoEntity> exte
   }
 
   protected void generateSlugIfRequired(T entity) {
-    if (shouldOverwriteSlug(entity)) {
-      MetaData<T> metaData = metaData(entity);
-      if (metaData != null && metaData.getCollection() != null) {
-        int nextSequence = getNextSequence(metaData.getCollection());
-        entity.setSlug(slug(nextSequence, metaData));
-        entity.setSequence(nextSequence);
-      }
-    }
+    generateSlugIfRequired(Collections.singletonList(entity));
   }
 
   protected void generateSlugIfRequired(List<T> entities) {
     if (CollectionUtils.isEmpty(entities)) {
       return;
     }
+    List<T> slugless = sluglessEntities(entities);
     MetaData<T> metaData = metaData(entities.get(0));
-    if (metaData == null) {
+    if (slugless.isEmpty() || metaData == null || metaData.getCollection() == null) {
       return;
     }
-    int size = entities.size();
-    int sequence = getNextSequence(metaData.getCollection(), size);
-    int i = 1;
-    for (T entity : entities) {
-      if (shouldOverwriteSlug(entity)) {
-        int nextSequence = sequence - size + i++;
-        entity.setSlug(slug(nextSequence, metaData));
-        entity.setSequence(nextSequence);
-      }
-    }
-
-  }
-
-  protected EntityAlreadyExistsException alreadyExistsException(T domain) {
-    return EntityAlreadyExistsException.childBuilder().build();
-  }
-
-  protected EntityNotFoundException notFoundException(String string) {
-    return EntityNotFoundException.childBuilder().build();
-  }
-
-  protected boolean isInvalid(T domain) {
-    return false;
+    assignSlugs(slugless, getNextSequence(metaData.getCollection(), slugless.size()), metaData);
   }
 
-  protected EntityInvalidException invalidException(T domain) {
-    return EntityInvalidException.childBuilder().build();
+  @Override
+  protected MongoConverter converter() {
+    return mongo.getConverter();
   }
 
-  protected boolean isNew(T entity) {
-    return StringUtils.isEmpty(entity.getId());
+  protected <R> CompletableFuture<R> async(Callable<R> task) {
+    if (roundTripTracker == null) {
+      return asyncExecutor().submit(task);
+    }
+    String name = metaData().getClassType().getSimpleName() + " async";
+    return asyncExecutor().submit(() -> {
+      boolean started = roundTripTracker.begin(name);
+      try {
+        return task.call();
+      } finally {
+        if (started) {
+          roundTripTracker.end();
+        }
+      }
+    });
   }
 
-  protected void validatePageAndSize(Integer pageNumber, Integer pageSize) throws BaseRuntimeException {
-    if ((pageNumber == null) || (pageSize == null) || (pageNumber < 0) || (pageSize < 0)) {
-      throw BaseRuntimeException.builder().httpStatus(HttpStatus.BAD_REQUEST)
-        .error("Page number or Page size is not valid")
-        .build();
+  // A service only gets a pool of its own when its MetaData asks for one; the rest get a permit limited view of the
+  // application's executor
+  protected AsyncExecutor asyncExecutor() {
+    if (asyncExecutor == null) {
+      synchronized (this) {
+        if (asyncExecutor == null) {
+          AsyncConfig config = metaData().getAsync();
+          String name = metaData().getClassType().getSimpleName();
+          asyncExecutor = config == null && sharedAsyncExecutor != null ? sharedAsyncExecutor.forService(name)
+            : new AsyncExecutor(name, config == null ? AsyncConfig.builder().build() : config);
+        }
+      }
     }
+    return asyncExecutor;
   }
 
-  private String slug(int nextSequence, MetaData<T> metaData) {
-    return new StringBuffer(metaData.getPrefix()).append(nextSequence).toString();
+  protected ServiceMetrics metrics() {
+    if (metrics == null) {
+      synchronized (this) {
+        if (metrics == null) {
+          MetaData<T> meta = metaData();
+          metrics = meterRegistry == null || !meta.isMetrics() ? ServiceMetrics.NOOP
+            : new ServiceMetrics(meterRegistry, meta.getEntityName() == null
+              ? meta.getClassType().getSimpleName()
+              : meta.getEntityName(), meta.isMetricsHistogram());
+        }
+      }
+    }
+    return metrics;
   }
 
-  private boolean shouldOverwriteSlug(T entity) {
-    return isNew(entity) && StringUtils.isEmpty(entity.getSlug());
+  @PreDestroy
+  public void closeAsyncExecutor() {
+    if (asyncExecutor != null) {
+      asyncExecutor.close();
+    }
   }
 
 }
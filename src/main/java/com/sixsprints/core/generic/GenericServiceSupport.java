@@ -0,0 +1,409 @@
+package com.sixsprints.core.generic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StringUtils;
+import org.supercsv.cellprocessor.ift.CellProcessor;
+
+import com.sixsprints.core.cache.EntityCache;
+import com.sixsprints.core.domain.AbstractMongoEntity;
+import com.sixsprints.core.dto.BulkUpdateInfo;
+import com.sixsprints.core.dto.FieldDto;
+import com.sixsprints.core.dto.FilterRequestDto;
+import com.sixsprints.core.dto.MetaData;
+import com.sixsprints.core.dto.filter.ColumnFilter;
+import com.sixsprints.core.enums.UpdateAction;
+import com.sixsprints.core.exception.BaseRuntimeException;
+import com.sixsprints.core.exception.EntityAlreadyExistsException;
+import com.sixsprints.core.exception.EntityInvalidException;
+import com.sixsprints.core.exception.EntityNotFoundException;
+import com.sixsprints.core.utils.ContentHashUtil;
+import com.sixsprints.core.utils.FieldMappingUtil;
+import com.sixsprints.core.utils.FilterCriteriaUtil;
+import com.sixsprints.core.utils.InheritanceMongoUtil;
+
+// Driver independent service logic shared by the blocking and the reactive service stacks
+public abstract class GenericServiceSupport<T extends AbstractMongoEntity> extends ServiceHook<T> {
+
+  protected static final String _ID = "_id";
+  protected static final String MATCH = "$match";
+  protected static final String GROUP = "$group";
+  protected static final String SORT = "$sort";
+  protected static final String SKIP = "$skip";
+  protected static final String LIMIT = "$limit";
+  protected static final String FACET = "$facet";
+  protected static final String COUNT = "$count";
+  protected static final String LOOKUP = "$lookup";
+  protected static final String PROJECT = "$project";
+  protected static final String UNWIND = "$unwind";
+  protected static final String DEEP_PREFIX = "_deep_";
+  protected static final String ROWS = "rows";
+  protected static final String TOTAL = "total";
+  private static final String REFERENCE = "reference";
+
+  // Filter cache generations and entity caches per collection, so a write through any service of a collection (a
+  // @Subclass type or its parent, blocking or reactive) drops what the caches of all of them hold
+  private static final Map<String, AtomicLong> FILTER_CACHE_GENERATIONS = new ConcurrentHashMap<>();
+
+  private static final Map<String, Set<EntityCache>> ENTITY_CACHES = new ConcurrentHashMap<>();
+
+  protected abstract MetaData<T> metaData(T entity);
+
+  protected MetaData<T> metaData() {
+    return metaData(null);
+  }
+
+  protected abstract MongoConverter converter();
+
+  // Natural key of the entity; drives findDuplicate and the projection-only hash comparison of bulk updates
+  protected Criteria duplicateCriteria(T entity) {
+    return null;
+  }
+
+  protected int bulkChunkSize() {
+    return 500;
+  }
+
+  protected List<T> sluglessEntities(List<T> entities) {
+    return entities.stream().filter(this::shouldOverwriteSlug).collect(Collectors.toList());
+  }
+
+  // Hands out the sequences ending at lastSequence to the given entities, in order
+  protected void assignSlugs(List<T> entities, int lastSequence, MetaData<T> metaData) {
+    int size = entities.size();
+    int i = 1;
+    for (T entity : entities) {
+      int nextSequence = lastSequence - size + i++;
+      entity.setSlug(slug(nextSequence, metaData));
+      entity.setSequence(nextSequence);
+    }
+  }
+
+  protected void generateHashIfRequired(T entity) {
+    MetaData<T> metaData = metaData(entity);
+    if (metaData != null && metaData.isContentHash()) {
+      entity.setHash(contentHash(entity));
+    }
+  }
+
+  protected String contentHash(T entity) {
+    return ContentHashUtil.hash(toDocument(entity));
+  }
+
+  // Writes that bypass persist must drop the stored hash, or the next bulk update skips the row as unchanged
+  protected Update withStaleHash(Update update) {
+    return update.unset(ContentHashUtil.HASH);
+  }
+
+  protected String collectionName() {
+    return converter().getMappingContext().getRequiredPersistentEntity(metaData().getClassType()).getCollection();
+  }
+
+  protected AtomicLong filterCacheGeneration() {
+    return FILTER_CACHE_GENERATIONS.computeIfAbsent(collectionName(), collection -> new AtomicLong());
+  }
+
+  protected void registerEntityCache(EntityCache cache) {
+    ENTITY_CACHES.computeIfAbsent(collectionName(), collection -> ConcurrentHashMap.newKeySet()).add(cache);
+  }
+
+  // Drops the given ids, or everything when ids is null, from the caches of every service of the collection
+  protected void invalidateCaches(Collection<String> ids) {
+    filterCacheGeneration().incrementAndGet();
+    invalidateEntityCaches(ids);
+  }
+
+  protected void invalidateEntityCaches(Collection<String> ids) {
+    for (EntityCache cache : ENTITY_CACHES.getOrDefault(collectionName(), Collections.emptySet())) {
+      if (ids == null) {
+        cache.clear();
+      } else {
+        cache.invalidateAll(ids);
+      }
+    }
+  }
+
+  protected T toEntity(Document document) {
+    return converter().read(metaData().getClassType(), document);
+  }
+
+  protected Document mappedQuery(Criteria criteria) {
+    MongoConverter converter = converter();
+    return new QueryMapper(converter).getMappedObject(new Query(criteria).getQueryObject(),
+      converter.getMappingContext().getPersistentEntity(metaData().getClassType()));
+  }
+
+  protected Document mappedSort(Sort sort) {
+    MongoConverter converter = converter();
+    return new QueryMapper(converter).getMappedSort(new Query().with(sort).getSortObject(),
+      converter.getMappingContext().getPersistentEntity(metaData().getClassType()));
+  }
+
+  protected Document toDocument(T entity) {
+    Document document = new Document();
+    converter().write(entity, document);
+    return document;
+  }
+
+  protected EntityAlreadyExistsException alreadyExistsException(T domain) {
+    return EntityAlreadyExistsException.childBuilder().build();
+  }
+
+  protected EntityNotFoundException notFoundException(String string) {
+    return EntityNotFoundException.childBuilder().build();
+  }
+
+  protected boolean isInvalid(T domain) {
+    return false;
+  }
+
+  protected EntityInvalidException invalidException(T domain) {
+    return EntityInvalidException.childBuilder().build();
+  }
+
+  protected boolean isNew(T entity) {
+    return StringUtils.isEmpty(entity.getId());
+  }
+
+  protected void validatePageAndSize(Integer pageNumber, Integer pageSize) throws BaseRuntimeException {
+    if ((pageNumber == null) || (pageSize == null) || (pageNumber < 0) || (pageSize < 0)) {
+      throw BaseRuntimeException.builder().httpStatus(HttpStatus.BAD_REQUEST)
+        .error("Page number or Page size is not valid")
+        .build();
+    }
+  }
+
+  protected void checkFilterRequestDto(FilterRequestDto filterRequestDto) {
+    if (filterRequestDto == null) {
+      throw BaseRuntimeException.builder().error("page number and page size can't be null")
+        .httpStatus(HttpStatus.BAD_REQUEST).build();
+    }
+  }
+
+  protected Criteria withInheritance(Criteria criteria) {
+    Criteria inheritance = InheritanceMongoUtil.generate(metaData().getClassType());
+    return inheritance == null ? criteria : new Criteria().andOperator(inheritance, criteria);
+  }
+
+  // The reference field a dotted key such as "role.name" traverses, or null for a local key
+  protected FieldDto referenceField(String key, MetaData<T> meta) {
+    if (key == null || meta.getFields() == null) {
+      return null;
+    }
+    for (FieldDto field : meta.getFields()) {
+      if (field.getCollectionName() != null && field.getColumnName() != null
+        && key.startsWith(field.getName() + ".")) {
+        return field;
+      }
+    }
+    return null;
+  }
+
+  // Deep filters grouped by the reference field they traverse, keyed by the column on the referenced collection
+  protected Map<FieldDto, Map<String, ColumnFilter>> referencedFilters(FilterRequestDto filterRequestDto,
+    MetaData<T> meta) {
+    Map<FieldDto, Map<String, ColumnFilter>> referenced = new LinkedHashMap<>();
+    if (!isDeepFilter(filterRequestDto)) {
+      return referenced;
+    }
+    filterRequestDto.getFilterModel().forEach((key, filter) -> {
+      FieldDto field = referenceField(key, meta);
+      if (field != null) {
+        referenced.computeIfAbsent(field, f -> new LinkedHashMap<>())
+          .put(key.substring(field.getName().length() + 1), filter);
+      }
+    });
+    return referenced;
+  }
+
+  // The request without the filters handled by referencedFilters
+  protected FilterRequestDto localFilterRequest(FilterRequestDto filterRequestDto, MetaData<T> meta) {
+    if (!isDeepFilter(filterRequestDto)) {
+      return filterRequestDto;
+    }
+    Map<String, ColumnFilter> localFilters = new LinkedHashMap<>();
+    filterRequestDto.getFilterModel().forEach((key, filter) -> {
+      if (referenceField(key, meta) == null) {
+        localFilters.put(key, filter);
+      }
+    });
+    return FilterRequestDto.builder().filterModel(localFilters).rowGroupCols(filterRequestDto.getRowGroupCols())
+      .groupKeys(filterRequestDto.getGroupKeys()).build();
+  }
+
+  // The reference fields a request joins: the deep filtered ones and, on deep requests, the ones it sorts on
+  protected List<FieldDto> joinedFields(FilterRequestDto filterRequestDto, Sort sort, MetaData<T> meta) {
+    Set<FieldDto> fields = new LinkedHashSet<>(referencedFilters(filterRequestDto, meta).keySet());
+    if (filterRequestDto != null && Boolean.TRUE.equals(filterRequestDto.getDeepFilter()) && sort != null) {
+      sort.forEach(order -> {
+        FieldDto field = referenceField(order.getProperty(), meta);
+        if (field != null) {
+          fields.add(field);
+        }
+      });
+    }
+    return new ArrayList<>(fields);
+  }
+
+  // Deep filters run in the database: the local $match, then per joined field a $lookup whose pipeline carries the
+  // referenced filters, then a $match keeping the rows whose lookup found a document. Fields joined only for the
+  // sort do not narrow the rows.
+  protected List<Document> filterStages(Criteria local, FilterRequestDto filterRequestDto, List<FieldDto> joined,
+    MetaData<T> meta) {
+    Map<FieldDto, Map<String, ColumnFilter>> referenced = referencedFilters(filterRequestDto, meta);
+    List<Document> stages = new ArrayList<>();
+    stages.add(new Document(MATCH, mappedQuery(local)));
+    Document joinedMatch = new Document();
+    for (FieldDto field : joined) {
+      Map<String, ColumnFilter> filters = referenced.get(field);
+      stages.add(lookupStage(field, filters, meta));
+      if (filters != null) {
+        joinedMatch.append(DEEP_PREFIX + field.getName(), new Document("$ne", Collections.emptyList()));
+      }
+    }
+    if (!joinedMatch.isEmpty()) {
+      stages.add(new Document(MATCH, joinedMatch));
+    }
+    return stages;
+  }
+
+  // Every matching row, sorted, without the joined documents
+  protected List<Document> joinedPipeline(Criteria local, FilterRequestDto filterRequestDto, Sort sort,
+    MetaData<T> meta) {
+    List<FieldDto> joined = joinedFields(filterRequestDto, sort, meta);
+    List<Document> pipeline = filterStages(local, filterRequestDto, joined, meta);
+    Document sortObject = joinedSort(sort, joined);
+    if (!sortObject.isEmpty()) {
+      pipeline.add(new Document(SORT, sortObject));
+    }
+    if (!joined.isEmpty()) {
+      pipeline.add(joinedProjection(joined));
+    }
+    return pipeline;
+  }
+
+  // One page of the matching rows and their total, computed in a single $facet
+  protected List<Document> joinedPagePipeline(Criteria local, FilterRequestDto filterRequestDto, Pageable pageable,
+    MetaData<T> meta) {
+    List<FieldDto> joined = joinedFields(filterRequestDto, pageable.getSort(), meta);
+    List<Document> pipeline = filterStages(local, filterRequestDto, joined, meta);
+    List<Document> page = new ArrayList<>();
+    Document sortObject = joinedSort(pageable.getSort(), joined);
+    if (!sortObject.isEmpty()) {
+      page.add(new Document(SORT, sortObject));
+    }
+    page.add(new Document(SKIP, pageable.getOffset()));
+    page.add(new Document(LIMIT, pageable.getPageSize()));
+    if (!joined.isEmpty()) {
+      page.add(joinedProjection(joined));
+    }
+    pipeline.add(new Document(FACET, new Document(ROWS, page)
+      .append(TOTAL, Arrays.asList(new Document(COUNT, TOTAL)))));
+    return pipeline;
+  }
+
+  protected List<Document> joinedDistinctPipeline(String column, Criteria local, FilterRequestDto filterRequestDto,
+    MetaData<T> meta) {
+    List<Document> pipeline = filterStages(local, filterRequestDto, joinedFields(filterRequestDto, null, meta),
+      meta);
+    pipeline.add(new Document(UNWIND, "$" + column));
+    pipeline.add(new Document(GROUP, new Document(_ID, "$" + column)));
+    return pipeline;
+  }
+
+  protected Page<T> joinedPage(Document result, Pageable pageable) {
+    List<T> data = new ArrayList<>();
+    long total = 0;
+    if (result != null) {
+      result.getList(ROWS, Document.class).forEach(row -> data.add(toEntity(row)));
+      List<Document> totals = result.getList(TOTAL, Document.class);
+      total = totals.isEmpty() ? 0 : ((Number) totals.get(0).get(TOTAL)).longValue();
+    }
+    return new PageImpl<T>(data, pageable, total);
+  }
+
+  protected Map<String, CellProcessor> exportCellProcessors(List<FieldDto> fields) {
+    return new HashMap<>();
+  }
+
+  protected String[] exportMappings(List<FieldDto> fields) {
+    return FieldMappingUtil.genericMappings(fields);
+  }
+
+  protected List<T> dataWithAction(List<BulkUpdateInfo<T>> updateInfo, UpdateAction... actions) {
+    List<UpdateAction> allowed = Arrays.asList(actions);
+    return updateInfo.stream().filter(info -> allowed.contains(info.getUpdateAction()))
+      .map(BulkUpdateInfo::getData).collect(Collectors.toList());
+  }
+
+  protected BulkUpdateInfo<T> bulkImportInfo(T data, UpdateAction action) {
+    return BulkUpdateInfo.<T>builder().updateAction(action).data(data).build();
+  }
+
+  // The join is driven by the reference value, so the referenced collection only needs an index on its column
+  private Document lookupStage(FieldDto field, Map<String, ColumnFilter> filters, MetaData<T> meta) {
+    List<Document> pipeline = new ArrayList<>();
+    if (filters != null) {
+      pipeline.add(new Document(MATCH, new Query(FilterCriteriaUtil.buildCriteria(filters, meta)).getQueryObject()));
+    }
+    pipeline.add(new Document(MATCH, new Document("$expr",
+      new Document("$eq", Arrays.asList("$" + field.getColumnName(), "$$" + REFERENCE)))));
+    pipeline.add(new Document(LIMIT, 1));
+    return new Document(LOOKUP, new Document("from", field.getCollectionName())
+      .append("let", new Document(REFERENCE, "$" + field.getName())).append("pipeline", pipeline)
+      .append("as", DEEP_PREFIX + field.getName()));
+  }
+
+  private Document joinedSort(Sort sort, List<FieldDto> joined) {
+    Document sortObject = new Document();
+    if (sort == null || sort.isUnsorted()) {
+      return sortObject;
+    }
+    mappedSort(sort).forEach((key, direction) -> sortObject.append(
+      joined.stream().anyMatch(field -> key.startsWith(field.getName() + ".")) ? DEEP_PREFIX + key : key, direction));
+    return sortObject;
+  }
+
+  private Document joinedProjection(List<FieldDto> joined) {
+    Document project = new Document();
+    joined.forEach(field -> project.append(DEEP_PREFIX + field.getName(), 0));
+    return new Document(PROJECT, project);
+  }
+
+  private boolean isDeepFilter(FilterRequestDto filterRequestDto) {
+    return filterRequestDto != null && Boolean.TRUE.equals(filterRequestDto.getDeepFilter())
+      && filterRequestDto.getFilterModel() != null;
+  }
+
+  private String slug(int nextSequence, MetaData<T> metaData) {
+    return new StringBuffer(metaData.getPrefix()).append(nextSequence).toString();
+  }
+
+  private boolean shouldOverwriteSlug(T entity) {
+    return isNew(entity) && StringUtils.isEmpty(entity.getSlug());
+  }
+
+}
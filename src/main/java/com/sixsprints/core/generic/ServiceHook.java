@@ -1,5 +1,7 @@
 package com.sixsprints.core.generic;
 
+import java.util.List;
+
 import com.sixsprints.core.domain.AbstractMongoEntity;
 
 public class ServiceHook<T extends AbstractMongoEntity> {
@@ -22,4 +24,26 @@ public class ServiceHook<T extends AbstractMongoEntity> {
   protected void postCreate(T entity) {
   }
 
+  protected void preSaveAll(List<T> entities) {
+    entities.forEach(this::preSave);
+  }
+
+  protected void postSaveAll(List<T> entities) {
+    entities.forEach(this::postSave);
+  }
+
+  protected void postUpdateAll(List<T> entities) {
+    entities.forEach(this::postUpdate);
+  }
+
+  protected void postCreateAll(List<T> entities) {
+    entities.forEach(this::postCreate);
+  }
+
+  protected void postDeleteAll(List<String> ids) {
+  }
+
+  protected void postSoftDeleteAll(List<String> ids) {
+  }
+
 }
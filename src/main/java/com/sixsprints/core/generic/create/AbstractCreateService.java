@@ -7,29 +7,58 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.tomcat.util.http.fileupload.IOUtils;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.auditing.IsNewAwareAuditingHandler;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.CollectionUtils;
 import org.supercsv.cellprocessor.ift.CellProcessor;
 import org.supercsv.exception.SuperCsvException;
 import org.supercsv.io.dozer.CsvDozerBeanReader;
 import org.supercsv.io.dozer.ICsvDozerBeanReader;
 import org.supercsv.prefs.CsvPreference;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.WriteModel;
 import com.sixsprints.core.domain.AbstractMongoEntity;
+import com.sixsprints.core.dto.AsyncHookConfig;
 import com.sixsprints.core.dto.FieldDto;
 import com.sixsprints.core.dto.ImportLogDetails;
 import com.sixsprints.core.dto.ImportResponseWrapper;
 import com.sixsprints.core.dto.UploadError;
+import com.sixsprints.core.dto.WriteBehindConfig;
+import com.sixsprints.core.enums.HookType;
 import com.sixsprints.core.enums.UploadErrorType;
 import com.sixsprints.core.exception.BaseException;
+import com.sixsprints.core.exception.BaseRuntimeException;
 import com.sixsprints.core.exception.EntityAlreadyExistsException;
 import com.sixsprints.core.exception.EntityInvalidException;
+import com.sixsprints.core.generic.AsyncHookDispatcher;
+import com.sixsprints.core.generic.create.WriteBehindBuffer.PendingWrite;
 import com.sixsprints.core.generic.delete.AbstractDeleteService;
 import com.sixsprints.core.utils.CellProcessorUtil;
 import com.sixsprints.core.utils.FieldMappingUtil;
@@ -40,28 +69,61 @@ import lombok.extern.slf4j.Slf4j;
 public abstract class AbstractCreateService<T extends AbstractMongoEntity> extends AbstractDeleteService<T>
   implements GenericCreateService<T> {
 
+  private static final String _ID = "_id";
+
+  @Autowired(required = false)
+  private MongoTransactionManager transactionManager;
+
+  @Autowired(required = false)
+  private IsNewAwareAuditingHandler auditingHandler;
+
+  private volatile WriteBehindBuffer<T> writeBehindBuffer;
+
+  private volatile AsyncHookDispatcher asyncHookDispatcher;
+
   @Override
   public T save(T entity) {
-    generateSlugIfRequired(entity);
-    preSave(entity);
-    entity = repository().save(entity);
-    postSave(entity);
-    return entity;
+    return metrics().time("save", () -> inHookTransaction(() -> {
+      T saved = persist(entity);
+      firePostHooks(HookType.POST_SAVE, ImmutableList.of(saved));
+      return saved;
+    }));
   }
 
   @Override
   public List<T> saveAll(List<T> entities) {
-    generateSlugIfRequired(entities);
-    return repository().saveAll(entities);
+    return metrics().time("saveAll", () -> {
+      List<T> saved = Lists.newArrayList();
+      if (CollectionUtils.isEmpty(entities)) {
+        return saved;
+      }
+      for (List<T> chunk : Lists.partition(entities, bulkChunkSize())) {
+        generateSlugIfRequired(chunk);
+        preSaveAll(chunk);
+        chunk.forEach(this::generateHashIfRequired);
+        saved.addAll(inHookTransaction(() -> {
+          List<T> savedChunk = repository().saveAll(chunk);
+          evictFromCache(savedChunk.stream().map(AbstractMongoEntity::getId).collect(Collectors.toList()));
+          firePostHooks(HookType.POST_SAVE, savedChunk);
+          return savedChunk;
+        }));
+      }
+      return saved;
+    });
   }
 
   @Override
-  public List<T> saveAllWithHooks(List<T> entities) {
-    List<T> list = Lists.newArrayList();
-    for (T entity : entities) {
-      list.add(save(entity));
+  public CompletableFuture<T> saveAsync(T entity) {
+    WriteBehindBuffer<T> buffer = writeBehindBuffer();
+    if (buffer == null) {
+      return async(() -> save(entity));
     }
-    return list;
+    return buffer.add(entity);
+  }
+
+  @Override
+  public List<T> saveAllWithHooks(List<T> entities) {
+    return saveAll(entities);
   }
 
   @Override
@@ -70,16 +132,21 @@ public abstract class AbstractCreateService<T extends AbstractMongoEntity> exten
     if (isInvalid(domain)) {
       throw invalidException(domain);
     }
-    T fromDB = findDuplicate(domain);
-    if (fromDB != null) {
-      if (fromDB.getActive()) {
-        throw alreadyExistsException(fromDB);
+    return metrics().time("create", () -> {
+      T fromDB = findDuplicate(domain);
+      if (fromDB != null) {
+        if (fromDB.getActive()) {
+          throw alreadyExistsException(fromDB);
+        }
+        delete(fromDB);
       }
-      delete(fromDB);
-    }
-    domain = save(domain);
-    postCreate(domain);
-    return domain;
+      // Goes through save so overrides of it apply to creates too, save joins this transaction
+      return inHookTransaction(() -> {
+        T saved = save(domain);
+        firePostHooks(HookType.POST_CREATE, ImmutableList.of(saved));
+        return saved;
+      });
+    });
   }
 
   public <DTO> ImportResponseWrapper<DTO> importData(InputStream inputStream, Locale locale)
@@ -144,6 +211,8 @@ public abstract class AbstractCreateService<T extends AbstractMongoEntity> exten
       errorSize + unknownErrors.size() + data.size(), errorSize, unknownErrors.size());
 
     Collections.sort(errors);
+    metrics().transferred("import", "success", data.size());
+    metrics().transferred("import", "error", errorSize + unknownErrors.size());
 
     ImportLogDetails log = ImportLogDetails.builder().errors(errors).unknownErrors(unknownErrors)
       .errorRowCount(errorSize)
@@ -154,6 +223,175 @@ public abstract class AbstractCreateService<T extends AbstractMongoEntity> exten
     return ImportResponseWrapper.<DTO>builder().data(data).importLogDetails(log).firstLine(firstLine).build();
   }
 
+  protected T persist(T entity) {
+    generateSlugIfRequired(entity);
+    preSave(entity);
+    generateHashIfRequired(entity);
+    T saved = repository().save(entity);
+    evictFromCache(saved.getId());
+    return saved;
+  }
+
+  protected void firePostHooks(HookType hookType, List<T> entities) {
+    firePostHooks(ImmutableList.of(hookType), entities);
+  }
+
+  // Hook types fired for the same write are recorded as one event and run in the given order
+  protected void firePostHooks(List<HookType> hookTypes, List<T> entities) {
+    if (entities.isEmpty()) {
+      return;
+    }
+    AsyncHookDispatcher dispatcher = asyncHookDispatcher();
+    if (dispatcher != null) {
+      dispatcher.record(hookTypes, entities.stream().map(AbstractMongoEntity::getId).collect(Collectors.toList()),
+        entities.stream().map(this::toDocument).collect(Collectors.toList()));
+      return;
+    }
+    hookTypes.forEach(hookType -> runPostHooks(hookType, entities));
+  }
+
+  protected <R> R inHookTransaction(Supplier<R> write) {
+    AsyncHookConfig config = metaData().getAsyncHooks();
+    if (config == null || !config.isTransactional()) {
+      return write.get();
+    }
+    return new TransactionTemplate(transactionManager).execute(status -> write.get());
+  }
+
+  @PostConstruct
+  protected void startAsyncHooks() {
+    asyncHookDispatcher();
+  }
+
+  @PreDestroy
+  protected void shutdown() {
+    if (writeBehindBuffer != null) {
+      writeBehindBuffer.close();
+    }
+    if (asyncHookDispatcher != null) {
+      asyncHookDispatcher.close();
+    }
+  }
+
+  private void runPostHooks(HookType hookType, List<T> entities) {
+    switch (hookType) {
+    case POST_SAVE:
+      postSaveAll(entities);
+      break;
+    case POST_UPDATE:
+      postUpdateAll(entities);
+      break;
+    case POST_CREATE:
+      postCreateAll(entities);
+      break;
+    }
+  }
+
+  private AsyncHookDispatcher asyncHookDispatcher() {
+    if (asyncHookDispatcher == null) {
+      AsyncHookConfig config = metaData().getAsyncHooks();
+      if (config == null) {
+        return null;
+      }
+      if (config.isTransactional() && transactionManager == null) {
+        throw BaseRuntimeException.builder()
+          .error("Transactional async hooks of " + getClass().getName() + " need a MongoTransactionManager bean")
+          .build();
+      }
+      synchronized (this) {
+        if (asyncHookDispatcher == null) {
+          asyncHookDispatcher = new AsyncHookDispatcher(getClass().getName(), config, mongo,
+            (hookType, documents) -> runPostHooks(hookType,
+              documents.stream().map(this::toEntity).collect(Collectors.toList())));
+        }
+      }
+    }
+    return asyncHookDispatcher;
+  }
+
+  private WriteBehindBuffer<T> writeBehindBuffer() {
+    if (writeBehindBuffer == null) {
+      WriteBehindConfig config = metaData().getWriteBehind();
+      if (config == null) {
+        return null;
+      }
+      synchronized (this) {
+        if (writeBehindBuffer == null) {
+          writeBehindBuffer = new WriteBehindBuffer<>(metaData().getClassType().getSimpleName(), config,
+            batch -> writeBatch(batch, config));
+        }
+      }
+    }
+    return writeBehindBuffer;
+  }
+
+  // Same steps as persist, batched: slugs, then preSave, auditing and hash. New entities are inserted and the
+  // rest replaced by id, so saveAsync behaves like save for both
+  private void writeBatch(List<PendingWrite<T>> batch, WriteBehindConfig config) {
+    generateSlugIfRequired(batch.stream().map(PendingWrite::getEntity).collect(Collectors.toList()));
+    Date now = new Date();
+    List<PendingWrite<T>> writes = new ArrayList<>();
+    List<WriteModel<Document>> models = new ArrayList<>();
+    for (PendingWrite<T> write : batch) {
+      T entity = write.getEntity();
+      try {
+        preSave(entity);
+      } catch (RuntimeException ex) {
+        write.getFuture().completeExceptionally(ex);
+        continue;
+      }
+      audit(entity, now);
+      boolean isNew = isNew(entity);
+      if (isNew) {
+        entity.setId(new ObjectId().toHexString());
+      }
+      generateHashIfRequired(entity);
+      Document document = toDocument(entity);
+      writes.add(write);
+      models.add(isNew ? new InsertOneModel<>(document)
+        : new ReplaceOneModel<>(new Document(_ID, document.get(_ID)), document, new ReplaceOptions().upsert(true)));
+    }
+    if (models.isEmpty()) {
+      return;
+    }
+
+    MongoCollection<Document> collection = mongo.getCollection(mongo.getCollectionName(metaData().getClassType()))
+      .withWriteConcern(config.getWriteConcern());
+    try {
+      collection.bulkWrite(models, new BulkWriteOptions().ordered(false));
+    } catch (MongoBulkWriteException ex) {
+      for (BulkWriteError error : ex.getWriteErrors()) {
+        writes.get(error.getIndex()).getFuture()
+          .completeExceptionally(BaseRuntimeException.builder().error(error.getMessage()).build());
+      }
+      if (ex.getWriteConcernError() != null) {
+        throw ex;
+      }
+    }
+
+    List<PendingWrite<T>> written = writes.stream().filter(write -> !write.getFuture().isDone())
+      .collect(Collectors.toList());
+    evictFromCache(written.stream().map(write -> write.getEntity().getId()).collect(Collectors.toList()));
+    // The unordered write cannot share a transaction with the outbox, so the hooks are recorded right after it
+    inHookTransaction(() -> {
+      firePostHooks(HookType.POST_SAVE,
+        written.stream().map(PendingWrite::getEntity).collect(Collectors.toList()));
+      return null;
+    });
+    written.forEach(write -> write.getFuture().complete(write.getEntity()));
+  }
+
+  private void audit(T entity, Date now) {
+    if (auditingHandler != null) {
+      auditingHandler.markAudited(entity);
+      return;
+    }
+    if (isNew(entity)) {
+      entity.setDateCreated(now);
+    }
+    entity.setDateModified(now);
+  }
+
   private CellProcessor[] cellProcessors(List<FieldDto> fields) {
     Map<String, CellProcessor> map = importCellProcessors(fields);
     return CellProcessorUtil.importProcessors(fields, map, mongo);
@@ -0,0 +1,371 @@
+package com.sixsprints.core.generic.create;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.bson.Document;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.NumberUtils;
+import org.springframework.util.StringUtils;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.client.model.InsertManyOptions;
+import com.sixsprints.core.domain.AbstractMongoEntity;
+import com.sixsprints.core.domain.CustomSequence;
+import com.sixsprints.core.dto.DatasetConfig;
+import com.sixsprints.core.dto.DatasetStats;
+import com.sixsprints.core.dto.FieldDto;
+import com.sixsprints.core.dto.MetaData;
+import com.sixsprints.core.enums.DataType;
+import com.sixsprints.core.exception.BaseRuntimeException;
+import com.sixsprints.core.utils.ContentHashUtil;
+
+import lombok.extern.slf4j.Slf4j;
+
+// Builds synthetic entities from MetaData.fields and writes them with unordered bulk inserts. Writes go straight to
+// the collection, so auditing, hooks and service caches are bypassed; run it before the services serve traffic.
+// Every batch draws from its own Random derived from the seed, and unique values and slugs come from the row
+// index, which keeps the data identical across runs regardless of how batches are scheduled on the worker threads.
+@Slf4j
+public class DatasetGenerator<T extends AbstractMongoEntity> {
+
+  private static final String _ID = "_id";
+
+  private static final String SEQ = "seq";
+
+  private static final char[] LETTERS = "abcdefghijklmnopqrstuvwxyz".toCharArray();
+
+  private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+
+  private final MongoOperations mongo;
+
+  private final MetaData<T> meta;
+
+  private final DatasetConfig config;
+
+  private final List<FieldDto> fields = new ArrayList<>();
+
+  private final Map<String, List<?>> pools = new LinkedHashMap<>();
+
+  private final Map<Integer, double[]> distributions = new LinkedHashMap<>();
+
+  public DatasetGenerator(MongoOperations mongo, MetaData<T> meta, DatasetConfig config) {
+    this.mongo = mongo;
+    this.meta = meta;
+    this.config = config;
+    Random random = new Random(config.getSeed());
+    BeanWrapper probe = wrapper(BeanUtils.instantiateClass(meta.getClassType()));
+    for (FieldDto field : fieldsOf(meta)) {
+      if (!probe.isWritableProperty(field.getName())) {
+        log.warn("Skipping {}.{}, it is not a writable property", meta.getClassType().getSimpleName(),
+          field.getName());
+        continue;
+      }
+      fields.add(field);
+      List<?> pool = pool(field, random);
+      if (pool != null) {
+        pools.put(field.getName(), pool);
+        distributions.computeIfAbsent(pool.size(), this::zipf);
+      }
+    }
+  }
+
+  public DatasetStats generate(int count) {
+    long start = System.currentTimeMillis();
+    Integer firstSequence = reserveSequences(count);
+    String collection = mongo.getCollectionName(meta.getClassType());
+    int batchSize = Math.max(1, config.getBatchSize());
+    int batches = (count + batchSize - 1) / batchSize;
+    long inserted = 0;
+    long failed = 0;
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, config.getThreads()));
+    try {
+      List<Future<long[]>> futures = new ArrayList<>(batches);
+      for (int batch = 0; batch < batches; batch++) {
+        int from = batch * batchSize;
+        int to = Math.min(from + batchSize, count);
+        int index = batch;
+        futures.add(executor.submit(() -> insert(collection, index, from, to, firstSequence)));
+      }
+      for (Future<long[]> future : futures) {
+        long[] result = await(future);
+        inserted += result[0];
+        failed += result[1];
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    DatasetStats stats = DatasetStats.builder().collection(collection).requested(count).inserted(inserted)
+      .failed(failed).batches(batches).firstSequence(firstSequence)
+      .durationMillis(System.currentTimeMillis() - start).build();
+    log.info("Generated {} of {} documents for {} in {} ms", inserted, count, collection, stats.getDurationMillis());
+    return stats;
+  }
+
+  protected T entity(Random random, long index, Integer sequence) {
+    T entity = BeanUtils.instantiateClass(meta.getClassType());
+    Date date = date(random);
+    entity.setActive(Boolean.TRUE);
+    entity.setDateCreated(date);
+    entity.setDateModified(date);
+    if (sequence != null) {
+      entity.setSequence(sequence);
+      entity.setSlug(new StringBuilder(meta.getPrefix() == null ? "" : meta.getPrefix()).append(sequence)
+        .toString());
+    }
+    BeanWrapper wrapper = wrapper(entity);
+    for (FieldDto field : fields) {
+      Object value = value(field, random, index);
+      wrapper.setPropertyValue(field.getName(), adapt(value, wrapper.getPropertyType(field.getName())));
+    }
+    return entity;
+  }
+
+  protected Object value(FieldDto field, Random random, long unique) {
+    DataType dataType = field.getDataType() == null ? DataType.TEXT : field.getDataType();
+    List<?> pool = pools.get(field.getName());
+    switch (dataType) {
+    case EMAIL:
+      return fit(field, simpleName(field) + unique + "@example.com");
+
+    case LINK:
+    case IMAGE:
+      return fit(field, "https://example.com/" + simpleName(field) + "/" + unique);
+
+    case DATE:
+      return date(random);
+
+    case TEXT_AREA:
+      StringBuilder text = new StringBuilder();
+      for (int i = 3 + random.nextInt(10); i > 0; i--) {
+        text.append(text.length() == 0 ? "" : " ").append(sample(pool, random));
+      }
+      return fit(field, text.toString());
+
+    default:
+      Object value = sample(pool, random);
+      return value instanceof String ? fit(field, (String) value) : value;
+    }
+  }
+
+  protected List<?> pool(FieldDto field, Random random) {
+    if (!CollectionUtils.isEmpty(field.getAllValues())) {
+      return field.getAllValues();
+    }
+    DataType dataType = field.getDataType() == null ? DataType.TEXT : field.getDataType();
+    switch (dataType) {
+    case ENUM:
+      return field.getEnumClass() == null ? words(random) : Arrays.asList(field.getEnumClass().getEnumConstants());
+
+    case SELECT:
+    case AUTO_COMPLETE:
+      return StringUtils.isEmpty(field.getCollectionName()) ? words(random) : masterValues(field);
+
+    case BOOLEAN:
+      return Arrays.asList(Boolean.TRUE, Boolean.FALSE);
+
+    case NUMBER:
+      List<Long> numbers = new ArrayList<>(config.getDistinctValues());
+      for (long i = 0; i < config.getDistinctValues(); i++) {
+        numbers.add(i);
+      }
+      return numbers;
+
+    case TEXT:
+    case TEXT_AREA:
+      return words(random);
+
+    default:
+      return null;
+    }
+  }
+
+  private long[] insert(String collection, int batch, int from, int to, Integer firstSequence) {
+    Random random = new Random(config.getSeed() ^ (batch + 1) * 0x9E3779B97F4A7C15L);
+    List<Document> documents = new ArrayList<>(to - from);
+    for (int i = from; i < to; i++) {
+      Document document = new Document();
+      mongo.getConverter().write(entity(random, i, firstSequence == null ? null : firstSequence + i), document);
+      if (meta.isContentHash()) {
+        document.put(ContentHashUtil.HASH, ContentHashUtil.hash(document));
+      }
+      documents.add(document);
+    }
+    try {
+      mongo.getCollection(collection).insertMany(documents, new InsertManyOptions().ordered(false));
+      return new long[] { documents.size(), 0 };
+    } catch (MongoBulkWriteException ex) {
+      int failed = ex.getWriteErrors().size();
+      log.warn("{} of {} documents in batch {} failed: {}", failed, documents.size(), batch,
+        ex.getWriteErrors().get(0).getMessage());
+      return new long[] { documents.size() - failed, failed };
+    }
+  }
+
+  // Sequences come from the config rather than the counter so a seed always yields the same slugs; the counter
+  // is only moved past them, so entities saved later do not collide with the generated ones
+  private Integer reserveSequences(int count) {
+    if (!config.isReserveSlugs() || meta.getCollection() == null || count == 0) {
+      return null;
+    }
+    int firstSequence = config.getFirstSequence();
+    mongo.upsert(query(where(_ID).is(meta.getCollection())), new Update().max(SEQ, firstSequence + count - 1),
+      CustomSequence.class);
+    return firstSequence;
+  }
+
+  private List<?> masterValues(FieldDto field) {
+    String column = StringUtils.isEmpty(field.getColumnName()) ? field.getName() : field.getColumnName();
+    List<Object> values = new ArrayList<>(
+      mongo.findDistinct(new Query(), column, field.getCollectionName(), Object.class));
+    if (values.isEmpty()) {
+      log.warn("No master data in {}.{}, {} will be left empty", field.getCollectionName(), column, field.getName());
+    }
+    values.sort(Comparator.comparing(String::valueOf));
+    return values;
+  }
+
+  private List<String> words(Random random) {
+    List<String> words = new ArrayList<>(config.getDistinctValues());
+    for (int i = 0; i < config.getDistinctValues(); i++) {
+      char[] word = new char[4 + random.nextInt(8)];
+      for (int j = 0; j < word.length; j++) {
+        word[j] = LETTERS[random.nextInt(LETTERS.length)];
+      }
+      word[0] = Character.toUpperCase(word[0]);
+      words.add(new String(word));
+    }
+    return words;
+  }
+
+  // Cumulative Zipf distribution over pool ranks, so the first values of every pool are the hot ones.
+  private double[] zipf(int size) {
+    double[] cumulative = new double[size];
+    double total = 0;
+    for (int rank = 0; rank < size; rank++) {
+      total += 1 / Math.pow(rank + 1, config.getSkew());
+      cumulative[rank] = total;
+    }
+    for (int rank = 0; rank < size; rank++) {
+      cumulative[rank] /= total;
+    }
+    return cumulative;
+  }
+
+  private Object sample(List<?> pool, Random random) {
+    if (CollectionUtils.isEmpty(pool)) {
+      return null;
+    }
+    int rank = Arrays.binarySearch(distributions.get(pool.size()), random.nextDouble());
+    rank = rank < 0 ? -rank - 1 : rank;
+    return pool.get(Math.min(rank, pool.size() - 1));
+  }
+
+  // Skewed towards the reference date, the way most collections have more recent rows than old ones.
+  private Date date(Random random) {
+    double age = Math.pow(random.nextDouble(), 1 + config.getSkew());
+    return new Date(config.getReferenceMillis() - (long) (age * config.getDateRangeDays() * DAY_MILLIS));
+  }
+
+  private String fit(FieldDto field, String value) {
+    if (field.getValidation() == null) {
+      return value;
+    }
+    Long max = field.getValidation().getMaxLength();
+    Long min = field.getValidation().getMinLength();
+    StringBuilder fitted = new StringBuilder(value);
+    while (min != null && fitted.length() < min) {
+      fitted.append('x');
+    }
+    if (max != null && fitted.length() > max) {
+      fitted.setLength(max.intValue());
+    }
+    return fitted.toString();
+  }
+
+  @SuppressWarnings("unchecked")
+  private Object adapt(Object value, Class<?> propertyType) {
+    Class<?> type = propertyType == null ? null : ClassUtils.resolvePrimitiveIfNecessary(propertyType);
+    if (value == null || type == null || type.isInstance(value)) {
+      return value;
+    }
+    if (value instanceof Number && Number.class.isAssignableFrom(type)) {
+      return NumberUtils.convertNumberToTargetClass((Number) value, (Class<? extends Number>) type);
+    }
+    if (String.class.equals(type)) {
+      return value instanceof Enum ? ((Enum<?>) value).name() : value.toString();
+    }
+    if (value instanceof Date) {
+      Date date = (Date) value;
+      if (LocalDate.class.equals(type)) {
+        return date.toInstant().atZone(ZoneOffset.UTC).toLocalDate();
+      }
+      if (LocalDateTime.class.equals(type)) {
+        return LocalDateTime.ofInstant(date.toInstant(), ZoneOffset.UTC);
+      }
+      if (Long.class.equals(type)) {
+        return date.getTime();
+      }
+    }
+    return value;
+  }
+
+  private String simpleName(FieldDto field) {
+    String name = field.getName();
+    return name.substring(name.lastIndexOf('.') + 1).toLowerCase();
+  }
+
+  private BeanWrapper wrapper(T entity) {
+    BeanWrapper wrapper = new BeanWrapperImpl(entity);
+    wrapper.setAutoGrowNestedPaths(true);
+    return wrapper;
+  }
+
+  private List<FieldDto> fieldsOf(MetaData<T> meta) {
+    if (meta.getFields() == null) {
+      return Collections.emptyList();
+    }
+    List<FieldDto> sorted = new ArrayList<>(meta.getFields());
+    Collections.sort(sorted);
+    return sorted;
+  }
+
+  private long[] await(Future<long[]> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw BaseRuntimeException.builder().error("Dataset generation was interrupted").build();
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw BaseRuntimeException.builder().error(ex.getCause().getMessage()).build();
+    }
+  }
+
+}
@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
 
 import com.sixsprints.core.domain.AbstractMongoEntity;
 import com.sixsprints.core.dto.ImportResponseWrapper;
@@ -17,6 +18,8 @@ public interface GenericCreateService<T extends AbstractMongoEntity> {
 
   List<T> saveAll(List<T> entities);
 
+  CompletableFuture<T> saveAsync(T entity);
+
   List<T> saveAllWithHooks(List<T> entities);
 
   T create(T entity) throws EntityAlreadyExistsException, EntityInvalidException;
@@ -0,0 +1,124 @@
+package com.sixsprints.core.generic.create;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import com.sixsprints.core.dto.WriteBehindConfig;
+import com.sixsprints.core.exception.BaseRuntimeException;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+public class WriteBehindBuffer<T> {
+
+  private static final long CLOSE_WAIT_MILLIS = 100;
+
+  private final WriteBehindConfig config;
+
+  private final Consumer<List<PendingWrite<T>>> writer;
+
+  private final ScheduledExecutorService scheduler;
+
+  private final Semaphore capacity;
+
+  private List<PendingWrite<T>> pending = new ArrayList<>();
+
+  private volatile boolean closed;
+
+  public WriteBehindBuffer(String name, WriteBehindConfig config, Consumer<List<PendingWrite<T>>> writer) {
+    this.config = config;
+    this.writer = writer;
+    this.capacity = new Semaphore(config.getMaxPending());
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "write-behind-" + name);
+      thread.setDaemon(true);
+      return thread;
+    });
+    // Without an interval every add triggers a flush, which still batches whatever queued up behind a running one
+    if (config.getFlushIntervalMillis() > 0) {
+      scheduler.scheduleWithFixedDelay(this::flush, config.getFlushIntervalMillis(),
+        config.getFlushIntervalMillis(), TimeUnit.MILLISECONDS);
+    }
+  }
+
+  public CompletableFuture<T> add(T entity) {
+    if (closed) {
+      throw BaseRuntimeException.builder().error("Write behind buffer is closed").build();
+    }
+    try {
+      capacity.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw BaseRuntimeException.builder().error(e.getMessage()).build();
+    }
+    CompletableFuture<T> future = new CompletableFuture<>();
+    boolean full;
+    synchronized (this) {
+      pending.add(new PendingWrite<>(entity, future));
+      full = pending.size() >= config.getBatchSize();
+    }
+    if (full || config.getFlushIntervalMillis() <= 0) {
+      scheduler.execute(this::flush);
+    }
+    return future;
+  }
+
+  public void close() {
+    closed = true;
+    scheduler.shutdown();
+    try {
+      scheduler.awaitTermination(Math.max(config.getFlushIntervalMillis(), CLOSE_WAIT_MILLIS) * 10,
+        TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    flush();
+  }
+
+  private void flush() {
+    List<PendingWrite<T>> batch;
+    synchronized (this) {
+      if (pending.isEmpty()) {
+        return;
+      }
+      batch = pending;
+      pending = new ArrayList<>();
+    }
+    for (int from = 0; from < batch.size(); from += config.getBatchSize()) {
+      write(batch.subList(from, Math.min(from + config.getBatchSize(), batch.size())));
+    }
+  }
+
+  private void write(List<PendingWrite<T>> batch) {
+    try {
+      writer.accept(batch);
+    } catch (Exception ex) {
+      log.error("Write behind flush of {} entities failed. {}", batch.size(), ex.getMessage());
+      batch.forEach(write -> write.getFuture().completeExceptionally(ex));
+    } finally {
+      batch.stream().filter(write -> !write.getFuture().isDone())
+        .forEach(write -> write.getFuture().completeExceptionally(
+          BaseRuntimeException.builder().error("Write behind flush did not acknowledge the entity").build()));
+      capacity.release(batch.size());
+    }
+  }
+
+  @Getter
+  @AllArgsConstructor
+  public static class PendingWrite<T> {
+
+    private final T entity;
+
+    private final CompletableFuture<T> future;
+
+  }
+
+}
@@ -2,13 +2,23 @@ package com.sixsprints.core.generic.delete;
 
 import java.util.List;
 
+import org.bson.Document;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
 
+import com.google.common.collect.Lists;
 import com.sixsprints.core.domain.AbstractMongoEntity;
+import com.sixsprints.core.dto.DeleteProgress;
+import com.sixsprints.core.dto.FilterRequestDto;
+import com.sixsprints.core.dto.MetaData;
+import com.sixsprints.core.exception.BaseRuntimeException;
 import com.sixsprints.core.generic.read.AbstractReadService;
 
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
 public abstract class AbstractDeleteService<T extends AbstractMongoEntity> extends AbstractReadService<T>
   implements GenericDeleteService<T> {
 
@@ -18,42 +28,155 @@ public abstract class AbstractDeleteService<T extends AbstractMongoEntity> exten
 
   @Override
   public void delete(String id) {
-    repository().deleteById(id);
+    metrics().run("delete", () -> {
+      repository().deleteById(id);
+      evictFromCache(id);
+    });
   }
 
   @Override
   public void delete(T entity) {
-    repository().delete(entity);
+    metrics().run("delete", () -> {
+      repository().delete(entity);
+      evictFromCache(entity.getId());
+    });
   }
 
   @Override
   public void delete(List<String> ids) {
-    Criteria criteria = new Criteria(ID).in(ids);
-    Query query = new Query(criteria);
-    mongo.remove(query, metaData().getClassType());
+    metrics().run("deleteAll", () -> deleteInChunks(ids, false, (long) ids.size()));
+  }
+
+  @Override
+  public long delete(FilterRequestDto filterRequestDto) {
+    return metrics().time("deleteMatching", () -> {
+      return deleteMatching(deleteCriteria(filterRequestDto), filterRequestDto, false);
+    });
   }
 
   @Override
   public void softDelete(T entity) {
-    softDelete(entity.getId());
+    metrics().run("softDelete", () -> softDelete(entity.getId()));
   }
 
   @Override
   public void softDelete(String id) {
-    Criteria criteria = new Criteria(ID).is(id);
-    softDeleteQuery(criteria);
+    metrics().run("softDelete", () -> {
+      Criteria criteria = new Criteria(ID).is(id);
+      softDeleteQuery(criteria);
+      evictFromCache(id);
+    });
   }
 
   @Override
   public void softDelete(List<String> ids) {
+    metrics().run("softDeleteAll", () -> deleteInChunks(ids, true, (long) ids.size()));
+  }
+
+  @Override
+  public long softDelete(FilterRequestDto filterRequestDto) {
+    return metrics().time("softDeleteMatching", () -> {
+      Criteria criteria = new Criteria().andOperator(deleteCriteria(filterRequestDto),
+        new Criteria(ACTIVE).ne(Boolean.FALSE));
+      return deleteMatching(criteria, filterRequestDto, true);
+    });
+  }
+
+  // An empty filter would match the whole collection, so delete by filter needs at least one condition
+  protected Criteria deleteCriteria(FilterRequestDto filterRequestDto) {
+    checkFilterRequestDto(filterRequestDto);
+    MetaData<T> meta = metaData();
+    Criteria criteria = filterCriteria(filterRequestDto, meta);
+    Document unfiltered = new Query(buildCriteria(FilterRequestDto.builder().build(), meta)).getQueryObject();
+    if (referencedFilters(filterRequestDto, meta).isEmpty()
+      && unfiltered.equals(new Query(criteria).getQueryObject())) {
+      throw BaseRuntimeException.builder().httpStatus(HttpStatus.BAD_REQUEST)
+        .error("A filter is required to delete by filter").build();
+    }
+    return criteria;
+  }
+
+  protected int deleteChunkSize() {
+    return bulkChunkSize();
+  }
+
+  protected int deleteChunksPerSecond() {
+    return 0;
+  }
+
+  protected void deleteProgress(DeleteProgress progress) {
+    log.debug("{} {} of {} entities in {} chunks", progress.isSoftDelete() ? "Soft deleted" : "Deleted",
+      progress.getProcessed(), progress.getTotal(), progress.getChunks());
+  }
+
+  private long deleteInChunks(List<String> ids, boolean soft, Long total) {
+    long processed = 0;
+    int chunks = 0;
+    for (List<String> chunk : Lists.partition(ids, deleteChunkSize())) {
+      long start = System.currentTimeMillis();
+      processed += deleteChunk(chunk, soft);
+      deleteProgress(DeleteProgress.builder().softDelete(soft).chunks(++chunks).processed(processed).total(total)
+        .build());
+      throttle(start);
+    }
+    return processed;
+  }
+
+  private long deleteMatching(Criteria criteria, FilterRequestDto filterRequestDto, boolean soft) {
+    long total = countMatching(criteria, filterRequestDto);
+    long processed = 0;
+    int chunks = 0;
+    while (true) {
+      long start = System.currentTimeMillis();
+      List<String> ids = matchingIds(criteria, filterRequestDto, deleteChunkSize());
+      if (ids.isEmpty()) {
+        break;
+      }
+      long deleted = deleteChunk(ids, soft);
+      if (deleted == 0) {
+        break;
+      }
+      processed += deleted;
+      deleteProgress(DeleteProgress.builder().softDelete(soft).chunks(++chunks).processed(processed).total(total)
+        .build());
+      throttle(start);
+    }
+    return processed;
+  }
+
+  private long deleteChunk(List<String> ids, boolean soft) {
     Criteria criteria = new Criteria(ID).in(ids);
-    softDeleteQuery(criteria);
+    if (soft) {
+      long modified = softDeleteQuery(criteria);
+      evictFromCache(ids);
+      postSoftDeleteAll(ids);
+      return modified;
+    }
+    long deleted = mongo.remove(new Query(criteria), metaData().getClassType()).getDeletedCount();
+    evictFromCache(ids);
+    postDeleteAll(ids);
+    return deleted;
+  }
+
+  private void throttle(long chunkStart) {
+    int chunksPerSecond = deleteChunksPerSecond();
+    if (chunksPerSecond <= 0) {
+      return;
+    }
+    long wait = 1000L / chunksPerSecond - (System.currentTimeMillis() - chunkStart);
+    if (wait > 0) {
+      try {
+        Thread.sleep(wait);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
   }
 
-  private void softDeleteQuery(Criteria criteria) {
+  private long softDeleteQuery(Criteria criteria) {
     Query query = new Query(criteria);
-    Update update = new Update().set(ACTIVE, Boolean.FALSE);
-    mongo.updateMulti(query, update, metaData().getClassType());
+    Update update = withStaleHash(new Update().set(ACTIVE, Boolean.FALSE));
+    return mongo.updateMulti(query, update, metaData().getClassType()).getModifiedCount();
   }
 
 }
@@ -3,6 +3,7 @@ package com.sixsprints.core.generic.delete;
 import java.util.List;
 
 import com.sixsprints.core.domain.AbstractMongoEntity;
+import com.sixsprints.core.dto.FilterRequestDto;
 
 public interface GenericDeleteService<T extends AbstractMongoEntity> {
 
@@ -12,10 +13,14 @@ public interface GenericDeleteService<T extends AbstractMongoEntity> {
 
   void delete(List<String> ids);
 
+  long delete(FilterRequestDto filterRequestDto);
+
   void softDelete(String id);
 
   void softDelete(T entity);
 
   void softDelete(List<String> ids);
 
+  long softDelete(FilterRequestDto filterRequestDto);
+
 }
@@ -0,0 +1,428 @@
+package com.sixsprints.core.generic.reactive;
+
+import static org.springframework.data.mongodb.core.FindAndModifyOptions.options;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.util.StringUtils;
+import org.supercsv.cellprocessor.ift.CellProcessor;
+import org.supercsv.io.dozer.CsvDozerBeanWriter;
+import org.supercsv.io.dozer.ICsvDozerBeanWriter;
+import org.supercsv.prefs.CsvPreference;
+
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.sixsprints.core.domain.AbstractMongoEntity;
+import com.sixsprints.core.domain.CustomSequence;
+import com.sixsprints.core.dto.BulkUpdateInfo;
+import com.sixsprints.core.dto.FieldDto;
+import com.sixsprints.core.dto.FilterRequestDto;
+import com.sixsprints.core.dto.MetaData;
+import com.sixsprints.core.enums.UpdateAction;
+import com.sixsprints.core.generic.GenericServiceSupport;
+import com.sixsprints.core.transformer.GenericTransformer;
+import com.sixsprints.core.utils.AppConstants;
+import com.sixsprints.core.utils.BeanWrapperUtil;
+import com.sixsprints.core.utils.CellProcessorUtil;
+import com.sixsprints.core.utils.FieldMappingUtil;
+import com.sixsprints.core.utils.FilterCriteriaUtil;
+
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+public abstract class ReactiveAbstractCrudService<T extends AbstractMongoEntity> extends GenericServiceSupport<T>
+  implements ReactiveGenericCrudService<T> {
+
+  private static final String ID = "id";
+
+  private static final String SLUG = "slug";
+
+  private static final String ACTIVE = "active";
+
+  private static final String SEQ = "seq";
+
+  @Autowired
+  protected ReactiveMongoOperations reactiveMongo;
+
+  @Override
+  public Flux<T> findAll() {
+    return reactiveMongo.find(new Query(withInheritance(new Criteria())), classType());
+  }
+
+  @Override
+  public Flux<T> findAllActive() {
+    return reactiveMongo.find(new Query(withInheritance(where(ACTIVE).is(Boolean.TRUE))), classType());
+  }
+
+  @Override
+  public Mono<T> findOne(String id) {
+    if (id == null) {
+      return Mono.error(notFoundException("null"));
+    }
+    return reactiveMongo.findOne(new Query(withInheritance(where(ID).is(id))), classType())
+      .switchIfEmpty(Mono.defer(() -> Mono.error(notFoundException(id))));
+  }
+
+  @Override
+  public Mono<T> findBySlug(String slug) {
+    return reactiveMongo.findOne(new Query(withInheritance(where(SLUG).is(slug))), classType())
+      .switchIfEmpty(Mono.defer(() -> Mono.error(notFoundException(SLUG))));
+  }
+
+  @Override
+  public Mono<Page<T>> filter(FilterRequestDto filterRequestDto) {
+    return Mono.defer(() -> {
+      checkFilterRequestDto(filterRequestDto);
+      validatePageAndSize(filterRequestDto.getPage(), filterRequestDto.getSize());
+      MetaData<T> meta = metaData();
+      Sort sort = FilterCriteriaUtil.buildSort(filterRequestDto.getSortModel(), meta);
+      Pageable pageable = PageRequest.of(filterRequestDto.getPage(), filterRequestDto.getSize(), sort);
+      Criteria criteria = filterCriteria(filterRequestDto, meta);
+      if (!joinedFields(filterRequestDto, sort, meta).isEmpty()) {
+        return Mono.from(collection().aggregate(joinedPagePipeline(criteria, filterRequestDto, pageable, meta))
+          .allowDiskUse(true).first()).map(result -> joinedPage(result, pageable))
+          .switchIfEmpty(Mono.fromSupplier(() -> joinedPage(null, pageable)));
+      }
+      Mono<Long> total = reactiveMongo.count(new Query(criteria), meta.getClassType());
+      Mono<List<T>> data = reactiveMongo.find(new Query(criteria).with(pageable), meta.getClassType())
+        .collectList();
+      return Mono.zip(data, total).map(page -> new PageImpl<T>(page.getT1(), pageable, page.getT2()));
+    });
+  }
+
+  @Override
+  public Flux<T> filterAll(FilterRequestDto filterRequestDto) {
+    return Flux.defer(() -> {
+      checkFilterRequestDto(filterRequestDto);
+      MetaData<T> meta = metaData();
+      Sort sort = FilterCriteriaUtil.buildSort(filterRequestDto.getSortModel(), meta);
+      Criteria criteria = filterCriteria(filterRequestDto, meta);
+      if (!joinedFields(filterRequestDto, sort, meta).isEmpty()) {
+        return Flux.from(collection().aggregate(joinedPipeline(criteria, filterRequestDto, sort, meta))
+          .allowDiskUse(true)).map(this::toEntity);
+      }
+      return reactiveMongo.find(new Query(criteria).with(sort), meta.getClassType());
+    });
+  }
+
+  @Override
+  public Flux<String> distinctColumnValues(String column, FilterRequestDto filterRequestDto) {
+    return Flux.defer(() -> {
+      MetaData<T> meta = metaData();
+      Criteria criteria = filterCriteria(filterRequestDto, meta);
+      Flux<String> values = joinedFields(filterRequestDto, null, meta).isEmpty()
+        ? reactiveMongo.findDistinct(new Query(criteria), column, classType(), String.class)
+        : Flux.from(collection().aggregate(joinedDistinctPipeline(column, criteria, filterRequestDto, meta))
+          .allowDiskUse(true)).filter(value -> value.get(_ID) != null).map(value -> value.get(_ID).toString());
+      return values
+        .filter(value -> !StringUtils.isEmpty(value))
+        .concatWith(Mono.just(AppConstants.BLANK_STRING))
+        .sort();
+    });
+  }
+
+  @Override
+  public <DTO> Mono<Void> exportData(GenericTransformer<T, DTO> transformer, FilterRequestDto filterRequestDto,
+    PrintWriter writer, Locale locale) {
+    FilterRequestDto filters = filterRequestDto == null ? FilterRequestDto.builder().build() : filterRequestDto;
+    List<FieldDto> fields = metaData().getFields();
+    String mappings[] = exportMappings(fields);
+    CellProcessor[] exportProcessors = CellProcessorUtil.exportProcessors(fields, exportCellProcessors(fields));
+
+    return Mono.using(() -> {
+      ICsvDozerBeanWriter beanWriter = new CsvDozerBeanWriter(writer, CsvPreference.STANDARD_PREFERENCE);
+      beanWriter.configureBeanMapping(metaData().getDtoClassType(), mappings);
+      beanWriter.writeHeader(FieldMappingUtil.createHeaders(mappings, fields, locale));
+      return beanWriter;
+    }, beanWriter -> filterAll(filters)
+      .publishOn(Schedulers.boundedElastic())
+      .doOnNext(entity -> {
+        DTO dto = transformer.toDto(entity);
+        if (dto == null) {
+          return;
+        }
+        try {
+          beanWriter.write(dto, exportProcessors);
+          writer.flush();
+        } catch (IOException e) {
+          throw Exceptions.propagate(e);
+        }
+      }).then(), beanWriter -> {
+        try {
+          beanWriter.close();
+        } catch (IOException e) {
+          throw Exceptions.propagate(e);
+        }
+      });
+  }
+
+  @Override
+  public Mono<T> save(T entity) {
+    return persist(entity).flatMap(saved -> post(this::postSave, saved));
+  }
+
+  @Override
+  public Flux<T> saveAll(Flux<T> entities) {
+    return entities.buffer(bulkChunkSize())
+      .concatMap(chunk -> generateSlugIfRequired(chunk)
+        .then(blocking(() -> {
+          preSaveAll(chunk);
+          chunk.forEach(this::generateHashIfRequired);
+          return chunk;
+        }))
+        .flatMap(this::writeAll)
+        .flatMap(saved -> blocking(() -> {
+          postSaveAll(saved);
+          return saved;
+        }))
+        .flatMapMany(Flux::fromIterable));
+  }
+
+  @Override
+  public Mono<T> create(T domain) {
+    return blocking(() -> {
+      preCreate(domain);
+      if (isInvalid(domain)) {
+        throw invalidException(domain);
+      }
+      return domain;
+    })
+      .flatMap(this::findDuplicate)
+      .flatMap(fromDb -> Boolean.TRUE.equals(fromDb.getActive()) ? Mono.<T>error(alreadyExistsException(fromDb))
+        : remove(fromDb).then(Mono.<T>empty()))
+      .then(Mono.defer(() -> save(domain)))
+      .flatMap(saved -> post(this::postCreate, saved));
+  }
+
+  @Override
+  public Mono<T> update(String id, T domain) {
+    return findOne(id)
+      .flatMap(entity -> {
+        domain.copyEntityFrom(entity);
+        return findDuplicate(domain);
+      })
+      .flatMap(fromDb -> {
+        if (domain.getId().equals(fromDb.getId())) {
+          return Mono.<T>empty();
+        }
+        if (Boolean.TRUE.equals(fromDb.getActive())) {
+          return Mono.<T>error(alreadyExistsException(fromDb));
+        }
+        return remove(fromDb).then(Mono.<T>empty());
+      })
+      .then(blocking(() -> {
+        preUpdate(domain);
+        return domain;
+      }))
+      .flatMap(this::save)
+      .flatMap(saved -> post(this::postUpdate, saved));
+  }
+
+  @Override
+  public Flux<BulkUpdateInfo<T>> importData(Flux<T> entities) {
+    return entities.buffer(bulkChunkSize())
+      .concatMap(chunk -> generateSlugIfRequired(chunk)
+        .thenMany(Flux.fromIterable(chunk).concatMap(this::saveOrOverwrite))
+        .collectList()
+        .flatMap(updateInfo -> blocking(() -> {
+          postImport(updateInfo);
+          return updateInfo;
+        }))
+        .flatMapMany(Flux::fromIterable));
+  }
+
+  @Override
+  public Mono<Void> delete(String id) {
+    return reactiveMongo.remove(new Query(where(ID).is(id)), classType())
+      .doOnNext(result -> evictFromCache(Arrays.asList(id)))
+      .flatMap(result -> blocking(() -> {
+        postDeleteAll(Arrays.asList(id));
+        return result;
+      }))
+      .then();
+  }
+
+  @Override
+  public Mono<Void> softDelete(String id) {
+    return reactiveMongo.updateFirst(new Query(where(ID).is(id)),
+      withStaleHash(new Update().set(ACTIVE, Boolean.FALSE)), classType())
+      .doOnNext(result -> evictFromCache(Arrays.asList(id)))
+      .flatMap(result -> blocking(() -> {
+        postSoftDeleteAll(Arrays.asList(id));
+        return result;
+      }))
+      .then();
+  }
+
+  protected Mono<T> findDuplicate(T entity) {
+    Criteria criteria = duplicateCriteria(entity);
+    if (criteria == null) {
+      return Mono.empty();
+    }
+    return reactiveMongo.findOne(new Query(withInheritance(criteria)), classType());
+  }
+
+  protected Mono<T> persist(T entity) {
+    return generateSlugIfRequired(entity)
+      .then(blocking(() -> {
+        preSave(entity);
+        generateHashIfRequired(entity);
+        return entity;
+      }))
+      .flatMap(reactiveMongo::save)
+      .doOnNext(saved -> evictFromCache(Arrays.asList(saved.getId())));
+  }
+
+  protected Mono<BulkUpdateInfo<T>> saveOrOverwrite(T domain) {
+    return blocking(() -> isInvalid(domain))
+      .flatMap(invalid -> invalid ? Mono.just(bulkImportInfo(null, UpdateAction.INVALID))
+        : findDuplicate(domain).flatMap(fromDb -> overwrite(domain, fromDb))
+          .switchIfEmpty(Mono.defer(() -> blocking(() -> {
+            preCreate(domain);
+            return domain;
+          }).flatMap(this::persist).map(saved -> bulkImportInfo(saved, UpdateAction.CREATE)))));
+  }
+
+  protected Mono<Void> generateSlugIfRequired(T entity) {
+    return generateSlugIfRequired(Collections.singletonList(entity));
+  }
+
+  protected Mono<Void> generateSlugIfRequired(List<T> entities) {
+    List<T> slugless = sluglessEntities(entities);
+    if (slugless.isEmpty()) {
+      return Mono.empty();
+    }
+    MetaData<T> metaData = metaData(slugless.get(0));
+    if (metaData == null || metaData.getCollection() == null) {
+      return Mono.empty();
+    }
+    return getNextSequence(metaData.getCollection(), slugless.size())
+      .doOnNext(sequence -> assignSlugs(slugless, sequence, metaData)).then();
+  }
+
+  protected Mono<Integer> getNextSequence(String seqName, int size) {
+    return reactiveMongo.findAndModify(query(where(_ID).is(seqName)), new Update().inc(SEQ, size),
+      options().returnNew(true).upsert(true), CustomSequence.class).map(CustomSequence::getSeq);
+  }
+
+  @Override
+  protected MongoConverter converter() {
+    return reactiveMongo.getConverter();
+  }
+
+  // The local part of the request; referenced filters are applied by the $lookup stages of filterStages
+  protected Criteria filterCriteria(FilterRequestDto filterRequestDto, MetaData<T> meta) {
+    return FilterCriteriaUtil.buildCriteria(localFilterRequest(filterRequestDto, meta), meta);
+  }
+
+  protected MongoCollection<Document> collection() {
+    return reactiveMongo.getCollection(reactiveMongo.getCollectionName(classType()));
+  }
+
+  // The blocking services of the collection cache what these writes change
+  protected void evictFromCache(Collection<String> ids) {
+    invalidateCaches(ids);
+  }
+
+  // Hooks and validation are application code that may block, so they never run on driver threads
+  protected <R> Mono<R> blocking(Callable<R> task) {
+    return Mono.fromCallable(task).subscribeOn(Schedulers.boundedElastic());
+  }
+
+  private void postImport(List<BulkUpdateInfo<T>> updateInfo) {
+    List<T> updated = dataWithAction(updateInfo, UpdateAction.UPDATE);
+    List<T> created = dataWithAction(updateInfo, UpdateAction.CREATE);
+    if (updated.isEmpty() && created.isEmpty()) {
+      return;
+    }
+    postSaveAll(dataWithAction(updateInfo, UpdateAction.CREATE, UpdateAction.UPDATE));
+    postUpdateAll(updated);
+    postCreateAll(created);
+  }
+
+  private Mono<BulkUpdateInfo<T>> overwrite(T domain, T fromDb) {
+    if (!Boolean.TRUE.equals(fromDb.getActive())) {
+      return remove(fromDb).then(Mono.<BulkUpdateInfo<T>>empty());
+    }
+    Document before = toDocument(fromDb);
+    Boolean active = domain.getActive();
+    domain.copyEntityFrom(fromDb);
+    domain.setActive(active);
+    T target = domain;
+    if (metaData().isIgnoreNullWhileBulkUpdate()) {
+      BeanWrapperUtil.copyNonNullProperties(domain, fromDb);
+      target = fromDb;
+    }
+    if (before.equals(toDocument(target))) {
+      return Mono.just(bulkImportInfo(target, UpdateAction.IGNORE));
+    }
+    T changed = target;
+    return blocking(() -> {
+      preUpdate(changed);
+      return changed;
+    }).flatMap(this::persist).map(saved -> bulkImportInfo(saved, UpdateAction.UPDATE));
+  }
+
+  // Inserts the new entities in one batch and saves the rest, returning them in the order they came in
+  private Mono<List<T>> writeAll(List<T> chunk) {
+    List<Boolean> created = chunk.stream().map(this::isNew).collect(Collectors.toList());
+    return insertAll(newOnly(chunk, true)).collectList()
+      .flatMap(inserted -> Flux.fromIterable(newOnly(chunk, false)).concatMap(reactiveMongo::save).collectList()
+        .map(updated -> {
+          Iterator<T> insertedIt = inserted.iterator();
+          Iterator<T> updatedIt = updated.iterator();
+          return created.stream().map(isNew -> isNew ? insertedIt.next() : updatedIt.next())
+            .collect(Collectors.toList());
+        }))
+      .doOnNext(saved -> evictFromCache(saved.stream().map(AbstractMongoEntity::getId).collect(Collectors.toList())));
+  }
+
+  private Mono<Void> remove(T entity) {
+    return reactiveMongo.remove(entity).doOnNext(result -> evictFromCache(Arrays.asList(entity.getId()))).then();
+  }
+
+  private Mono<T> post(Consumer<T> hook, T entity) {
+    return blocking(() -> {
+      hook.accept(entity);
+      return entity;
+    });
+  }
+
+  private Flux<T> insertAll(List<T> entities) {
+    return entities.isEmpty() ? Flux.empty() : reactiveMongo.insertAll(Mono.just(entities));
+  }
+
+  private List<T> newOnly(List<T> entities, boolean isNew) {
+    return entities.stream().filter(entity -> isNew(entity) == isNew).collect(Collectors.toList());
+  }
+
+  private Class<T> classType() {
+    return metaData().getClassType();
+  }
+
+}
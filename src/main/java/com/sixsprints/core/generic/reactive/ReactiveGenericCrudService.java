@@ -0,0 +1,25 @@
+package com.sixsprints.core.generic.reactive;
+
+import com.sixsprints.core.domain.AbstractMongoEntity;
+import com.sixsprints.core.dto.BulkUpdateInfo;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveGenericCrudService<T extends AbstractMongoEntity> extends ReactiveGenericReadService<T> {
+
+  Mono<T> save(T entity);
+
+  Flux<T> saveAll(Flux<T> entities);
+
+  Mono<T> create(T entity);
+
+  Mono<T> update(String id, T entity);
+
+  Flux<BulkUpdateInfo<T>> importData(Flux<T> entities);
+
+  Mono<Void> delete(String id);
+
+  Mono<Void> softDelete(String id);
+
+}
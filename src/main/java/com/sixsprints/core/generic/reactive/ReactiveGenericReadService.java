@@ -0,0 +1,34 @@
+package com.sixsprints.core.generic.reactive;
+
+import java.io.PrintWriter;
+import java.util.Locale;
+
+import org.springframework.data.domain.Page;
+
+import com.sixsprints.core.domain.AbstractMongoEntity;
+import com.sixsprints.core.dto.FilterRequestDto;
+import com.sixsprints.core.transformer.GenericTransformer;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveGenericReadService<T extends AbstractMongoEntity> {
+
+  Flux<T> findAll();
+
+  Flux<T> findAllActive();
+
+  Mono<T> findOne(String id);
+
+  Mono<T> findBySlug(String slug);
+
+  Mono<Page<T>> filter(FilterRequestDto filters);
+
+  Flux<T> filterAll(FilterRequestDto filters);
+
+  Flux<String> distinctColumnValues(String column, FilterRequestDto filterRequestDto);
+
+  <E> Mono<Void> exportData(GenericTransformer<T, E> transformer, FilterRequestDto filterRequestDto,
+    PrintWriter writer, Locale locale);
+
+}
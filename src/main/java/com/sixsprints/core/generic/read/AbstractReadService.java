@@ -3,62 +3,133 @@ package com.sixsprints.core.generic.read;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
-import java.util.regex.Pattern;
-
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.data.util.StreamUtils;
 import org.springframework.http.HttpStatus;
-import org.springframework.util.CollectionUtils;
-import org.springframework.util.StringUtils;
 import org.supercsv.cellprocessor.ift.CellProcessor;
 import org.supercsv.io.dozer.CsvDozerBeanWriter;
 import org.supercsv.io.dozer.ICsvDozerBeanWriter;
 import org.supercsv.prefs.CsvPreference;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.google.common.collect.Lists;
+import com.mongodb.ReadPreference;
 import com.mongodb.client.DistinctIterable;
+import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
+import com.sixsprints.core.cache.ChangeStreamListener;
+import com.sixsprints.core.cache.CoalescingLoader;
+import com.sixsprints.core.cache.EntityCache;
+import com.sixsprints.core.cache.EntityChangedEvent;
+import com.sixsprints.core.cache.SingleFlightCache;
 import com.sixsprints.core.domain.AbstractMongoEntity;
+import com.sixsprints.core.dto.AsyncConfig;
+import com.sixsprints.core.dto.CacheConfig;
+import com.sixsprints.core.dto.CacheStats;
 import com.sixsprints.core.dto.FieldDto;
+import com.sixsprints.core.dto.FilterCacheConfig;
 import com.sixsprints.core.dto.FilterRequestDto;
+import com.sixsprints.core.dto.IndexPlan;
+import com.sixsprints.core.dto.LoaderConfig;
 import com.sixsprints.core.dto.MetaData;
+import com.sixsprints.core.dto.MultiGetResult;
 import com.sixsprints.core.dto.PageDto;
-import com.sixsprints.core.dto.filter.BooleanColumnFilter;
-import com.sixsprints.core.dto.filter.ColumnFilter;
-import com.sixsprints.core.dto.filter.DateColumnFilter;
-import com.sixsprints.core.dto.filter.ExactMatchColumnFilter;
-import com.sixsprints.core.dto.filter.NumberColumnFilter;
-import com.sixsprints.core.dto.filter.SearchColumnFilter;
-import com.sixsprints.core.dto.filter.SetColumnFilter;
+import com.sixsprints.core.dto.filter.ColumnModel;
 import com.sixsprints.core.dto.filter.SortModel;
+import com.sixsprints.core.enums.IndexMode;
+import com.sixsprints.core.enums.ReadOperation;
 import com.sixsprints.core.exception.BaseException;
 import com.sixsprints.core.exception.BaseRuntimeException;
 import com.sixsprints.core.exception.EntityNotFoundException;
+import com.sixsprints.core.generic.AsyncExecutor;
 import com.sixsprints.core.generic.GenericAbstractService;
+import com.sixsprints.core.monitoring.IndexAdvisor;
 import com.sixsprints.core.transformer.GenericTransformer;
 import com.sixsprints.core.utils.AppConstants;
+import com.sixsprints.core.utils.AutoClosingIterator;
 import com.sixsprints.core.utils.CellProcessorUtil;
-import com.sixsprints.core.utils.DateUtil;
 import com.sixsprints.core.utils.FieldMappingUtil;
-import com.sixsprints.core.utils.InheritanceMongoUtil;
+import com.sixsprints.core.utils.FilterCriteriaUtil;
+
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 public abstract class AbstractReadService<T extends AbstractMongoEntity> extends GenericAbstractService<T>
   implements GenericReadService<T> {
 
-  private static final String IGNORE_CASE_FLAG = "i";
   private static final String SLUG = "slug";
+  private static final String ID = "id";
+  private static final String ACTIVE = "active";
+  private static final String GROUP_KEY = "g";
+  private static final String VALUE_KEY = "v";
+  private static final String CHILD_COUNT = "childCount";
+
+  private static final ObjectMapper FILTER_KEY_MAPPER = new ObjectMapper()
+    .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+    .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true);
+
+  // Index builds run one at a time on their own thread, away from the executor serving async requests
+  private static final AsyncExecutor INDEX_PROVISIONING = new AsyncExecutor("index-provisioning",
+    AsyncConfig.builder().maxConcurrency(1).build());
+
+  private volatile EntityCache entityCache;
+
+  private volatile SingleFlightCache<Page<Document>> filterCache;
+
+  private volatile ReadPreferenceRouter readRouter;
+
+  private volatile CoalescingLoader<Document> idLoader;
+
+  private volatile CoalescingLoader<Document> slugLoader;
+
+  @Autowired(required = false)
+  private ChangeStreamListener changeStreamListener;
+
+  @Autowired(required = false)
+  private IndexAdvisor indexAdvisor;
+
+  @Autowired(required = false)
+  private ApplicationContext applicationContext;
 
   @Override
   public Page<T> findAll(Pageable page) {
@@ -94,23 +165,67 @@ public abstract class AbstractReadService<T extends AbstractMongoEntity> extends
 
   @Override
   public T findOne(String id) throws EntityNotFoundException {
-    if (id == null) {
-      throw notFoundException("null");
-    }
-    Optional<T> entity = repository().findById(id);
-    if (!entity.isPresent()) {
-      throw notFoundException(id);
-    }
-    return entity.get();
+    return metrics().time("findOne", () -> {
+      if (id == null) {
+        throw notFoundException("null");
+      }
+      T cached = fromCache(id);
+      if (cached != null) {
+        return cached;
+      }
+      CoalescingLoader<Document> loader = idLoader();
+      if (loader != null) {
+        T loaded = load(loader, id);
+        if (loaded == null) {
+          throw notFoundException(id);
+        }
+        return loaded;
+      }
+      long generation = cacheGeneration();
+      T entity = findOneBy(ID, id);
+      if (entity == null) {
+        throw notFoundException(id);
+      }
+      return cache(entity, generation);
+    });
   }
 
   @Override
   public T findBySlug(String slug) throws EntityNotFoundException {
-    T entity = repository().findBySlug(slug);
-    if (entity == null) {
-      throw notFoundException(SLUG);
-    }
-    return entity;
+    return metrics().time("findBySlug", () -> {
+      EntityCache cache = entityCache();
+      if (cache != null) {
+        String id = cache.idForSlug(slug);
+        T cached = id == null ? null : fromCache(id);
+        if (cached != null) {
+          return cached;
+        }
+      }
+      CoalescingLoader<Document> loader = slugLoader();
+      if (loader != null) {
+        T loaded = load(loader, slug);
+        if (loaded == null) {
+          throw notFoundException(SLUG);
+        }
+        return loaded;
+      }
+      long generation = cacheGeneration();
+      T entity = findOneBy(SLUG, slug);
+      if (entity == null) {
+        throw notFoundException(SLUG);
+      }
+      return cache(entity, generation);
+    });
+  }
+
+  @Override
+  public MultiGetResult<T> findByIds(Collection<String> ids) {
+    return metrics().time("findByIds", () -> findByIds(ids, readRouter().route(ReadOperation.MULTI_GET)));
+  }
+
+  @Override
+  public MultiGetResult<T> findBySlugs(Collection<String> slugs) {
+    return metrics().time("findBySlugs", () -> findBySlugs(slugs, readRouter().route(ReadOperation.MULTI_GET)));
   }
 
   @Override
@@ -131,50 +246,254 @@ public abstract class AbstractReadService<T extends AbstractMongoEntity> extends
 
   @Override
   public Page<T> filter(FilterRequestDto filterRequestDto) {
-    checkFilterRequestDto(filterRequestDto);
-    validatePageAndSize(filterRequestDto.getPage(), filterRequestDto.getSize());
+    return metrics().time("filter", () -> {
+      checkFilterRequestDto(filterRequestDto);
+      validatePageAndSize(filterRequestDto.getPage(), filterRequestDto.getSize());
+      SingleFlightCache<Page<Document>> cache = filterCache();
+      String key = cache == null ? null : filterKey(filterRequestDto);
+      if (key == null) {
+        return runFilter(filterRequestDto, ReadOperation.FILTER);
+      }
+      return cache.get(key, () -> runFilter(filterRequestDto, ReadOperation.FILTER).map(this::toDocument))
+        .map(this::toEntity);
+    });
+  }
+
+  private Page<T> runFilter(FilterRequestDto filterRequestDto, ReadOperation operation) {
     MetaData<T> meta = metaData();
-    Sort sort = buildSort(filterRequestDto.getSortModel(), meta);
+    Sort sort = FilterCriteriaUtil.buildSort(filterRequestDto.getSortModel(), meta);
     Pageable pageable = PageRequest.of(filterRequestDto.getPage(), filterRequestDto.getSize(), sort);
-    Criteria criteria = buildCriteria(filterRequestDto, meta);
+    Criteria criteria = groupCriteria(filterRequestDto, meta);
+    if (isJoined(filterRequestDto, sort, meta)) {
+      return joinedPage(readCollection(operation).aggregate(joinedPagePipeline(criteria, filterRequestDto, pageable,
+        meta)).allowDiskUse(true).first(), pageable);
+    }
+    MongoOperations reader = readRouter().route(operation);
     Query query = new Query(criteria);
-    long total = mongo.count(query, meta.getClassType());
+    long total = reader.count(query, meta.getClassType());
     query.with(pageable);
-    List<T> data = mongo.find(query, meta.getClassType());
+    long start = System.currentTimeMillis();
+    List<T> data = reader.find(query, meta.getClassType());
+    adviseIndex(criteria, sort, pageable.getPageSize(), System.currentTimeMillis() - start);
     return new PageImpl<T>(data, pageable, total);
   }
 
+  // Requests with deep filters, or sorted on a referenced column, run as a $lookup pipeline (see filterStages)
+  protected boolean isJoined(FilterRequestDto filterRequestDto, Sort sort, MetaData<T> meta) {
+    return !joinedFields(filterRequestDto, sort, meta).isEmpty();
+  }
+
+  // The local part of the request; referenced filters are applied by the $lookup stages of filterStages
+  protected Criteria filterCriteria(FilterRequestDto filterRequestDto, MetaData<T> meta) {
+    return buildCriteria(localFilterRequest(filterRequestDto, meta), meta);
+  }
+
+  protected Criteria groupCriteria(FilterRequestDto filterRequestDto, MetaData<T> meta) {
+    Criteria criteria = filterCriteria(filterRequestDto, meta);
+    Criteria groupKeys = FilterCriteriaUtil.buildGroupKeyCriteria(filterRequestDto, meta);
+    return groupKeys == null ? criteria : new Criteria().andOperator(criteria, groupKeys);
+  }
+
+  // Ids of up to limit matching entities, read from the primary; deletes by filter work through these
+  protected List<String> matchingIds(Criteria criteria, FilterRequestDto filterRequestDto, int limit) {
+    MetaData<T> meta = metaData();
+    if (!isJoined(filterRequestDto, null, meta)) {
+      Query query = new Query(criteria).limit(limit);
+      query.fields().include(ID);
+      return mongo.find(query, meta.getClassType()).stream().map(AbstractMongoEntity::getId)
+        .collect(Collectors.toList());
+    }
+    List<Document> pipeline = filterStages(criteria, filterRequestDto, joinedFields(filterRequestDto, null, meta),
+      meta);
+    pipeline.add(new Document(LIMIT, limit));
+    pipeline.add(new Document(PROJECT, new Document(_ID, 1)));
+    List<String> ids = new ArrayList<>();
+    for (Document row : collection().aggregate(pipeline).allowDiskUse(true)) {
+      ids.add(row.get(_ID).toString());
+    }
+    return ids;
+  }
+
+  protected long countMatching(Criteria criteria, FilterRequestDto filterRequestDto) {
+    MetaData<T> meta = metaData();
+    if (!isJoined(filterRequestDto, null, meta)) {
+      return mongo.count(new Query(criteria), meta.getClassType());
+    }
+    List<Document> pipeline = filterStages(criteria, filterRequestDto, joinedFields(filterRequestDto, null, meta),
+      meta);
+    pipeline.add(new Document(COUNT, TOTAL));
+    Document result = collection().aggregate(pipeline).allowDiskUse(true).first();
+    return result == null ? 0 : ((Number) result.get(TOTAL)).longValue();
+  }
+
   @Override
   public List<T> filterAll(FilterRequestDto filterRequestDto) {
+    return metrics().time("filterAll", () -> {
+      checkFilterRequestDto(filterRequestDto);
+      MetaData<T> meta = metaData();
+      Criteria criteria = filterCriteria(filterRequestDto, meta);
+      Sort sort = FilterCriteriaUtil.buildSort(filterRequestDto.getSortModel(), meta);
+      if (isJoined(filterRequestDto, sort, meta)) {
+        List<T> data = new ArrayList<>();
+        readCollection(ReadOperation.FILTER_ALL).aggregate(joinedPipeline(criteria, filterRequestDto, sort, meta))
+          .allowDiskUse(true).forEach((Consumer<Document>) row -> data.add(toEntity(row)));
+        return data;
+      }
+      Query query = new Query(criteria);
+      query.with(sort);
+      List<T> data = readRouter().route(ReadOperation.FILTER_ALL).find(query, meta.getClassType());
+      return data;
+    });
+  }
+
+  @Override
+  public Stream<T> streamAll() {
+    return stream(new Query(withInheritance(new Criteria())));
+  }
+
+  @Override
+  public Stream<T> streamActive() {
+    return stream(new Query(withInheritance(new Criteria(ACTIVE).is(Boolean.TRUE))));
+  }
+
+  @Override
+  public Stream<T> streamAll(FilterRequestDto filterRequestDto) {
     checkFilterRequestDto(filterRequestDto);
     MetaData<T> meta = metaData();
-    Criteria criteria = buildCriteria(filterRequestDto, meta);
-    Sort sort = buildSort(filterRequestDto.getSortModel(), meta);
+    Criteria criteria = filterCriteria(filterRequestDto, meta);
+    Sort sort = FilterCriteriaUtil.buildSort(filterRequestDto.getSortModel(), meta);
+    if (isJoined(filterRequestDto, sort, meta)) {
+      MongoCursor<Document> cursor = readCollection(ReadOperation.STREAM)
+        .aggregate(joinedPipeline(criteria, filterRequestDto, sort, meta)).allowDiskUse(true)
+        .batchSize(streamBatchSize()).iterator();
+      return StreamUtils.createStreamFromIterator(new AutoClosingIterator<>(new CloseableIterator<T>() {
+
+        @Override
+        public boolean hasNext() {
+          return cursor.hasNext();
+        }
+
+        @Override
+        public T next() {
+          return toEntity(cursor.next());
+        }
+
+        @Override
+        public void close() {
+          cursor.close();
+        }
+
+      }));
+    }
     Query query = new Query(criteria);
     query.with(sort);
-    List<T> data = mongo.find(query, meta.getClassType());
-    return data;
+    return stream(query);
   }
 
   @Override
-  public List<String> distinctColumnValues(String column, FilterRequestDto filterRequestDto) {
-    MetaData<T> metaData = metaData();
-    Query query = new Query();
-    query.addCriteria(buildCriteria(filterRequestDto, metaData));
-    DistinctIterable<String> iterable = mongo.getCollection(mongo.getCollectionName(metaData().getClassType()))
-      .distinct(column, query.getQueryObject(), String.class);
+  public List<Map<String, Object>> aggregate(FilterRequestDto filterRequestDto) {
+    return metrics().time("aggregate", () -> {
+      checkFilterRequestDto(filterRequestDto);
+      validatePageAndSize(filterRequestDto.getPage(), filterRequestDto.getSize());
+      MetaData<T> meta = metaData();
+      List<ColumnModel> groupCols = columns(filterRequestDto.getRowGroupCols());
+      List<ColumnModel> valueCols = columns(filterRequestDto.getValueCols());
+      checkAggregation(groupCols, valueCols, meta);
+
+      List<Document> pipeline = filterStages(filterCriteria(filterRequestDto, meta), filterRequestDto,
+        joinedFields(filterRequestDto, null, meta), meta);
+      pipeline.add(new Document(GROUP, groupStage(groupCols, valueCols)));
+      if (!groupCols.isEmpty()) {
+        pipeline.add(new Document(SORT, groupSort(groupCols)));
+      }
+      // Without a page size the groups are still capped, so a high-cardinality column cannot return every row
+      int size = groupPageSize(filterRequestDto);
+      if (filterRequestDto.getSize() > 0) {
+        pipeline.add(new Document(SKIP, (long) filterRequestDto.getPage() * size));
+      }
+      pipeline.add(new Document(LIMIT, size));
 
-    MongoCursor<String> cursor = iterable.iterator();
-    List<String> list = new ArrayList<>();
-    while (cursor.hasNext()) {
-      String next = cursor.next();
-      if (next != null)
-        list.add(next);
-    }
-    list.remove("");
-    list.add(AppConstants.BLANK_STRING);
-    Collections.sort(list);
-    return list;
+      List<Map<String, Object>> rows = new ArrayList<>();
+      for (Document result : readCollection(ReadOperation.AGGREGATE).aggregate(pipeline).allowDiskUse(true)) {
+        rows.add(groupRow(result, groupCols, valueCols));
+      }
+      return rows;
+    });
+  }
+
+  @Override
+  public Page<Map<String, Object>> filterGroups(FilterRequestDto filterRequestDto) {
+    return metrics().time("filterGroups", () -> {
+      checkFilterRequestDto(filterRequestDto);
+      validatePageAndSize(filterRequestDto.getPage(), filterRequestDto.getSize());
+      if (!isGroupLevel(filterRequestDto)) {
+        throw BaseRuntimeException.builder().httpStatus(HttpStatus.BAD_REQUEST)
+          .error("All row groups are expanded. Use filter to fetch the leaf rows.").build();
+      }
+      MetaData<T> meta = metaData();
+      ColumnModel groupCol = filterRequestDto.getRowGroupCols().get(columns(filterRequestDto.getGroupKeys()).size());
+      List<ColumnModel> groupCols = Collections.singletonList(groupCol);
+      List<ColumnModel> valueCols = columns(filterRequestDto.getValueCols());
+      checkAggregation(groupCols, valueCols, meta);
+
+      Pageable pageable = PageRequest.of(filterRequestDto.getPage(), groupPageSize(filterRequestDto));
+      Document sort = new Document(_ID + "." + GROUP_KEY + 0, groupDirection(groupCol, filterRequestDto));
+      Document facet = new Document(ROWS, Arrays.asList(new Document(SORT, sort),
+        new Document(SKIP, pageable.getOffset()), new Document(LIMIT, pageable.getPageSize())))
+          .append(TOTAL, Arrays.asList(new Document(COUNT, TOTAL)));
+      List<Document> pipeline = filterStages(groupCriteria(filterRequestDto, meta), filterRequestDto,
+        joinedFields(filterRequestDto, null, meta), meta);
+      pipeline.add(new Document(GROUP, groupStage(groupCols, valueCols)));
+      pipeline.add(new Document(FACET, facet));
+
+      Document result = readCollection(ReadOperation.AGGREGATE).aggregate(pipeline).allowDiskUse(true).first();
+      List<Map<String, Object>> rows = new ArrayList<>();
+      long total = 0;
+      if (result != null) {
+        for (Document row : result.getList(ROWS, Document.class)) {
+          rows.add(groupRow(row, groupCols, valueCols));
+        }
+        List<Document> totals = result.getList(TOTAL, Document.class);
+        total = totals.isEmpty() ? 0 : ((Number) totals.get(0).get(TOTAL)).longValue();
+      }
+      return new PageImpl<>(rows, pageable, total);
+    });
+  }
+
+  @Override
+  public boolean isGroupLevel(FilterRequestDto filterRequestDto) {
+    return filterRequestDto != null
+      && columns(filterRequestDto.getGroupKeys()).size() < columns(filterRequestDto.getRowGroupCols()).size();
+  }
+
+  @Override
+  public List<String> distinctColumnValues(String column, FilterRequestDto filterRequestDto) {
+    return metrics().time("distinctColumnValues", () -> {
+      MetaData<T> metaData = metaData();
+      Criteria criteria = filterCriteria(filterRequestDto, metaData);
+      List<String> list = new ArrayList<>();
+      if (isJoined(filterRequestDto, null, metaData)) {
+        for (Document value : readCollection(ReadOperation.DISTINCT)
+          .aggregate(joinedDistinctPipeline(column, criteria, filterRequestDto, metaData)).allowDiskUse(true)) {
+          if (value.get(_ID) != null) {
+            list.add(value.get(_ID).toString());
+          }
+        }
+      } else {
+        DistinctIterable<String> iterable = readCollection(ReadOperation.DISTINCT).distinct(column,
+          mappedQuery(criteria), String.class);
+        MongoCursor<String> cursor = iterable.iterator();
+        while (cursor.hasNext()) {
+          String next = cursor.next();
+          if (next != null)
+            list.add(next);
+        }
+      }
+      list.remove("");
+      list.add(AppConstants.BLANK_STRING);
+      Collections.sort(list);
+      return list;
+    });
   }
 
   @Override
@@ -198,10 +517,12 @@ public abstract class AbstractReadService<T extends AbstractMongoEntity> extends
       filterRequestDto.setPage(0);
       filterRequestDto.setSize(defaultBatchSize());
 
-      PageDto<DTO> pages = transformer.pageEntityToPageDtoDto(filter(filterRequestDto));
+      PageDto<DTO> pages = transformer
+        .pageEntityToPageDtoDto(runFilter(filterRequestDto, ReadOperation.EXPORT));
 
       int totalPages = pages.getTotalPages();
       CellProcessor[] exportProcessors = cellProcessors(fields);
+      long exported = 0;
 
       for (int i = 0; i < totalPages; i++) {
         List<DTO> dtos = pages.getContent();
@@ -209,12 +530,14 @@ public abstract class AbstractReadService<T extends AbstractMongoEntity> extends
           beanWriter.write(dto, exportProcessors);
           writer.flush();
         }
+        exported += dtos.size();
         if (i + 1 == totalPages) {
           continue;
         }
         filterRequestDto.setPage(i + 1);
-        pages = transformer.pageEntityToPageDtoDto(filter(filterRequestDto));
+        pages = transformer.pageEntityToPageDtoDto(runFilter(filterRequestDto, ReadOperation.EXPORT));
       }
+      metrics().transferred("export", "success", exported);
 
     } finally {
 
@@ -232,235 +555,435 @@ public abstract class AbstractReadService<T extends AbstractMongoEntity> extends
     return 750;
   }
 
-  private CellProcessor[] cellProcessors(List<FieldDto> fields) {
-    Map<String, CellProcessor> map = exportCellProcessors(fields);
-    return CellProcessorUtil.exportProcessors(fields, map);
+  protected int maxGroupPageSize() {
+    return 1000;
   }
 
-  protected Map<String, CellProcessor> exportCellProcessors(List<FieldDto> fields) {
-    return new HashMap<>();
+  protected int streamBatchSize() {
+    return defaultBatchSize();
   }
 
-  protected void writeHeader(ICsvDozerBeanWriter beanWriter, List<FieldDto> fields, String[] mappings,
-    Locale locale) throws IOException {
-    beanWriter.writeHeader(FieldMappingUtil.createHeaders(mappings, fields, locale));
+  // Cursors without a timeout outlive abandoned streams on the server; enable only for slow consumers
+  protected boolean streamNoCursorTimeout() {
+    return false;
   }
 
-  protected String[] exportMappings(List<FieldDto> fields) {
-    return FieldMappingUtil.genericMappings(fields);
+  protected int multiGetChunkSize() {
+    return bulkChunkSize();
   }
 
-  protected Pageable pageable(int page, int size) {
-    validatePageAndSize(page, size);
-    Pageable pageable = PageRequest.of(page, size);
-    return pageable;
+  @Override
+  public CacheStats cacheStats() {
+    EntityCache cache = entityCache();
+    return cache == null ? null : cache.stats();
+  }
+
+  @Override
+  public Map<String, Long> readRoutingStats() {
+    return readRouter().stats();
   }
 
-  private Sort buildSort(List<SortModel> sortModel, MetaData<T> meta) {
-    Sort sort = Sort.unsorted();
-    if (!CollectionUtils.isEmpty(sortModel)) {
-      for (SortModel aSort : sortModel) {
-        sort = sort.and(Sort.by(aSort.getSort(), aSort.getColId()));
+  protected ReadPreferenceRouter readRouter() {
+    if (readRouter == null) {
+      synchronized (this) {
+        if (readRouter == null) {
+          readRouter = new ReadPreferenceRouter(mongo, metaData().getReadPreferences(), applicationContext,
+            metrics());
+        }
       }
     }
-    if (meta != null && meta.getDefaultSort() != null) {
-      sort = sort.and(meta.getDefaultSort());
-    }
-    return sort;
+    return readRouter;
   }
 
-  private Criteria buildCriteria(FilterRequestDto filterRequestDto, MetaData<T> meta) {
-    List<Criteria> criterias = new ArrayList<>();
-    Criteria criteria = InheritanceMongoUtil.generate(meta.getClassType());
-    if (criteria != null) {
-      criterias.add(criteria);
+  @Override
+  public List<IndexPlan> indexReport() {
+    return new IndexProvisioner(mongo, metaData()).plan();
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void provisionIndexes() {
+    MetaData<T> meta = metaData();
+    IndexMode mode = meta.getIndexMode();
+    if (mode == null || IndexMode.OFF.equals(mode)) {
+      return;
     }
-    if (!(filterRequestDto == null || filterRequestDto.getFilterModel() == null
-      || filterRequestDto.getFilterModel().isEmpty())) {
-      Map<String, ColumnFilter> filters = filterRequestDto.getFilterModel();
-      for (String key : filters.keySet()) {
-        addCriteria(filters.get(key), key, criterias);
+    INDEX_PROVISIONING.submit(() -> new IndexProvisioner(mongo, meta).provision(mode)).whenComplete((plans, ex) -> {
+      if (ex != null) {
+        log.warn("Index provisioning failed for {}: {}", meta.getClassType().getSimpleName(), ex.getMessage());
+        return;
       }
-    }
+      plans.stream().filter(plan -> !plan.isExists()).forEach(plan -> log.info("{} index {} on {} ({})",
+        plan.isCreated() ? "Created" : "Missing", plan.getKeys(), plan.getCollection(), plan.getReason()));
+    });
+  }
 
-    if (!criterias.isEmpty()) {
-      return new Criteria().andOperator(criterias.toArray(new Criteria[criterias.size()]));
+  @PostConstruct
+  public void watchChanges() {
+    if (changeStreamListener != null && metaData().isWatchChanges()) {
+      changeStreamListener.register(mongo.getCollectionName(metaData().getClassType()), this::onEntityChanged);
     }
-    return new Criteria();
   }
 
-  private void addCriteria(ColumnFilter filter, String key, List<Criteria> criterias) {
-    if (filter instanceof SetColumnFilter) {
-      addSetFilter(criterias, key, (SetColumnFilter) filter);
-    } else if (filter instanceof NumberColumnFilter) {
-      addNumberFilter(criterias, key, (NumberColumnFilter) filter);
-    } else if (filter instanceof BooleanColumnFilter) {
-      addBooleanFilter(criterias, key, (BooleanColumnFilter) filter);
-    } else if (filter instanceof DateColumnFilter) {
-      addDateFilter(criterias, key, (DateColumnFilter) filter);
-    } else if (filter instanceof SearchColumnFilter) {
-      addSearchCriteria(((SearchColumnFilter) filter).getFilter(), criterias);
-    } else if (filter instanceof ExactMatchColumnFilter) {
-      addExactMatchCriteria(criterias, key, (ExactMatchColumnFilter) filter);
+  protected void onEntityChanged(EntityChangedEvent event) {
+    invalidateFilterCache();
+    EntityCache cache = entityCache();
+    if (cache == null) {
+      return;
+    }
+    if (event.isCollectionWide()) {
+      cache.clear();
+    } else {
+      cache.invalidate(event.getEntityId());
     }
   }
 
-  private void addSetFilter(List<Criteria> criterias, String key, SetColumnFilter filter) {
-    if (!CollectionUtils.isEmpty(filter.getValues())) {
-      int i = 0;
-      List<String> values = filter.getValues();
-      int size = values.size();
-      Object[] array = new String[size];
+  protected EntityCache entityCache() {
+    if (entityCache == null) {
+      CacheConfig config = metaData().getCache();
+      if (config == null) {
+        return null;
+      }
+      synchronized (this) {
+        if (entityCache == null) {
+          entityCache = new EntityCache(config);
+          registerEntityCache(entityCache);
+        }
+      }
+    }
+    return entityCache;
+  }
 
-      long count = values.stream().filter(val -> StringUtils.isEmpty(val) || val.equals(AppConstants.BLANK_STRING))
-        .count();
-      if (count > 0) {
-        array = new String[size + 1];
-        array[i++] = "";
+  protected CoalescingLoader<Document> idLoader() {
+    if (idLoader == null) {
+      LoaderConfig config = metaData().getLoader();
+      if (config == null) {
+        return null;
       }
+      synchronized (this) {
+        if (idLoader == null) {
+          idLoader = new CoalescingLoader<>(metaData().getClassType().getSimpleName() + "-id", config,
+            ids -> toDocuments(findByIds(ids, mongo)));
+        }
+      }
+    }
+    return idLoader;
+  }
 
-      for (String val : values) {
-        array[i++] = StringUtils.isEmpty(val) || val.equals(AppConstants.BLANK_STRING) ? null : val;
+  protected CoalescingLoader<Document> slugLoader() {
+    if (slugLoader == null) {
+      LoaderConfig config = metaData().getLoader();
+      if (config == null) {
+        return null;
+      }
+      synchronized (this) {
+        if (slugLoader == null) {
+          slugLoader = new CoalescingLoader<>(metaData().getClassType().getSimpleName() + "-slug", config,
+            slugs -> toDocuments(findBySlugs(slugs, mongo)));
+        }
       }
-      criterias.add(setKeyCriteria(key).in(array));
     }
+    return slugLoader;
   }
 
-  private void addNumberFilter(List<Criteria> criterias, String key, NumberColumnFilter numberFilter) {
-    Criteria criteria = setKeyCriteria(key);
-    if (!StringUtils.isEmpty(numberFilter.getType())) {
-      numberCriteria(numberFilter.getType(), numberFilter.getFilter(), numberFilter.getFilterTo(), criteria);
-    } else {
-      Criteria criteria1 = setKeyCriteria(key);
-      Criteria criteria2 = setKeyCriteria(key);
-      numberCriteria(numberFilter.getCondition1().getType(), numberFilter.getCondition1().getFilter(),
-        numberFilter.getCondition1().getFilterTo(), criteria1);
-      numberCriteria(numberFilter.getCondition2().getType(), numberFilter.getCondition2().getFilter(),
-        numberFilter.getCondition2().getFilterTo(), criteria2);
-      if (AppConstants.AND_OPERATOR.equals(numberFilter.getOperator())) {
-        criteria = new Criteria().andOperator(criteria1, criteria2);
+  @PreDestroy
+  public void closeLoaders() {
+    if (idLoader != null) {
+      idLoader.close();
+    }
+    if (slugLoader != null) {
+      slugLoader.close();
+    }
+  }
+
+  protected SingleFlightCache<Page<Document>> filterCache() {
+    if (filterCache == null) {
+      FilterCacheConfig config = metaData().getFilterCache();
+      if (config == null) {
+        return null;
       }
-      if (AppConstants.OR_OPERATOR.equals(numberFilter.getOperator())) {
-        criteria = new Criteria().orOperator(criteria1, criteria2);
+      synchronized (this) {
+        if (filterCache == null) {
+          filterCache = new SingleFlightCache<>(config, filterCacheGeneration());
+        }
       }
     }
-    criterias.add(criteria);
+    return filterCache;
   }
 
-  private void numberCriteria(String type, Integer filter, Integer filterTo, Criteria criteria) {
-    switch (type) {
-    case AppConstants.EQUALS:
-      criteria.is(filter);
-      break;
+  // Services without a filter cache of their own still bump the generation for the caching services of the collection
+  protected void invalidateFilterCache() {
+    SingleFlightCache<Page<Document>> cache = filterCache();
+    if (cache != null) {
+      cache.invalidateAll();
+    } else {
+      filterCacheGeneration().incrementAndGet();
+    }
+  }
 
-    case AppConstants.NOT_EQUAL:
-      criteria.ne(filter);
-      break;
+  protected String filterKey(FilterRequestDto filterRequestDto) {
+    try {
+      return FILTER_KEY_MAPPER.writeValueAsString(filterRequestDto);
+    } catch (JsonProcessingException e) {
+      log.warn("Could not build a cache key for the filter request. {}", e.getMessage());
+      return null;
+    }
+  }
+
+  protected void evictFromCache(String id) {
+    evictFromCache(id == null ? Collections.<String>emptyList() : Collections.singletonList(id));
+  }
 
-    case AppConstants.LESS_THAN:
-      criteria.lt(filter);
-      break;
+  protected void evictFromCache(Collection<String> ids) {
+    invalidateFilterCache();
+    invalidateEntityCaches(ids);
+  }
+
+  private MultiGetResult<T> findByIds(Collection<String> ids, MongoOperations reader) {
+    return findByKeys(ids, ID, AbstractMongoEntity::getId, this::fromCache, reader);
+  }
 
-    case AppConstants.LESS_THAN_OR_EQUAL:
-      criteria.lte(filter);
-      break;
+  private MultiGetResult<T> findBySlugs(Collection<String> slugs, MongoOperations reader) {
+    return findByKeys(slugs, SLUG, AbstractMongoEntity::getSlug, slug -> {
+      EntityCache cache = entityCache();
+      String id = cache == null ? null : cache.idForSlug(slug);
+      return id == null ? null : fromCache(id);
+    }, reader);
+  }
 
-    case AppConstants.GREATER_THAN:
-      criteria.gt(filter);
-      break;
+  // Only reads from the primary fill the entity cache, a secondary may lag behind a write that already evicted the
+  // entry. The loaders behind findOne and findBySlug therefore always read from the primary.
+  private MultiGetResult<T> findByKeys(Collection<String> keys, String field, Function<T, String> keyOf,
+    Function<String, T> cached, MongoOperations reader) {
+    Map<String, T> found = new HashMap<>();
+    List<String> toFetch = new ArrayList<>();
+    Set<String> unique = new LinkedHashSet<>(keys);
+    unique.remove(null);
+    for (String key : unique) {
+      T entity = cached.apply(key);
+      if (entity != null) {
+        found.put(key, entity);
+      } else {
+        toFetch.add(key);
+      }
+    }
 
-    case AppConstants.GREATER_THAN_OR_EQUAL:
-      criteria.gte(filter);
-      break;
+    Class<T> classType = metaData().getClassType();
+    long generation = cacheGeneration();
+    for (List<String> chunk : Lists.partition(toFetch, multiGetChunkSize())) {
+      Query query = new Query(withInheritance(new Criteria(field).in(chunk)));
+      for (T entity : reader.find(query, classType)) {
+        found.put(keyOf.apply(entity), reader == mongo ? cache(entity, generation) : entity);
+      }
+    }
 
-    case AppConstants.IN_RANGE:
-      criteria.lte(filterTo).gte(filter);
-      break;
+    Map<String, T> data = new LinkedHashMap<>();
+    List<String> missing = new ArrayList<>();
+    for (String key : unique) {
+      T entity = found.get(key);
+      if (entity == null) {
+        missing.add(key);
+      } else {
+        data.put(key, entity);
+      }
     }
+    return MultiGetResult.<T>builder().data(data).missing(missing).build();
   }
 
-  private void addBooleanFilter(List<Criteria> criterias, String key, BooleanColumnFilter filter) {
-    criterias.add(setKeyCriteria(key).is(filter.getValue()));
+  private void adviseIndex(Criteria criteria, Sort sort, int limit, long elapsedMillis) {
+    if (indexAdvisor != null && indexAdvisor.isSampled(elapsedMillis)) {
+      indexAdvisor.record(mongo.getCollectionName(metaData().getClassType()), mappedQuery(criteria),
+        mappedSort(sort), limit, elapsedMillis);
+    }
   }
 
-  private void addDateFilter(List<Criteria> criterias, String key, DateColumnFilter filter) {
-    Criteria criteria = setKeyCriteria(key);
-    criteria = dateCriteria(filter.getType(), filter.getFilter(), filter.getFilterTo(), criteria);
-    criterias.add(criteria);
+  protected MongoCollection<Document> collection() {
+    return mongo.getCollection(mongo.getCollectionName(metaData().getClassType()));
   }
 
-  private Criteria dateCriteria(String type, Long filter, Long filterTo, Criteria criteria2) {
-    Criteria criteria = new Criteria(criteria2.getKey());
-    switch (type) {
-    case AppConstants.EQUALS:
-      criteria.lte(DateUtil.instance().build().endOfDay(filter)).gte(DateUtil.instance().build().startOfDay(filter));
-      break;
+  protected MongoCollection<Document> readCollection(ReadOperation operation) {
+    MongoCollection<Document> collection = collection();
+    ReadPreference readPreference = readRouter().preference(operation);
+    return readPreference == null ? collection : collection.withReadPreference(readPreference);
+  }
 
-    case AppConstants.NOT_EQUAL:
-      return new Criteria().orOperator(
-        new Criteria(criteria2.getKey()).lt(DateUtil.instance().build().startOfDay(filter)),
-        new Criteria(criteria2.getKey()).gt(DateUtil.instance().build().endOfDay(filter)));
+  protected Document groupStage(List<ColumnModel> groupCols, List<ColumnModel> valueCols) {
+    Document id = null;
+    if (!groupCols.isEmpty()) {
+      id = new Document();
+      for (int i = 0; i < groupCols.size(); i++) {
+        id.append(GROUP_KEY + i, "$" + groupCols.get(i).getField());
+      }
+    }
+    Document group = new Document(_ID, id).append(CHILD_COUNT, new Document("$sum", 1));
+    for (int i = 0; i < valueCols.size(); i++) {
+      group.append(VALUE_KEY + i, accumulator(valueCols.get(i)));
+    }
+    return group;
+  }
 
-    case AppConstants.LESS_THAN:
-      criteria.lt(DateUtil.instance().build().startOfDay(filter));
-      break;
+  protected Document groupSort(List<ColumnModel> groupCols) {
+    Document sort = new Document();
+    for (int i = 0; i < groupCols.size(); i++) {
+      sort.append(_ID + "." + GROUP_KEY + i, 1);
+    }
+    return sort;
+  }
+
+  protected Map<String, Object> groupRow(Document result, List<ColumnModel> groupCols, List<ColumnModel> valueCols) {
+    Map<String, Object> row = new LinkedHashMap<>();
+    Document id = result.get(_ID, Document.class);
+    for (int i = 0; i < groupCols.size(); i++) {
+      row.put(groupCols.get(i).getField(), id == null ? null : id.get(GROUP_KEY + i));
+    }
+    for (int i = 0; i < valueCols.size(); i++) {
+      row.put(valueCols.get(i).getField(), result.get(VALUE_KEY + i));
+    }
+    row.put(CHILD_COUNT, result.get(CHILD_COUNT));
+    return row;
+  }
+
+  protected void checkAggregation(List<ColumnModel> groupCols, List<ColumnModel> valueCols, MetaData<T> meta) {
+    Map<String, FieldDto> fields = new HashMap<>();
+    if (meta.getFields() != null) {
+      meta.getFields().forEach(field -> fields.put(field.getName(), field));
+    }
+    for (ColumnModel column : groupCols) {
+      if (!fields.containsKey(column.getField())) {
+        throw aggregationException(column);
+      }
+    }
+    for (ColumnModel column : valueCols) {
+      FieldDto field = fields.get(column.getField());
+      if (field == null || !field.isAggregationAllowed() || column.getAggFunc() == null) {
+        throw aggregationException(column);
+      }
+    }
+  }
 
-    case AppConstants.LESS_THAN_OR_EQUAL:
-      criteria.lte(DateUtil.instance().build().endOfDay(filter));
-      break;
+  private BaseRuntimeException aggregationException(ColumnModel column) {
+    return BaseRuntimeException.builder().httpStatus(HttpStatus.BAD_REQUEST)
+      .error("Aggregation is not allowed on " + column.getField()).build();
+  }
+
+  private Document accumulator(ColumnModel column) {
+    String field = "$" + column.getField();
+    switch (column.getAggFunc()) {
+    case AVG:
+      return new Document("$avg", field);
 
-    case AppConstants.GREATER_THAN:
-      criteria.gt(DateUtil.instance().build().endOfDay(filter));
-      break;
+    case MIN:
+      return new Document("$min", field);
 
-    case AppConstants.GREATER_THAN_OR_EQUAL:
-      criteria.gte(DateUtil.instance().build().startOfDay(filter));
-      break;
+    case MAX:
+      return new Document("$max", field);
 
-    case AppConstants.IN_RANGE:
-      criteria.lte(DateUtil.instance().build().endOfDay(filterTo)).gte(DateUtil.instance().build().startOfDay(filter));
-      break;
+    case COUNT:
+      Document present = new Document("$gt", Arrays.asList(field, null));
+      return new Document("$sum", new Document("$cond", Arrays.asList(present, 1, 0)));
+
+    default:
+      return new Document("$sum", field);
     }
-    return criteria;
   }
 
-  private void addSearchCriteria(String searchKey, List<Criteria> criterias) {
-    List<Criteria> searchCriteria = Lists.newArrayList();
-    String quote = Pattern.quote(searchKey);
-
-    List<FieldDto> fields = metaData().getFields();
+  private int groupPageSize(FilterRequestDto filterRequestDto) {
+    int size = filterRequestDto.getSize();
+    return size > 0 ? Math.min(size, maxGroupPageSize()) : maxGroupPageSize();
+  }
 
-    if (CollectionUtils.isEmpty(fields)) {
-      return;
+  private int groupDirection(ColumnModel groupCol, FilterRequestDto filterRequestDto) {
+    if (filterRequestDto.getSortModel() != null) {
+      for (SortModel sortModel : filterRequestDto.getSortModel()) {
+        if (groupCol.getField().equals(sortModel.getColId()) && Direction.DESC.equals(sortModel.getSort())) {
+          return -1;
+        }
+      }
     }
+    return 1;
+  }
+
+  private <E> List<E> columns(List<E> columns) {
+    return columns == null ? Collections.emptyList() : columns;
+  }
 
-    if (!fields.contains(FieldDto.builder().name(SLUG).build())) {
-      searchCriteria.add(setKeyCriteria(SLUG).regex(quote, IGNORE_CASE_FLAG));
+  private Stream<T> stream(Query query) {
+    query.cursorBatchSize(streamBatchSize());
+    if (streamNoCursorTimeout()) {
+      query.noCursorTimeout();
     }
-    for (FieldDto field : fields) {
-      if (field.getDataType().isSearchable()) {
-        Criteria criteria = setKeyCriteria(field.getName()).regex(quote, IGNORE_CASE_FLAG);
-        searchCriteria.add(criteria);
+    CloseableIterator<T> iterator = readRouter().route(ReadOperation.STREAM).stream(query,
+      metaData().getClassType());
+    return StreamUtils.createStreamFromIterator(new AutoClosingIterator<>(iterator));
+  }
+
+  private Map<String, Document> toDocuments(MultiGetResult<T> result) {
+    Map<String, Document> documents = new HashMap<>();
+    result.getData().forEach((key, entity) -> documents.put(key, toDocument(entity)));
+    return documents;
+  }
+
+  private T load(CoalescingLoader<Document> loader, String key) {
+    try {
+      Document document = loader.load(key).get(metaData().getLoader().getTimeoutMillis(), TimeUnit.MILLISECONDS);
+      return document == null ? null : toEntity(document);
+    } catch (TimeoutException e) {
+      throw BaseRuntimeException.builder().httpStatus(HttpStatus.SERVICE_UNAVAILABLE)
+        .error("Timed out loading " + metaData().getClassType().getSimpleName() + " " + key).build();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw BaseRuntimeException.builder().error(e.getMessage()).build();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
       }
+      throw BaseRuntimeException.builder().error(e.getCause().getMessage()).build();
     }
-    if (!searchCriteria.isEmpty()) {
-      criterias.add(new Criteria().orOperator(searchCriteria.toArray(new Criteria[searchCriteria.size()])));
-    }
+  }
 
+  private T fromCache(String id) {
+    EntityCache cache = entityCache();
+    if (cache == null) {
+      return null;
+    }
+    Document document = cache.get(id);
+    return document == null ? null : toEntity(document);
   }
 
-  private void addExactMatchCriteria(List<Criteria> criterias, String key, ExactMatchColumnFilter filter) {
-    criterias.add(setKeyCriteria(key).is(filter.getFilter()));
+  private T findOneBy(String field, String value) {
+    return mongo.findOne(new Query(withInheritance(new Criteria(field).is(value))), metaData().getClassType());
   }
 
-  private Criteria setKeyCriteria(String key) {
-    return Criteria.where(key);
+  private long cacheGeneration() {
+    EntityCache cache = entityCache();
+    return cache == null ? 0 : cache.generation();
   }
 
-  private void checkFilterRequestDto(FilterRequestDto filterRequestDto) {
-    if (filterRequestDto == null) {
-      throw BaseRuntimeException.builder().error("page number and page size can't be null")
-        .httpStatus(HttpStatus.BAD_REQUEST).build();
+  // Skipped when the cache was invalidated while the entity was being read, so a concurrent write is not undone
+  private T cache(T entity, long generation) {
+    EntityCache cache = entityCache();
+    if (cache != null) {
+      cache.put(entity.getId(), entity.getSlug(), toDocument(entity), generation);
     }
+    return entity;
+  }
+
+  private CellProcessor[] cellProcessors(List<FieldDto> fields) {
+    Map<String, CellProcessor> map = exportCellProcessors(fields);
+    return CellProcessorUtil.exportProcessors(fields, map);
+  }
+
+  protected void writeHeader(ICsvDozerBeanWriter beanWriter, List<FieldDto> fields, String[] mappings,
+    Locale locale) throws IOException {
+    beanWriter.writeHeader(FieldMappingUtil.createHeaders(mappings, fields, locale));
+  }
+
+  protected Pageable pageable(int page, int size) {
+    validatePageAndSize(page, size);
+    Pageable pageable = PageRequest.of(page, size);
+    return pageable;
+  }
+
+  protected Criteria buildCriteria(FilterRequestDto filterRequestDto, MetaData<T> meta) {
+    return FilterCriteriaUtil.buildCriteria(filterRequestDto, meta);
   }
 }
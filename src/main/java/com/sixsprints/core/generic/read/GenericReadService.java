@@ -2,14 +2,20 @@ package com.sixsprints.core.generic.read;
 
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import com.sixsprints.core.domain.AbstractMongoEntity;
+import com.sixsprints.core.dto.CacheStats;
 import com.sixsprints.core.dto.FilterRequestDto;
+import com.sixsprints.core.dto.IndexPlan;
+import com.sixsprints.core.dto.MultiGetResult;
 import com.sixsprints.core.exception.BaseException;
 import com.sixsprints.core.exception.EntityNotFoundException;
 import com.sixsprints.core.transformer.GenericTransformer;
@@ -32,6 +38,10 @@ public interface GenericReadService<T extends AbstractMongoEntity> {
 
   T findBySlug(String slug) throws EntityNotFoundException;
 
+  MultiGetResult<T> findByIds(Collection<String> ids);
+
+  MultiGetResult<T> findBySlugs(Collection<String> slugs);
+
   Page<T> findAllLike(T example, Pageable page);
 
   List<T> findAllLike(T example);
@@ -42,10 +52,28 @@ public interface GenericReadService<T extends AbstractMongoEntity> {
   
   List<T> filterAll(FilterRequestDto filters);
 
+  Stream<T> streamAll();
+
+  Stream<T> streamActive();
+
+  Stream<T> streamAll(FilterRequestDto filters);
+
+  List<Map<String, Object>> aggregate(FilterRequestDto filters);
+
+  Page<Map<String, Object>> filterGroups(FilterRequestDto filters);
+
+  boolean isGroupLevel(FilterRequestDto filters);
+
   List<String> distinctColumnValues(String column, FilterRequestDto filterRequestDto);
 
   <E> void exportData(GenericTransformer<T, E> transformer,
     FilterRequestDto filterRequestDto, PrintWriter writer, Locale locale)
     throws IOException, BaseException;
 
+  CacheStats cacheStats();
+
+  Map<String, Long> readRoutingStats();
+
+  List<IndexPlan> indexReport();
+
 }
@@ -0,0 +1,155 @@
+package com.sixsprints.core.generic.read;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+import com.sixsprints.core.dto.FieldDto;
+import com.sixsprints.core.dto.IndexPlan;
+import com.sixsprints.core.dto.MetaData;
+import com.sixsprints.core.enums.DataType;
+import com.sixsprints.core.enums.IndexMode;
+import com.sixsprints.core.utils.AppConstants;
+import com.sixsprints.core.utils.Subclass;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+public class IndexProvisioner {
+
+  private static final String ACTIVE = "active";
+
+  private final MongoOperations mongo;
+
+  private final MetaData<?> meta;
+
+  public IndexProvisioner(MongoOperations mongo, MetaData<?> meta) {
+    this.mongo = mongo;
+    this.meta = meta;
+  }
+
+  public List<IndexPlan> provision(IndexMode mode) {
+    List<IndexPlan> plans = plan();
+    if (!IndexMode.CREATE.equals(mode)) {
+      return plans;
+    }
+    IndexOperations indexOps = mongo.indexOps(meta.getClassType());
+    for (IndexPlan plan : plans) {
+      if (plan.isExists()) {
+        continue;
+      }
+      Index index = new Index().background();
+      plan.getKeys().forEach((key, direction) -> index.on(key, direction < 0 ? Direction.DESC : Direction.ASC));
+      try {
+        indexOps.ensureIndex(index);
+        plan.setCreated(true);
+      } catch (RuntimeException ex) {
+        log.warn("Unable to create index {} on {}: {}", plan.getKeys(), plan.getCollection(), ex.getMessage());
+      }
+    }
+    return plans;
+  }
+
+  public List<IndexPlan> plan() {
+    String collection = mongo.getCollectionName(meta.getClassType());
+    List<List<IndexField>> existing = mongo.indexOps(meta.getClassType()).getIndexInfo().stream()
+      .map(IndexInfo::getIndexFields).collect(Collectors.toList());
+    List<IndexPlan> plans = new ArrayList<>();
+    int missing = 0;
+    for (Map.Entry<String, LinkedHashMap<String, Integer>> required : requiredIndexes().entrySet()) {
+      LinkedHashMap<String, Integer> keys = required.getValue();
+      if (plans.stream().anyMatch(plan -> plan.getKeys().equals(keys))) {
+        continue;
+      }
+      boolean exists = existing.stream().anyMatch(fields -> covers(fields, keys));
+      if (!exists && ++missing > meta.getMaxPlannedIndexes()) {
+        log.info("Skipping index {} on {}: more than {} missing indexes planned", keys, collection,
+          meta.getMaxPlannedIndexes());
+        continue;
+      }
+      plans.add(IndexPlan.builder().collection(collection).keys(keys).reason(required.getKey()).exists(exists)
+        .build());
+    }
+    return plans;
+  }
+
+  // Equality keys go first, then the default sort, following the equality-sort-range rule.
+  protected Map<String, LinkedHashMap<String, Integer>> requiredIndexes() {
+    Map<String, LinkedHashMap<String, Integer>> required = new LinkedHashMap<>();
+    Sort defaultSort = meta.getDefaultSort();
+    LinkedHashMap<String, Integer> active = discriminator();
+    active.put(ACTIVE, 1);
+    required.put(ACTIVE, active);
+    if (defaultSort != null && defaultSort.isSorted()) {
+      required.put("defaultSort", withSort(discriminator(), defaultSort));
+    }
+    if (meta.getFields() == null) {
+      return required;
+    }
+    for (FieldDto field : meta.getFields()) {
+      if (field.getName() == null || field.getDataType() == null) {
+        continue;
+      }
+      LinkedHashMap<String, Integer> keys = discriminator();
+      if (isSetColumn(field.getDataType())) {
+        keys.put(field.getName(), 1);
+        required.put("set:" + field.getName(),
+          defaultSort == null ? keys : withSort(keys, defaultSort));
+      } else if (DataType.DATE.equals(field.getDataType())) {
+        keys.put(field.getName(), -1);
+        required.put("date:" + field.getName(), keys);
+      }
+    }
+    return required;
+  }
+
+  // Booleans are left out: an index on two values rarely beats the collection scan it replaces
+  protected boolean isSetColumn(DataType dataType) {
+    return DataType.SELECT.equals(dataType) || DataType.ENUM.equals(dataType);
+  }
+
+  private LinkedHashMap<String, Integer> discriminator() {
+    LinkedHashMap<String, Integer> keys = new LinkedHashMap<>();
+    if (meta.getClassType().isAnnotationPresent(Subclass.class)) {
+      keys.put(AppConstants.INHERITANCE_CRITERIA, 1);
+    }
+    return keys;
+  }
+
+  private LinkedHashMap<String, Integer> withSort(LinkedHashMap<String, Integer> keys, Sort sort) {
+    for (Sort.Order order : sort) {
+      keys.putIfAbsent(order.getProperty(), order.isAscending() ? 1 : -1);
+    }
+    return keys;
+  }
+
+  // An existing index serves the required one when the required keys are a prefix of it, in order and direction.
+  private boolean covers(List<IndexField> fields, LinkedHashMap<String, Integer> keys) {
+    if (fields.size() < keys.size()) {
+      return false;
+    }
+    int i = 0;
+    for (Map.Entry<String, Integer> key : keys.entrySet()) {
+      IndexField field = fields.get(i++);
+      if (!field.getKey().equals(key.getKey()) || field.getDirection() == null) {
+        return false;
+      }
+      boolean ascending = Direction.ASC.equals(field.getDirection());
+      if (ascending != key.getValue() > 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+}
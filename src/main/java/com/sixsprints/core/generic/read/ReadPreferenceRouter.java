@@ -0,0 +1,70 @@
+package com.sixsprints.core.generic.read;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.mongodb.ReadPreference;
+import com.sixsprints.core.enums.ReadOperation;
+import com.sixsprints.core.monitoring.ServiceMetrics;
+
+public class ReadPreferenceRouter {
+
+  private static final String PRIMARY = "primary";
+
+  private final MongoOperations primary;
+
+  private final Map<ReadOperation, ReadPreference> preferences;
+
+  private final ApplicationContext applicationContext;
+
+  private final ServiceMetrics metrics;
+
+  private final Map<ReadPreference, MongoTemplate> templates = new ConcurrentHashMap<>();
+
+  public ReadPreferenceRouter(MongoOperations primary, Map<ReadOperation, ReadPreference> preferences,
+    ApplicationContext applicationContext, ServiceMetrics metrics) {
+    this.primary = primary;
+    this.preferences = preferences == null ? Collections.emptyMap() : preferences;
+    this.applicationContext = applicationContext;
+    this.metrics = metrics;
+  }
+
+  public MongoOperations route(ReadOperation operation) {
+    ReadPreference preference = preference(operation);
+    if (preference == null) {
+      return primary;
+    }
+    return templates.computeIfAbsent(preference, this::template);
+  }
+
+  public ReadPreference preference(ReadOperation operation) {
+    ReadPreference preference = preferences.get(operation);
+    if (preference == null || ReadPreference.primary().equals(preference) || !(primary instanceof MongoTemplate)) {
+      metrics.routed(operation.name(), PRIMARY);
+      return null;
+    }
+    metrics.routed(operation.name(), preference.getName());
+    return preference;
+  }
+
+  public Map<String, Long> stats() {
+    return metrics.routes();
+  }
+
+  // The copy needs the context too, or mapping events and entity callbacks (auditing, listeners) are skipped
+  private MongoTemplate template(ReadPreference preference) {
+    MongoTemplate source = (MongoTemplate) primary;
+    MongoTemplate template = new MongoTemplate(source.getMongoDbFactory(), source.getConverter());
+    if (applicationContext != null) {
+      template.setApplicationContext(applicationContext);
+    }
+    template.setReadPreference(preference);
+    return template;
+  }
+
+}
@@ -6,18 +6,23 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.util.List;
 
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.util.CollectionUtils;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.sixsprints.core.domain.AbstractMongoEntity;
 import com.sixsprints.core.dto.BulkUpdateInfo;
+import com.sixsprints.core.enums.HookType;
 import com.sixsprints.core.enums.UpdateAction;
 import com.sixsprints.core.exception.EntityAlreadyExistsException;
 import com.sixsprints.core.exception.EntityInvalidException;
 import com.sixsprints.core.exception.EntityNotFoundException;
 import com.sixsprints.core.generic.create.AbstractCreateService;
 import com.sixsprints.core.utils.BeanWrapperUtil;
+import com.sixsprints.core.utils.ContentHashUtil;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -25,6 +30,11 @@ import lombok.extern.slf4j.Slf4j;
 public abstract class AbstractUpdateService<T extends AbstractMongoEntity> extends AbstractCreateService<T>
   implements GenericUpdateService<T> {
 
+  private static final String ID = "id";
+
+  private static final String[] ENTITY_FIELDS = { ID, "slug", "sequence", "active", "dateCreated", "dateModified",
+      "createdBy", "lastModifiedBy", ContentHashUtil.HASH };
+
   @Override
   public T update(String id, T domain) throws EntityNotFoundException, EntityAlreadyExistsException {
     T entity = findOne(id);
@@ -44,34 +54,76 @@ public abstract class AbstractUpdateService<T extends AbstractMongoEntity> exten
 
   @Override
   public List<BulkUpdateInfo<T>> updateAll(List<T> list) {
-    List<BulkUpdateInfo<T>> updateInfo = Lists.newArrayList();
-    if (CollectionUtils.isEmpty(list)) {
+    return metrics().time("updateAll", () -> {
+      List<BulkUpdateInfo<T>> updateInfo = Lists.newArrayList();
+      if (CollectionUtils.isEmpty(list)) {
+        return updateInfo;
+      }
+      for (List<T> chunk : Lists.partition(list, bulkChunkSize())) {
+        updateInfo.addAll(inHookTransaction(() -> {
+          List<BulkUpdateInfo<T>> chunkInfo = Lists.newArrayList();
+          try {
+            for (T domain : chunk) {
+              chunkInfo.add(writeWhileBulkImport(domain));
+            }
+          } catch (RuntimeException ex) {
+            // Rows written before the failure stay written, so they still get their post hooks
+            try {
+              postBulkImport(chunkInfo);
+            } catch (RuntimeException hookEx) {
+              ex.addSuppressed(hookEx);
+            }
+            throw ex;
+          }
+          postBulkImport(chunkInfo);
+          return chunkInfo;
+        }));
+      }
       return updateInfo;
-    }
-    for (T domain : list) {
-      updateInfo.add(saveOneWhileBulkImport(domain));
-    }
-    return updateInfo;
+    });
   }
 
   @Override
   public T saveOrUpdate(T domain) throws EntityInvalidException {
-    BulkUpdateInfo<T> updateInfo = saveOneWhileBulkImport(domain);
-    if (UpdateAction.INVALID.equals(updateInfo.getUpdateAction())) {
-      throw invalidException(domain);
-    }
-    return updateInfo.getData();
+    return metrics().time("saveOrUpdate", () -> {
+      BulkUpdateInfo<T> updateInfo = saveOneWhileBulkImport(domain);
+      if (UpdateAction.INVALID.equals(updateInfo.getUpdateAction())) {
+        throw invalidException(domain);
+      }
+      return updateInfo.getData();
+    });
   }
 
   protected BulkUpdateInfo<T> saveOneWhileBulkImport(T domain) {
-    if (isInvalid(domain)) {
-      return bulkImportInfo(null, UpdateAction.INVALID);
-    }
-    return saveOrOverwrite(domain);
+    return inHookTransaction(() -> {
+      BulkUpdateInfo<T> updateInfo = writeWhileBulkImport(domain);
+      postBulkImport(ImmutableList.of(updateInfo));
+      return updateInfo;
+    });
   }
 
+  // With content hashes the duplicate is probed for its entity fields only. The full document is then read by _id
+  // only when it is needed: to merge a partial row into it, or to compare against a document without a hash.
   protected BulkUpdateInfo<T> saveOrOverwrite(T domain) {
-    T fromDb = findDuplicate(domain);
+    Criteria duplicateCriteria = metaData().isContentHash() ? duplicateCriteria(domain) : null;
+    T fromDb;
+    if (duplicateCriteria != null) {
+      T existing = findDuplicateEntityFields(duplicateCriteria);
+      if (existing == null) {
+        return createWhileBulkImport(domain);
+      }
+      if (isUnchanged(domain, existing)) {
+        domain.copyEntityFrom(existing);
+        domain.setHash(existing.getHash());
+        return bulkImportInfo(domain, UpdateAction.IGNORE);
+      }
+      if (isOverwrite(existing)) {
+        return overwrite(domain, existing);
+      }
+      fromDb = mongo.findById(existing.getId(), metaData().getClassType());
+    } else {
+      fromDb = findDuplicate(domain);
+    }
     if (fromDb != null) {
       if (!fromDb.getActive()) {
         delete(fromDb);
@@ -88,21 +140,78 @@ public abstract class AbstractUpdateService<T extends AbstractMongoEntity> exten
         }
 
         if (checkEquals(fromDb, copy)) {
+          backfillHashIfRequired(fromDb);
           return bulkImportInfo(fromDb, UpdateAction.IGNORE);
         }
 
         preUpdate(fromDb);
-        fromDb = save(fromDb);
-        postUpdate(fromDb);
+        fromDb = persist(fromDb);
         return bulkImportInfo(fromDb, UpdateAction.UPDATE);
       }
     }
+    return createWhileBulkImport(domain);
+  }
+
+  private BulkUpdateInfo<T> writeWhileBulkImport(T domain) {
+    if (isInvalid(domain)) {
+      return bulkImportInfo(null, UpdateAction.INVALID);
+    }
+    return saveOrOverwrite(domain);
+  }
+
+  private void postBulkImport(List<BulkUpdateInfo<T>> updateInfo) {
+    metrics().bulk(updateInfo);
+    List<T> saved = dataWithAction(updateInfo, UpdateAction.CREATE, UpdateAction.UPDATE);
+    if (saved.isEmpty()) {
+      return;
+    }
+    firePostHooks(HookType.POST_SAVE, saved);
+    firePostHooks(HookType.POST_UPDATE, dataWithAction(updateInfo, UpdateAction.UPDATE));
+    firePostHooks(HookType.POST_CREATE, dataWithAction(updateInfo, UpdateAction.CREATE));
+  }
+
+  private BulkUpdateInfo<T> createWhileBulkImport(T domain) {
     preCreate(domain);
-    domain = save(domain);
-    postCreate(domain);
+    domain = persist(domain);
     return bulkImportInfo(domain, UpdateAction.CREATE);
   }
 
+  private T findDuplicateEntityFields(Criteria duplicateCriteria) {
+    Query query = new Query(duplicateCriteria);
+    for (String field : ENTITY_FIELDS) {
+      query.fields().include(field);
+    }
+    return mongo.findOne(query, metaData().getClassType());
+  }
+
+  // The hash already differs and the row replaces the stored document as a whole, so its content is not needed
+  private boolean isOverwrite(T existing) {
+    return Boolean.TRUE.equals(existing.getActive()) && existing.getHash() != null
+      && !metaData().isIgnoreNullWhileBulkUpdate();
+  }
+
+  private BulkUpdateInfo<T> overwrite(T domain, T existing) {
+    Boolean active = domain.getActive();
+    domain.copyEntityFrom(existing);
+    domain.setActive(active);
+    preUpdate(domain);
+    return bulkImportInfo(persist(domain), UpdateAction.UPDATE);
+  }
+
+  private boolean isUnchanged(T domain, T existing) {
+    return Boolean.TRUE.equals(existing.getActive()) && !Boolean.FALSE.equals(domain.getActive())
+      && existing.getHash() != null && existing.getHash().equals(contentHash(domain));
+  }
+
+  private void backfillHashIfRequired(T fromDb) {
+    if (metaData().isContentHash() && fromDb.getHash() == null) {
+      fromDb.setHash(contentHash(fromDb));
+      mongo.updateFirst(new Query(new Criteria(ID).is(fromDb.getId())),
+        new Update().set(ContentHashUtil.HASH, fromDb.getHash()), metaData().getClassType());
+      evictFromCache(fromDb.getId());
+    }
+  }
+
   @SuppressWarnings("unchecked")
   protected T clone(T domain) {
     try {
@@ -131,21 +240,21 @@ public abstract class AbstractUpdateService<T extends AbstractMongoEntity> exten
   }
 
   private T update(T domain) throws EntityAlreadyExistsException {
-    T fromDB = findDuplicate(domain);
-    if (fromDB != null && !domain.getId().equals(fromDB.getId())) {
-      if (fromDB.getActive()) {
-        throw alreadyExistsException(fromDB);
+    return metrics().time("update", () -> {
+      T fromDB = findDuplicate(domain);
+      if (fromDB != null && !domain.getId().equals(fromDB.getId())) {
+        if (fromDB.getActive()) {
+          throw alreadyExistsException(fromDB);
+        }
+        delete(fromDB);
       }
-      delete(fromDB);
-    }
-    preUpdate(domain);
-    save(domain);
-    postUpdate(domain);
-    return domain;
-  }
-
-  private BulkUpdateInfo<T> bulkImportInfo(T fromDB, UpdateAction action) {
-    return BulkUpdateInfo.<T>builder().updateAction(action).data(fromDB).build();
+      preUpdate(domain);
+      return inHookTransaction(() -> {
+        T saved = persist(domain);
+        firePostHooks(ImmutableList.of(HookType.POST_SAVE, HookType.POST_UPDATE), ImmutableList.of(saved));
+        return saved;
+      });
+    });
   }
 
 }
@@ -0,0 +1,259 @@
+package com.sixsprints.core.monitoring;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.http.HttpStatus;
+
+import com.sixsprints.core.dto.IndexAdvisorConfig;
+import com.sixsprints.core.dto.IndexCandidate;
+import com.sixsprints.core.exception.BaseRuntimeException;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+public class IndexAdvisor implements DisposableBean {
+
+  private static final List<String> LOGICAL = Arrays.asList("$and", "$or", "$nor");
+
+  private static final List<String> EQUALITY = Arrays.asList("$eq", "$in");
+
+  private static final String COLLSCAN = "COLLSCAN";
+
+  private final MongoOperations mongo;
+
+  private final IndexAdvisorConfig config;
+
+  private final Map<String, Shape> shapes = new ConcurrentHashMap<>();
+
+  private final ExecutorService explainer = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "index-advisor");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  public IndexAdvisor(MongoOperations mongo, IndexAdvisorConfig config) {
+    this.mongo = mongo;
+    this.config = config;
+  }
+
+  public boolean isSampled(long elapsedMillis) {
+    return elapsedMillis >= config.getSlowMillis() || ThreadLocalRandom.current().nextDouble() < config.getSampleRate();
+  }
+
+  public void record(String collection, Document query, Document sort, int limit, long elapsedMillis) {
+    LinkedHashMap<String, Integer> keys = candidateKeys(query, sort);
+    if (keys.isEmpty()) {
+      return;
+    }
+    String key = collection + keys;
+    Shape shape = shapes.get(key);
+    if (shape == null) {
+      shape = admit(collection, key, keys);
+      if (shape == null) {
+        return;
+      }
+    }
+    shape.executions.increment();
+    shape.totalMillis.add(elapsedMillis);
+    if (elapsedMillis < config.getSlowMillis()) {
+      return;
+    }
+    shape.slowExecutions.increment();
+    if (shape.explained.compareAndSet(false, true)) {
+      Shape slow = shape;
+      explainer.execute(() -> explain(slow, query, sort, limit));
+    }
+  }
+
+  public List<IndexCandidate> candidates() {
+    return shapes.values().stream().filter(this::isCandidate).map(Shape::toCandidate)
+      .sorted(Comparator.comparingLong(
+        (IndexCandidate candidate) -> candidate.getEstimatedDocsExaminedSaved() * candidate.getExecutions())
+        .reversed())
+      .collect(Collectors.toList());
+  }
+
+  public IndexCandidate apply(String shapeKey) {
+    Shape shape = shapes.get(shapeKey);
+    if (shape == null) {
+      throw BaseRuntimeException.builder().httpStatus(HttpStatus.NOT_FOUND)
+        .error("No index candidate for shape %s").argument(shapeKey).build();
+    }
+    apply(shape);
+    return shape.toCandidate();
+  }
+
+  public void reset() {
+    shapes.clear();
+  }
+
+  @Override
+  public void destroy() {
+    explainer.shutdownNow();
+  }
+
+  // At capacity the coldest pending shape makes room, so new query shapes keep being tracked without a reset
+  private synchronized Shape admit(String collection, String key, LinkedHashMap<String, Integer> keys) {
+    Shape shape = shapes.get(key);
+    if (shape != null) {
+      return shape;
+    }
+    if (shapes.size() >= config.getMaxShapes()) {
+      shapes.values().stream().filter(candidate -> !candidate.applied)
+        .min(Comparator.comparingLong(candidate -> candidate.executions.sum()))
+        .ifPresent(coldest -> shapes.remove(coldest.key));
+      if (shapes.size() >= config.getMaxShapes()) {
+        return null;
+      }
+    }
+    shape = new Shape(collection, key, keys);
+    shapes.put(key, shape);
+    return shape;
+  }
+
+  // Equality fields first, then the sort, then range fields.
+  protected LinkedHashMap<String, Integer> candidateKeys(Document query, Document sort) {
+    TreeSet<String> equality = new TreeSet<>();
+    TreeSet<String> range = new TreeSet<>();
+    collect(query, equality, range);
+    LinkedHashMap<String, Integer> keys = new LinkedHashMap<>();
+    equality.forEach(field -> keys.put(field, 1));
+    if (sort != null) {
+      sort.forEach((field, direction) -> keys.putIfAbsent(field,
+        direction instanceof Number && ((Number) direction).intValue() < 0 ? -1 : 1));
+    }
+    range.forEach(field -> keys.putIfAbsent(field, 1));
+    return keys;
+  }
+
+  private void collect(Document query, TreeSet<String> equality, TreeSet<String> range) {
+    if (query == null) {
+      return;
+    }
+    for (Map.Entry<String, Object> entry : query.entrySet()) {
+      String field = entry.getKey();
+      Object value = entry.getValue();
+      if (LOGICAL.contains(field) && value instanceof List) {
+        for (Object clause : (List<?>) value) {
+          if (clause instanceof Document) {
+            collect((Document) clause, equality, range);
+          }
+        }
+      } else if (field.startsWith("$")) {
+        continue;
+      } else if (value instanceof Pattern || value instanceof Document
+        && !EQUALITY.containsAll(((Document) value).keySet())) {
+        range.add(field);
+      } else {
+        equality.add(field);
+      }
+    }
+    range.removeAll(equality);
+  }
+
+  private void explain(Shape shape, Document query, Document sort, int limit) {
+    try {
+      Document find = new Document("find", shape.collection).append("filter", query);
+      if (sort != null && !sort.isEmpty()) {
+        find.append("sort", sort);
+      }
+      if (limit > 0) {
+        find.append("limit", limit);
+      }
+      Document result = mongo.executeCommand(new Document("explain", find).append("verbosity", "executionStats"));
+      Document stats = (Document) result.get("executionStats");
+      shape.docsExamined = ((Number) stats.get("totalDocsExamined")).longValue();
+      shape.nReturned = ((Number) stats.get("nReturned")).longValue();
+      shape.winningStage = leafStage((Document) ((Document) result.get("queryPlanner")).get("winningPlan"));
+      if (config.isAutoApply() && isCandidate(shape)) {
+        apply(shape);
+      }
+    } catch (RuntimeException ex) {
+      // Let the next slow execution of the shape try again
+      shape.explained.set(false);
+      log.warn("Unable to explain {} on {}: {}", shape.keys, shape.collection, ex.getMessage());
+    }
+  }
+
+  private String leafStage(Document plan) {
+    while (plan != null && plan.get("inputStage") instanceof Document) {
+      plan = (Document) plan.get("inputStage");
+    }
+    return plan == null ? null : plan.getString("stage");
+  }
+
+  private boolean isCandidate(Shape shape) {
+    if (shape.winningStage == null || shape.applied) {
+      return false;
+    }
+    return COLLSCAN.equals(shape.winningStage)
+      || shape.docsExamined > Math.max(shape.nReturned, 1) * config.getExaminedRatio();
+  }
+
+  private void apply(Shape shape) {
+    Index index = new Index().background();
+    shape.keys.forEach((field, direction) -> index.on(field, direction < 0 ? Direction.DESC : Direction.ASC));
+    mongo.indexOps(shape.collection).ensureIndex(index);
+    shape.applied = true;
+    log.info("Created index {} on {}", shape.keys, shape.collection);
+  }
+
+  private static class Shape {
+
+    private final String collection;
+
+    private final String key;
+
+    private final LinkedHashMap<String, Integer> keys;
+
+    private final LongAdder executions = new LongAdder();
+
+    private final LongAdder slowExecutions = new LongAdder();
+
+    private final LongAdder totalMillis = new LongAdder();
+
+    private final AtomicBoolean explained = new AtomicBoolean();
+
+    private volatile String winningStage;
+
+    private volatile long docsExamined;
+
+    private volatile long nReturned;
+
+    private volatile boolean applied;
+
+    private Shape(String collection, String key, LinkedHashMap<String, Integer> keys) {
+      this.collection = collection;
+      this.key = key;
+      this.keys = keys;
+    }
+
+    private IndexCandidate toCandidate() {
+      long count = executions.sum();
+      return IndexCandidate.builder().collection(collection).shape(key).keys(keys).executions(count)
+        .slowExecutions(slowExecutions.sum()).avgMillis(count == 0 ? 0 : (double) totalMillis.sum() / count)
+        .winningStage(winningStage).docsExamined(docsExamined).nReturned(nReturned)
+        .estimatedDocsExaminedSaved(Math.max(0, docsExamined - nReturned)).applied(applied).build();
+    }
+
+  }
+
+}
@@ -0,0 +1,36 @@
+package com.sixsprints.core.monitoring;
+
+import java.util.List;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import com.sixsprints.core.dto.IndexCandidate;
+
+@Endpoint(id = "indexadvisor")
+public class IndexAdvisorEndpoint {
+
+  private final IndexAdvisor advisor;
+
+  public IndexAdvisorEndpoint(IndexAdvisor advisor) {
+    this.advisor = advisor;
+  }
+
+  @ReadOperation
+  public List<IndexCandidate> candidates() {
+    return advisor.candidates();
+  }
+
+  @WriteOperation
+  public IndexCandidate apply(String shape) {
+    return advisor.apply(shape);
+  }
+
+  @DeleteOperation
+  public void reset() {
+    advisor.reset();
+  }
+
+}
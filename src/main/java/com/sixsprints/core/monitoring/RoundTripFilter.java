@@ -0,0 +1,33 @@
+package com.sixsprints.core.monitoring;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+public class RoundTripFilter extends OncePerRequestFilter {
+
+  private final RoundTripTracker tracker;
+
+  public RoundTripFilter(RoundTripTracker tracker) {
+    this.tracker = tracker;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+    throws ServletException, IOException {
+    boolean started = tracker.begin(request.getMethod() + " " + request.getRequestURI());
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      if (started) {
+        tracker.end();
+      }
+    }
+  }
+
+}
@@ -0,0 +1,167 @@
+package com.sixsprints.core.monitoring;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import com.sixsprints.core.dto.RoundTripConfig;
+import com.sixsprints.core.dto.RoundTripStats;
+
+import lombok.extern.slf4j.Slf4j;
+
+// The sync driver fires command events on the calling thread, so a thread-local scope sees every round trip
+// made while it is open.
+@Slf4j
+public class RoundTripTracker implements CommandListener {
+
+  private static final String[] FILTER_FIELDS = { "filter", "query", "q" };
+
+  private final RoundTripConfig config;
+
+  private final ThreadLocal<Scope> current = new ThreadLocal<>();
+
+  public RoundTripTracker(RoundTripConfig config) {
+    this.config = config;
+  }
+
+  public boolean begin(String name) {
+    if (!config.isEnabled() || current.get() != null) {
+      return false;
+    }
+    current.set(new Scope(name));
+    return true;
+  }
+
+  public RoundTripStats end() {
+    Scope scope = current.get();
+    if (scope == null) {
+      return null;
+    }
+    current.remove();
+    RoundTripStats stats = scope.stats();
+    if (stats.isOverBudget() || !stats.getRepeated().isEmpty()) {
+      log.warn("{} made {} Mongo round trips in {}ms ({} bytes received). Repeated command shapes: {}", stats.getName(),
+        stats.getCommands(), stats.getMillis(), stats.getBytes(), stats.getRepeated());
+    }
+    return stats;
+  }
+
+  public <R> R track(String name, Supplier<R> call) {
+    boolean started = begin(name);
+    try {
+      return call.get();
+    } finally {
+      if (started) {
+        end();
+      }
+    }
+  }
+
+  @Override
+  public void commandStarted(CommandStartedEvent event) {
+    Scope scope = current.get();
+    if (scope == null) {
+      return;
+    }
+    scope.commands++;
+    scope.shapes.merge(shape(event.getCommandName(), event.getCommand()), 1, Integer::sum);
+  }
+
+  @Override
+  public void commandSucceeded(CommandSucceededEvent event) {
+    Scope scope = current.get();
+    if (scope == null) {
+      return;
+    }
+    scope.nanos += event.getElapsedTime(TimeUnit.NANOSECONDS);
+    scope.bytes += size(event.getResponse());
+  }
+
+  @Override
+  public void commandFailed(CommandFailedEvent event) {
+    Scope scope = current.get();
+    if (scope != null) {
+      scope.nanos += event.getElapsedTime(TimeUnit.NANOSECONDS);
+    }
+  }
+
+  // Command name, collection and the filtered field names, without values.
+  private String shape(String commandName, BsonDocument command) {
+    StringBuilder shape = new StringBuilder(commandName);
+    BsonValue target = command.get(commandName);
+    if (target != null && target.isString()) {
+      shape.append(" ").append(target.asString().getValue());
+    }
+    BsonDocument filter = filter(command);
+    if (filter != null) {
+      shape.append(" ").append(new TreeSet<>(filter.keySet()));
+    }
+    return shape.toString();
+  }
+
+  private BsonDocument filter(BsonDocument command) {
+    for (String field : FILTER_FIELDS) {
+      BsonValue value = command.get(field);
+      if (value != null && value.isDocument()) {
+        return value.asDocument();
+      }
+    }
+    BsonValue updates = command.containsKey("updates") ? command.get("updates") : command.get("deletes");
+    if (updates != null && updates.isArray() && !updates.asArray().isEmpty()
+      && updates.asArray().get(0).isDocument()) {
+      return filter(updates.asArray().get(0).asDocument());
+    }
+    return null;
+  }
+
+  // Only replies the driver hands over still encoded are counted, anything else would have to be encoded again on the
+  // calling thread just to be measured
+  private long size(BsonDocument document) {
+    if (document instanceof RawBsonDocument) {
+      return ((RawBsonDocument) document).getByteBuffer().remaining();
+    }
+    return 0;
+  }
+
+  private class Scope {
+
+    private final String name;
+
+    private final Map<String, Integer> shapes = new HashMap<>();
+
+    private int commands;
+
+    private long nanos;
+
+    private long bytes;
+
+    private Scope(String name) {
+      this.name = name;
+    }
+
+    private RoundTripStats stats() {
+      long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+      Map<String, Integer> repeated = new LinkedHashMap<>();
+      shapes.entrySet().stream().filter(entry -> entry.getValue() >= config.getRepeatThreshold())
+        .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+        .forEach(entry -> repeated.put(entry.getKey(), entry.getValue()));
+      boolean overBudget = commands > config.getMaxCommands() || millis > config.getMaxMillis()
+        || bytes > config.getMaxBytes();
+      return RoundTripStats.builder().name(name).commands(commands).millis(millis).bytes(bytes).repeated(repeated)
+        .overBudget(overBudget).build();
+    }
+
+  }
+
+}
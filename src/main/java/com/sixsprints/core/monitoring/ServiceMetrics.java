@@ -0,0 +1,171 @@
+package com.sixsprints.core.monitoring;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.data.domain.Page;
+
+import com.sixsprints.core.dto.BulkUpdateInfo;
+import com.sixsprints.core.dto.MultiGetResult;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+public class ServiceMetrics {
+
+  public static final ServiceMetrics NOOP = new ServiceMetrics(null, null, false);
+
+  public static final String TIMER = "mongo.service";
+
+  public static final String ROWS = "mongo.service.rows";
+
+  public static final String BULK = "mongo.service.bulk";
+
+  public static final String TRANSFER = "mongo.service.transfer.rows";
+
+  public static final String READ_ROUTE = "mongo.service.read.route";
+
+  private static final String SUCCESS = "success";
+
+  private final MeterRegistry registry;
+
+  private final String entity;
+
+  private final boolean histogram;
+
+  // Service operations call each other (create saves, softDelete(T) soft deletes by id), so only the
+  // outermost operation on a thread is timed
+  private final ThreadLocal<Boolean> timing = new ThreadLocal<>();
+
+  private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+  private final Map<String, DistributionSummary> rows = new ConcurrentHashMap<>();
+
+  private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+  public ServiceMetrics(MeterRegistry registry, String entity, boolean histogram) {
+    this.registry = registry;
+    this.entity = entity;
+    this.histogram = histogram;
+  }
+
+  public boolean isEnabled() {
+    return registry != null;
+  }
+
+  public <R, E extends Exception> R time(String operation, MeteredCall<R, E> call) throws E {
+    if (registry == null || timing.get() != null) {
+      return call.call();
+    }
+    timing.set(Boolean.TRUE);
+    long start = System.nanoTime();
+    try {
+      R result = call.call();
+      timer(operation, SUCCESS).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      rows(operation, result);
+      return result;
+    } catch (Exception ex) {
+      timer(operation, ex.getClass().getSimpleName()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      throw ex;
+    } finally {
+      timing.remove();
+    }
+  }
+
+  public <E extends Exception> void run(String operation, MeteredRun<E> run) throws E {
+    time(operation, () -> {
+      run.run();
+      return null;
+    });
+  }
+
+  public void bulk(List<? extends BulkUpdateInfo<?>> updateInfo) {
+    if (registry == null) {
+      return;
+    }
+    updateInfo.forEach(info -> counter(BULK, "action", String.valueOf(info.getUpdateAction())).increment());
+  }
+
+  // Row counters for import and export; rates come from the registry's counter rate.
+  public void transferred(String direction, String outcome, long count) {
+    if (registry == null || count <= 0) {
+      return;
+    }
+    counter(TRANSFER, "direction", direction, "outcome", outcome).increment(count);
+  }
+
+  public void routed(String operation, String target) {
+    if (registry == null) {
+      return;
+    }
+    counter(READ_ROUTE, "operation", operation, "target", target).increment();
+  }
+
+  // Read routing counts of this entity keyed by operation:target, empty when metrics are off
+  public Map<String, Long> routes() {
+    Map<String, Long> routes = new TreeMap<>();
+    if (registry == null) {
+      return routes;
+    }
+    registry.find(READ_ROUTE).tag("entity", entity).counters().forEach(counter -> routes
+      .put(counter.getId().getTag("operation") + ":" + counter.getId().getTag("target"), (long) counter.count()));
+    return routes;
+  }
+
+  private void rows(String operation, Object result) {
+    long count = count(result);
+    if (count < 0) {
+      return;
+    }
+    rows.computeIfAbsent(operation, op -> DistributionSummary.builder(ROWS).baseUnit("rows")
+      .tag("entity", entity).tag("operation", op).register(registry)).record(count);
+  }
+
+  private long count(Object result) {
+    if (result instanceof Collection) {
+      return ((Collection<?>) result).size();
+    }
+    if (result instanceof Page) {
+      return ((Page<?>) result).getNumberOfElements();
+    }
+    if (result instanceof MultiGetResult) {
+      return ((MultiGetResult<?>) result).getData().size();
+    }
+    if (result instanceof Number) {
+      return ((Number) result).longValue();
+    }
+    return result == null ? -1 : 1;
+  }
+
+  private Timer timer(String operation, String outcome) {
+    return timers.computeIfAbsent(operation + ":" + outcome, key -> Timer.builder(TIMER)
+      .tag("entity", entity).tag("operation", operation).tag("outcome", outcome)
+      .publishPercentileHistogram(histogram).register(registry));
+  }
+
+  private Counter counter(String name, String... tags) {
+    return counters.computeIfAbsent(name + String.join(":", tags), key -> Counter.builder(name)
+      .tag("entity", entity).tags(tags).register(registry));
+  }
+
+  @FunctionalInterface
+  public interface MeteredCall<R, E extends Exception> {
+
+    R call() throws E;
+
+  }
+
+  @FunctionalInterface
+  public interface MeteredRun<E extends Exception> {
+
+    void run() throws E;
+
+  }
+
+}
@@ -0,0 +1,30 @@
+package com.sixsprints.core.monitoring;
+
+import java.util.List;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import com.sixsprints.core.dto.SlowQuery;
+
+@Endpoint(id = "slowqueries")
+public class SlowQueryEndpoint {
+
+  private final SlowQueryListener listener;
+
+  public SlowQueryEndpoint(SlowQueryListener listener) {
+    this.listener = listener;
+  }
+
+  @ReadOperation
+  public List<SlowQuery> slowQueries() {
+    return listener.slowQueries();
+  }
+
+  @DeleteOperation
+  public void clear() {
+    listener.clear();
+  }
+
+}
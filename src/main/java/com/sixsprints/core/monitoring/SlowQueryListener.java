@@ -0,0 +1,231 @@
+package com.sixsprints.core.monitoring;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.DisposableBean;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.CreateCollectionOptions;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import com.sixsprints.core.dto.SlowQuery;
+import com.sixsprints.core.dto.SlowQueryConfig;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+public class SlowQueryListener implements CommandListener, DisposableBean {
+
+  private static final List<String> QUERIES = Arrays.asList("find", "aggregate", "distinct", "count");
+
+  private static final List<String> SESSION_FIELDS = Arrays.asList("lsid", "txnNumber", "autocommit",
+    "startTransaction");
+
+  private static final BsonString PLACEHOLDER = new BsonString("?");
+
+  private final SlowQueryConfig config;
+
+  private final Map<Integer, BsonDocument> commands = new ConcurrentHashMap<>();
+
+  private final Deque<SlowQuery> buffer = new ArrayDeque<>();
+
+  private final ThreadPoolExecutor recorder;
+
+  private volatile MongoClient client;
+
+  private volatile String database;
+
+  private volatile boolean collectionReady;
+
+  public SlowQueryListener(SlowQueryConfig config) {
+    this.config = config;
+    this.recorder = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+      new ArrayBlockingQueue<>(config.getQueueCapacity()), runnable -> {
+        Thread thread = new Thread(runnable, "slow-query-recorder");
+        thread.setDaemon(true);
+        return thread;
+      }, new ThreadPoolExecutor.DiscardPolicy());
+  }
+
+  // The client is only available once it has been built with this listener in its settings.
+  public void attach(MongoClient client, String database) {
+    this.client = client;
+    this.database = database;
+  }
+
+  @Override
+  public void commandStarted(CommandStartedEvent event) {
+    if (QUERIES.contains(event.getCommandName())) {
+      commands.put(event.getRequestId(), event.getCommand().clone());
+    }
+  }
+
+  @Override
+  public void commandSucceeded(CommandSucceededEvent event) {
+    BsonDocument command = commands.remove(event.getRequestId());
+    long durationMillis = event.getElapsedTime(TimeUnit.MILLISECONDS);
+    if (command == null || durationMillis < config.getThresholdMillis()) {
+      return;
+    }
+    String databaseName = command.containsKey("$db") ? command.getString("$db").getValue() : database;
+    recorder.execute(() -> record(databaseName, event.getCommandName(), command, durationMillis));
+  }
+
+  @Override
+  public void commandFailed(CommandFailedEvent event) {
+    commands.remove(event.getRequestId());
+  }
+
+  public List<SlowQuery> slowQueries() {
+    synchronized (buffer) {
+      return new ArrayList<>(buffer);
+    }
+  }
+
+  public void clear() {
+    synchronized (buffer) {
+      buffer.clear();
+    }
+  }
+
+  @Override
+  public void destroy() {
+    recorder.shutdownNow();
+  }
+
+  private void record(String databaseName, String commandName, BsonDocument command, long durationMillis) {
+    BsonDocument query = stripped(command);
+    BsonValue target = command.get(commandName);
+    SlowQuery slowQuery = SlowQuery.builder().timestamp(new Date()).database(databaseName)
+      .collection(target != null && target.isString() ? target.asString().getValue() : null)
+      .commandName(commandName).shape(normalise(query).asDocument().toJson())
+      .command(config.isCaptureCommand() ? query.toJson() : null)
+      .durationMillis(durationMillis).build();
+    try {
+      if (config.isExplain() && client != null) {
+        explain(client.getDatabase(databaseName), query, slowQuery);
+      }
+    } catch (RuntimeException ex) {
+      log.debug("Unable to explain slow {} on {}: {}", commandName, slowQuery.getCollection(), ex.getMessage());
+    }
+    log.warn("Slow {} on {}.{} took {}ms: {}", commandName, databaseName, slowQuery.getCollection(), durationMillis,
+      slowQuery.getShape());
+    synchronized (buffer) {
+      buffer.addLast(slowQuery);
+      while (buffer.size() > config.getBufferSize()) {
+        buffer.removeFirst();
+      }
+    }
+    persist(slowQuery);
+  }
+
+  private void explain(MongoDatabase db, BsonDocument query, SlowQuery slowQuery) {
+    Document result = db.runCommand(new BsonDocument("explain", query)
+      .append("verbosity", new BsonString("executionStats")));
+    Document planner = (Document) result.get("queryPlanner");
+    Document stats = (Document) result.get("executionStats");
+    if (planner == null && result.get("stages") instanceof List) {
+      // Aggregations report the cursor stage first.
+      Object first = ((List<?>) result.get("stages")).get(0);
+      Document cursor = first instanceof Document ? (Document) ((Document) first).get("$cursor") : null;
+      planner = cursor == null ? null : (Document) cursor.get("queryPlanner");
+      stats = cursor == null ? null : (Document) cursor.get("executionStats");
+    }
+    if (planner != null) {
+      slowQuery.setWinningPlan(planSummary((Document) planner.get("winningPlan")));
+    }
+    if (stats != null) {
+      slowQuery.setKeysExamined(longValue(stats.get("totalKeysExamined")));
+      slowQuery.setDocsExamined(longValue(stats.get("totalDocsExamined")));
+      slowQuery.setNReturned(longValue(stats.get("nReturned")));
+    }
+  }
+
+  private String planSummary(Document plan) {
+    StringBuilder summary = new StringBuilder();
+    while (plan != null) {
+      if (summary.length() > 0) {
+        summary.append(" <- ");
+      }
+      summary.append(plan.getString("stage"));
+      if (plan.get("indexName") != null) {
+        summary.append("(").append(plan.get("indexName")).append(")");
+      }
+      plan = plan.get("inputStage") instanceof Document ? (Document) plan.get("inputStage") : null;
+    }
+    return summary.toString();
+  }
+
+  private void persist(SlowQuery slowQuery) {
+    if (client == null || database == null || config.getCollection() == null) {
+      return;
+    }
+    try {
+      MongoDatabase db = client.getDatabase(database);
+      if (!collectionReady) {
+        if (!db.listCollectionNames().into(new ArrayList<>()).contains(config.getCollection())) {
+          db.createCollection(config.getCollection(),
+            new CreateCollectionOptions().capped(true).sizeInBytes(config.getCappedBytes()));
+        }
+        collectionReady = true;
+      }
+      db.getCollection(config.getCollection()).insertOne(new Document("timestamp", slowQuery.getTimestamp())
+        .append("database", slowQuery.getDatabase()).append("collection", slowQuery.getCollection())
+        .append("commandName", slowQuery.getCommandName()).append("shape", slowQuery.getShape())
+        .append("command", slowQuery.getCommand()).append("durationMillis", slowQuery.getDurationMillis())
+        .append("winningPlan", slowQuery.getWinningPlan()).append("keysExamined", slowQuery.getKeysExamined())
+        .append("docsExamined", slowQuery.getDocsExamined()).append("nReturned", slowQuery.getNReturned()));
+    } catch (RuntimeException ex) {
+      log.debug("Unable to persist slow query: {}", ex.getMessage());
+    }
+  }
+
+  private BsonDocument stripped(BsonDocument command) {
+    BsonDocument query = new BsonDocument();
+    command.forEach((key, value) -> {
+      if (!key.startsWith("$") && !SESSION_FIELDS.contains(key)) {
+        query.append(key, value);
+      }
+    });
+    return query;
+  }
+
+  // Keeps field names and operators, replaces every literal with "?".
+  private BsonValue normalise(BsonValue value) {
+    if (value.isDocument()) {
+      BsonDocument shape = new BsonDocument();
+      value.asDocument().forEach((key, nested) -> shape.append(key, normalise(nested)));
+      return shape;
+    }
+    if (value.isArray()) {
+      BsonArray array = new BsonArray();
+      value.asArray().stream().filter(item -> item.isDocument() || item.isArray()).map(this::normalise)
+        .forEach(array::add);
+      return array.isEmpty() ? new BsonArray(Arrays.asList(PLACEHOLDER)) : array;
+    }
+    return PLACEHOLDER;
+  }
+
+  private Long longValue(Object value) {
+    return value instanceof Number ? ((Number) value).longValue() : null;
+  }
+
+}
@@ -4,11 +4,15 @@ import java.io.Serializable;
 import java.util.List;
 
 import org.bson.Document;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.repository.query.MongoEntityInformation;
 import org.springframework.data.mongodb.repository.support.SimpleMongoRepository;
+import org.springframework.data.repository.support.PageableExecutionUtils;
 
 import com.sixsprints.core.utils.InheritanceMongoUtil;
 
@@ -38,6 +42,23 @@ public class InheritanceAwareSimpleMongoRepository<T, ID extends Serializable> e
       : super.findAll();
   }
 
+  @Override
+  public List<T> findAll(Sort sort) {
+    return inheritanceCriteria != null ? mongoOperations.find(new Query().addCriteria(inheritanceCriteria).with(sort),
+      entityInformation.getJavaType(), entityInformation.getCollectionName())
+      : super.findAll(sort);
+  }
+
+  @Override
+  public Page<T> findAll(Pageable pageable) {
+    if (inheritanceCriteria == null) {
+      return super.findAll(pageable);
+    }
+    List<T> list = mongoOperations.find(new Query().addCriteria(inheritanceCriteria).with(pageable),
+      entityInformation.getJavaType(), entityInformation.getCollectionName());
+    return PageableExecutionUtils.getPage(list, pageable, this::count);
+  }
+
   @Override
   public long count() {
     return inheritanceCriteria != null ? mongoOperations.getCollection(
@@ -1,9 +1,66 @@
 package com.sixsprints.core.service;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.data.domain.Page;
+
 import com.sixsprints.core.domain.AbstractMongoEntity;
+import com.sixsprints.core.dto.AsyncStats;
+import com.sixsprints.core.dto.FilterRequestDto;
+import com.sixsprints.core.dto.MultiGetResult;
 import com.sixsprints.core.generic.update.AbstractUpdateService;
 
 public abstract class AbstractCrudService<T extends AbstractMongoEntity> extends AbstractUpdateService<T>
   implements GenericCrudService<T> {
 
+  @Override
+  public CompletableFuture<T> findOneAsync(String id) {
+    return async(() -> findOne(id));
+  }
+
+  @Override
+  public CompletableFuture<T> findBySlugAsync(String slug) {
+    return async(() -> findBySlug(slug));
+  }
+
+  @Override
+  public CompletableFuture<MultiGetResult<T>> findByIdsAsync(Collection<String> ids) {
+    return async(() -> findByIds(ids));
+  }
+
+  @Override
+  public CompletableFuture<Page<T>> filterAsync(FilterRequestDto filters) {
+    return async(() -> filter(filters));
+  }
+
+  @Override
+  public CompletableFuture<List<T>> filterAllAsync(FilterRequestDto filters) {
+    return async(() -> filterAll(filters));
+  }
+
+  @Override
+  public CompletableFuture<T> createAsync(T entity) {
+    return async(() -> create(entity));
+  }
+
+  @Override
+  public CompletableFuture<T> updateAsync(String id, T entity) {
+    return async(() -> update(id, entity));
+  }
+
+  @Override
+  public CompletableFuture<Void> deleteAsync(String id) {
+    return async(() -> {
+      delete(id);
+      return null;
+    });
+  }
+
+  @Override
+  public AsyncStats asyncStats() {
+    return asyncExecutor().stats();
+  }
+
 }
@@ -1,6 +1,15 @@
 package com.sixsprints.core.service;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.data.domain.Page;
+
 import com.sixsprints.core.domain.AbstractMongoEntity;
+import com.sixsprints.core.dto.AsyncStats;
+import com.sixsprints.core.dto.FilterRequestDto;
+import com.sixsprints.core.dto.MultiGetResult;
 import com.sixsprints.core.generic.create.GenericCreateService;
 import com.sixsprints.core.generic.delete.GenericDeleteService;
 import com.sixsprints.core.generic.read.GenericReadService;
@@ -9,4 +18,22 @@ import com.sixsprints.core.generic.update.GenericUpdateService;
 public interface GenericCrudService<T extends AbstractMongoEntity>
   extends GenericCreateService<T>, GenericReadService<T>, GenericUpdateService<T>, GenericDeleteService<T> {
 
+  CompletableFuture<T> findOneAsync(String id);
+
+  CompletableFuture<T> findBySlugAsync(String slug);
+
+  CompletableFuture<MultiGetResult<T>> findByIdsAsync(Collection<String> ids);
+
+  CompletableFuture<Page<T>> filterAsync(FilterRequestDto filters);
+
+  CompletableFuture<List<T>> filterAllAsync(FilterRequestDto filters);
+
+  CompletableFuture<T> createAsync(T entity);
+
+  CompletableFuture<T> updateAsync(String id, T entity);
+
+  CompletableFuture<Void> deleteAsync(String id);
+
+  AsyncStats asyncStats();
+
 }
@@ -0,0 +1,45 @@
+package com.sixsprints.core.utils;
+
+import java.util.NoSuchElementException;
+
+import org.springframework.data.util.CloseableIterator;
+
+public class AutoClosingIterator<T> implements CloseableIterator<T> {
+
+  private final CloseableIterator<T> delegate;
+
+  private boolean closed;
+
+  public AutoClosingIterator(CloseableIterator<T> delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (closed) {
+      return false;
+    }
+    if (delegate.hasNext()) {
+      return true;
+    }
+    close();
+    return false;
+  }
+
+  @Override
+  public T next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    return delegate.next();
+  }
+
+  @Override
+  public void close() {
+    if (!closed) {
+      closed = true;
+      delegate.close();
+    }
+  }
+
+}
@@ -0,0 +1,24 @@
+package com.sixsprints.core.utils;
+
+import java.util.List;
+
+import org.bson.Document;
+
+import com.google.common.collect.ImmutableList;
+
+public class ContentHashUtil {
+
+  public static final String HASH = "hash";
+
+  private static final String HASH_ALGORITHM = "SHA-256";
+
+  private static final List<String> IGNORED_FIELDS = ImmutableList.of("_id", "slug", "sequence", "active",
+    "dateCreated", "dateModified", "createdBy", "lastModifiedBy", HASH);
+
+  public static String hash(Document document) {
+    Document content = new Document(document);
+    IGNORED_FIELDS.forEach(content::remove);
+    return EncryptionUtil.encrypt(content.toJson(), HASH_ALGORITHM);
+  }
+
+}
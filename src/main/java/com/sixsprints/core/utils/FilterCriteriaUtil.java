@@ -0,0 +1,313 @@
+package com.sixsprints.core.utils;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.databind.util.StdDateFormat;
+import com.google.common.collect.Lists;
+import com.sixsprints.core.dto.FieldDto;
+import com.sixsprints.core.dto.FilterRequestDto;
+import com.sixsprints.core.dto.MetaData;
+import com.sixsprints.core.dto.filter.BooleanColumnFilter;
+import com.sixsprints.core.dto.filter.ColumnFilter;
+import com.sixsprints.core.dto.filter.ColumnModel;
+import com.sixsprints.core.dto.filter.DateColumnFilter;
+import com.sixsprints.core.dto.filter.ExactMatchColumnFilter;
+import com.sixsprints.core.dto.filter.NumberColumnFilter;
+import com.sixsprints.core.dto.filter.SearchColumnFilter;
+import com.sixsprints.core.dto.filter.SetColumnFilter;
+import com.sixsprints.core.dto.filter.SortModel;
+import com.sixsprints.core.exception.BaseRuntimeException;
+
+public class FilterCriteriaUtil {
+
+  private static final String IGNORE_CASE_FLAG = "i";
+  private static final String SLUG = "slug";
+
+  public static Sort buildSort(List<SortModel> sortModel, MetaData<?> meta) {
+    Sort sort = Sort.unsorted();
+    if (!CollectionUtils.isEmpty(sortModel)) {
+      for (SortModel aSort : sortModel) {
+        sort = sort.and(Sort.by(aSort.getSort(), aSort.getColId()));
+      }
+    }
+    if (meta != null && meta.getDefaultSort() != null) {
+      sort = sort.and(meta.getDefaultSort());
+    }
+    return sort;
+  }
+
+  public static Criteria buildCriteria(FilterRequestDto filterRequestDto, MetaData<?> meta) {
+    List<Criteria> criterias = new ArrayList<>();
+    Criteria criteria = InheritanceMongoUtil.generate(meta.getClassType());
+    if (criteria != null) {
+      criterias.add(criteria);
+    }
+    if (!(filterRequestDto == null || filterRequestDto.getFilterModel() == null
+      || filterRequestDto.getFilterModel().isEmpty())) {
+      Map<String, ColumnFilter> filters = filterRequestDto.getFilterModel();
+      for (String key : filters.keySet()) {
+        addCriteria(filters.get(key), key, criterias, meta);
+      }
+    }
+    if (!criterias.isEmpty()) {
+      return new Criteria().andOperator(criterias.toArray(new Criteria[criterias.size()]));
+    }
+    return new Criteria();
+  }
+
+  public static Criteria buildCriteria(Map<String, ColumnFilter> filters, MetaData<?> meta) {
+    List<Criteria> criterias = new ArrayList<>();
+    if (filters != null) {
+      filters.forEach((key, filter) -> addCriteria(filter, key, criterias, meta));
+    }
+    if (!criterias.isEmpty()) {
+      return new Criteria().andOperator(criterias.toArray(new Criteria[criterias.size()]));
+    }
+    return new Criteria();
+  }
+
+  // Narrows a filter to the row group being expanded; only the grid's row and group queries apply it
+  public static Criteria buildGroupKeyCriteria(FilterRequestDto filterRequestDto, MetaData<?> meta) {
+    List<Criteria> criterias = new ArrayList<>();
+    if (filterRequestDto != null) {
+      addGroupKeyCriteria(filterRequestDto.getRowGroupCols(), filterRequestDto.getGroupKeys(), criterias, meta);
+    }
+    if (criterias.isEmpty()) {
+      return null;
+    }
+    return new Criteria().andOperator(criterias.toArray(new Criteria[criterias.size()]));
+  }
+
+  private static void addGroupKeyCriteria(List<ColumnModel> groupCols, List<String> groupKeys,
+    List<Criteria> criterias, MetaData<?> meta) {
+    if (CollectionUtils.isEmpty(groupCols) || CollectionUtils.isEmpty(groupKeys)) {
+      return;
+    }
+    for (int i = 0; i < Math.min(groupCols.size(), groupKeys.size()); i++) {
+      String field = groupCols.get(i).getField();
+      criterias.add(setKeyCriteria(field).is(groupKeyValue(groupKeys.get(i), fieldDto(field, meta))));
+    }
+  }
+
+  private static Object groupKeyValue(String key, FieldDto field) {
+    if (StringUtils.isEmpty(key) || key.equals(AppConstants.BLANK_STRING)) {
+      return null;
+    }
+    if (field == null || field.getDataType() == null) {
+      return key;
+    }
+    try {
+      switch (field.getDataType()) {
+      case NUMBER:
+        return key.contains(".") ? (Object) Double.valueOf(key) : (Object) Long.valueOf(key);
+
+      case BOOLEAN:
+        return Boolean.valueOf(key);
+
+      case DATE:
+        return dateKey(key);
+
+      default:
+        return key;
+      }
+    } catch (NumberFormatException | ParseException ex) {
+      throw BaseRuntimeException.builder().httpStatus(HttpStatus.BAD_REQUEST)
+        .error("Invalid group key " + key + " for " + field.getName()).build();
+    }
+  }
+
+  // Group rows carry the stored date, which comes back either as epoch millis or as an ISO-8601 string
+  private static Date dateKey(String key) throws ParseException {
+    if (key.chars().allMatch(Character::isDigit)) {
+      return new Date(Long.parseLong(key));
+    }
+    return new StdDateFormat().parse(key);
+  }
+
+  private static FieldDto fieldDto(String name, MetaData<?> meta) {
+    if (meta.getFields() == null) {
+      return null;
+    }
+    return meta.getFields().stream().filter(field -> name.equals(field.getName())).findFirst().orElse(null);
+  }
+
+  private static void addCriteria(ColumnFilter filter, String key, List<Criteria> criterias, MetaData<?> meta) {
+    if (filter instanceof SetColumnFilter) {
+      addSetFilter(criterias, key, (SetColumnFilter) filter);
+    } else if (filter instanceof NumberColumnFilter) {
+      addNumberFilter(criterias, key, (NumberColumnFilter) filter);
+    } else if (filter instanceof BooleanColumnFilter) {
+      addBooleanFilter(criterias, key, (BooleanColumnFilter) filter);
+    } else if (filter instanceof DateColumnFilter) {
+      addDateFilter(criterias, key, (DateColumnFilter) filter);
+    } else if (filter instanceof SearchColumnFilter) {
+      addSearchCriteria(((SearchColumnFilter) filter).getFilter(), criterias, meta);
+    } else if (filter instanceof ExactMatchColumnFilter) {
+      addExactMatchCriteria(criterias, key, (ExactMatchColumnFilter) filter);
+    }
+  }
+
+  private static void addSetFilter(List<Criteria> criterias, String key, SetColumnFilter filter) {
+    if (!CollectionUtils.isEmpty(filter.getValues())) {
+      int i = 0;
+      List<String> values = filter.getValues();
+      int size = values.size();
+      Object[] array = new String[size];
+
+      long count = values.stream().filter(val -> StringUtils.isEmpty(val) || val.equals(AppConstants.BLANK_STRING))
+        .count();
+      if (count > 0) {
+        array = new String[size + 1];
+        array[i++] = "";
+      }
+
+      for (String val : values) {
+        array[i++] = StringUtils.isEmpty(val) || val.equals(AppConstants.BLANK_STRING) ? null : val;
+      }
+      criterias.add(setKeyCriteria(key).in(array));
+    }
+  }
+
+  private static void addNumberFilter(List<Criteria> criterias, String key, NumberColumnFilter numberFilter) {
+    Criteria criteria = setKeyCriteria(key);
+    if (!StringUtils.isEmpty(numberFilter.getType())) {
+      numberCriteria(numberFilter.getType(), numberFilter.getFilter(), numberFilter.getFilterTo(), criteria);
+    } else {
+      Criteria criteria1 = setKeyCriteria(key);
+      Criteria criteria2 = setKeyCriteria(key);
+      numberCriteria(numberFilter.getCondition1().getType(), numberFilter.getCondition1().getFilter(),
+        numberFilter.getCondition1().getFilterTo(), criteria1);
+      numberCriteria(numberFilter.getCondition2().getType(), numberFilter.getCondition2().getFilter(),
+        numberFilter.getCondition2().getFilterTo(), criteria2);
+      if (AppConstants.AND_OPERATOR.equals(numberFilter.getOperator())) {
+        criteria = new Criteria().andOperator(criteria1, criteria2);
+      }
+      if (AppConstants.OR_OPERATOR.equals(numberFilter.getOperator())) {
+        criteria = new Criteria().orOperator(criteria1, criteria2);
+      }
+    }
+    criterias.add(criteria);
+  }
+
+  private static void numberCriteria(String type, Integer filter, Integer filterTo, Criteria criteria) {
+    switch (type) {
+    case AppConstants.EQUALS:
+      criteria.is(filter);
+      break;
+
+    case AppConstants.NOT_EQUAL:
+      criteria.ne(filter);
+      break;
+
+    case AppConstants.LESS_THAN:
+      criteria.lt(filter);
+      break;
+
+    case AppConstants.LESS_THAN_OR_EQUAL:
+      criteria.lte(filter);
+      break;
+
+    case AppConstants.GREATER_THAN:
+      criteria.gt(filter);
+      break;
+
+    case AppConstants.GREATER_THAN_OR_EQUAL:
+      criteria.gte(filter);
+      break;
+
+    case AppConstants.IN_RANGE:
+      criteria.lte(filterTo).gte(filter);
+      break;
+    }
+  }
+
+  private static void addBooleanFilter(List<Criteria> criterias, String key, BooleanColumnFilter filter) {
+    criterias.add(setKeyCriteria(key).is(filter.getValue()));
+  }
+
+  private static void addDateFilter(List<Criteria> criterias, String key, DateColumnFilter filter) {
+    Criteria criteria = setKeyCriteria(key);
+    criteria = dateCriteria(filter.getType(), filter.getFilter(), filter.getFilterTo(), criteria);
+    criterias.add(criteria);
+  }
+
+  private static Criteria dateCriteria(String type, Long filter, Long filterTo, Criteria criteria2) {
+    Criteria criteria = new Criteria(criteria2.getKey());
+    switch (type) {
+    case AppConstants.EQUALS:
+      criteria.lte(DateUtil.instance().build().endOfDay(filter)).gte(DateUtil.instance().build().startOfDay(filter));
+      break;
+
+    case AppConstants.NOT_EQUAL:
+      return new Criteria().orOperator(
+        new Criteria(criteria2.getKey()).lt(DateUtil.instance().build().startOfDay(filter)),
+        new Criteria(criteria2.getKey()).gt(DateUtil.instance().build().endOfDay(filter)));
+
+    case AppConstants.LESS_THAN:
+      criteria.lt(DateUtil.instance().build().startOfDay(filter));
+      break;
+
+    case AppConstants.LESS_THAN_OR_EQUAL:
+      criteria.lte(DateUtil.instance().build().endOfDay(filter));
+      break;
+
+    case AppConstants.GREATER_THAN:
+      criteria.gt(DateUtil.instance().build().endOfDay(filter));
+      break;
+
+    case AppConstants.GREATER_THAN_OR_EQUAL:
+      criteria.gte(DateUtil.instance().build().startOfDay(filter));
+      break;
+
+    case AppConstants.IN_RANGE:
+      criteria.lte(DateUtil.instance().build().endOfDay(filterTo)).gte(DateUtil.instance().build().startOfDay(filter));
+      break;
+    }
+    return criteria;
+  }
+
+  private static void addSearchCriteria(String searchKey, List<Criteria> criterias, MetaData<?> meta) {
+    List<Criteria> searchCriteria = Lists.newArrayList();
+    String quote = Pattern.quote(searchKey);
+
+    List<FieldDto> fields = meta.getFields();
+
+    if (CollectionUtils.isEmpty(fields)) {
+      return;
+    }
+
+    if (!fields.contains(FieldDto.builder().name(SLUG).build())) {
+      searchCriteria.add(setKeyCriteria(SLUG).regex(quote, IGNORE_CASE_FLAG));
+    }
+    for (FieldDto field : fields) {
+      if (field.getDataType().isSearchable()) {
+        Criteria criteria = setKeyCriteria(field.getName()).regex(quote, IGNORE_CASE_FLAG);
+        searchCriteria.add(criteria);
+      }
+    }
+    if (!searchCriteria.isEmpty()) {
+      criterias.add(new Criteria().orOperator(searchCriteria.toArray(new Criteria[searchCriteria.size()])));
+    }
+
+  }
+
+  private static void addExactMatchCriteria(List<Criteria> criterias, String key, ExactMatchColumnFilter filter) {
+    criterias.add(setKeyCriteria(key).is(filter.getFilter()));
+  }
+
+  private static Criteria setKeyCriteria(String key) {
+    return Criteria.where(key);
+  }
+
+}
@@ -15,7 +15,8 @@ import org.springframework.test.context.junit4.SpringRunner;
 import com.sixsprints.core.domain.AbstractMongoEntity;
 
 @RunWith(SpringRunner.class)
-@SpringBootTest
+@SpringBootTest(properties = "spring.autoconfigure.exclude="
+  + "org.springframework.boot.autoconfigure.mongo.embedded.EmbeddedMongoAutoConfiguration")
 @ActiveProfiles("test")
 public class ApplicationTests {
 
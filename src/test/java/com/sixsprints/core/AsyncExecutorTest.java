@@ -0,0 +1,86 @@
+package com.sixsprints.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.MDC;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.sixsprints.core.dto.AsyncConfig;
+import com.sixsprints.core.generic.AsyncExecutor;
+
+public class AsyncExecutorTest {
+
+  private final AsyncExecutor executor = new AsyncExecutor("test", AsyncConfig.builder().maxConcurrency(1).build());
+
+  @After
+  public void tearDown() {
+    executor.close();
+    MDC.clear();
+    LocaleContextHolder.resetLocaleContext();
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  public void shouldRunTasksWithTheCallersContext() throws Exception {
+    Authentication user = new TestingAuthenticationToken("user", "secret");
+    MDC.put("requestId", "r-1");
+    LocaleContextHolder.setLocale(Locale.JAPANESE);
+    SecurityContextHolder.getContext().setAuthentication(user);
+
+    assertThat(executor.submit(() -> MDC.get("requestId")).get(5, TimeUnit.SECONDS)).isEqualTo("r-1");
+    assertThat(executor.submit(LocaleContextHolder::getLocale).get(5, TimeUnit.SECONDS)).isEqualTo(Locale.JAPANESE);
+    assertThat(executor.submit(() -> SecurityContextHolder.getContext().getAuthentication())
+      .get(5, TimeUnit.SECONDS)).isSameAs(user);
+  }
+
+  @Test
+  public void shouldNotLeakContextIntoLaterTasksOnThePooledThread() throws Exception {
+    MDC.put("requestId", "r-1");
+    SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("user", "secret"));
+    executor.submit(() -> MDC.get("requestId")).get(5, TimeUnit.SECONDS);
+
+    MDC.clear();
+    SecurityContextHolder.clearContext();
+
+    assertThat(executor.submit(() -> MDC.get("requestId")).get(5, TimeUnit.SECONDS)).isNull();
+    assertThat(executor.submit(() -> SecurityContextHolder.getContext().getAuthentication())
+      .get(5, TimeUnit.SECONDS)).isNull();
+  }
+
+  @Test
+  public void shouldLimitTheThreadsOneServiceHoldsOfASharedPool() throws Exception {
+    AsyncExecutor shared = new AsyncExecutor("shared",
+      AsyncConfig.builder().maxConcurrency(2).queueCapacity(10).maxConcurrencyPerService(1).build());
+    AsyncExecutor hot = shared.forService("hot");
+    AsyncExecutor quiet = shared.forService("quiet");
+    CountDownLatch release = new CountDownLatch(1);
+    try {
+      CompletableFuture<Boolean> first = hot.submit(() -> release.await(5, TimeUnit.SECONDS));
+      CompletableFuture<Boolean> second = hot.submit(() -> release.await(5, TimeUnit.SECONDS));
+
+      assertThat(quiet.submit(() -> "done").get(5, TimeUnit.SECONDS)).isEqualTo("done");
+      assertThat(hot.stats().getActive()).isEqualTo(1);
+      assertThat(hot.stats().getQueued()).isEqualTo(1);
+      assertThat(quiet.stats().getCompleted()).isEqualTo(1);
+      assertThat(hot.stats().getCompleted()).isEqualTo(0);
+
+      release.countDown();
+      assertThat(first.get(5, TimeUnit.SECONDS)).isTrue();
+      assertThat(second.get(5, TimeUnit.SECONDS)).isTrue();
+    } finally {
+      release.countDown();
+      shared.close();
+    }
+  }
+
+}
@@ -0,0 +1,89 @@
+package com.sixsprints.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.google.common.collect.ImmutableList;
+import com.sixsprints.core.domain.HookEvent;
+import com.sixsprints.core.dto.AsyncHookConfig;
+import com.sixsprints.core.enums.HookType;
+import com.sixsprints.core.exception.BaseRuntimeException;
+import com.sixsprints.core.generic.AsyncHookDispatcher;
+
+public class AsyncHookDispatcherTest {
+
+  @Test
+  public void shouldFailLoudlyWithoutTransaction() {
+    MongoOperations mongo = mock(MongoOperations.class);
+    AsyncHookDispatcher dispatcher = new AsyncHookDispatcher("users", AsyncHookConfig.builder()
+      .pollIntervalMillis(60000).build(), mongo, (hookType, entities) -> {
+      });
+    try {
+      assertThatThrownBy(() -> dispatcher.record(ImmutableList.of(HookType.POST_SAVE), ImmutableList.of("1"),
+        ImmutableList.of(new Document("_id", "1")))).isInstanceOf(BaseRuntimeException.class);
+      verify(mongo, never()).insert(any(HookEvent.class));
+    } finally {
+      dispatcher.close();
+    }
+  }
+
+  @Test
+  public void shouldRunAllHookTypesOfOneEventWithTheRecordedEntities() throws InterruptedException {
+    MongoOperations mongo = mock(MongoOperations.class);
+    when(mongo.insert(any(HookEvent.class))).thenAnswer(invocation -> {
+      HookEvent event = invocation.getArgument(0);
+      event.setId("event");
+      event.setAttempts(1);
+      return event;
+    });
+    ArgumentCaptor<HookEvent> recorded = ArgumentCaptor.forClass(HookEvent.class);
+    when(mongo.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+      eq(HookEvent.class))).thenAnswer(invocation -> {
+        verify(mongo).insert(recorded.capture());
+        return recorded.getValue();
+      });
+
+    List<HookType> ran = new CopyOnWriteArrayList<>();
+    List<Document> seen = new CopyOnWriteArrayList<>();
+    CountDownLatch done = new CountDownLatch(2);
+    AsyncHookDispatcher dispatcher = new AsyncHookDispatcher("users", AsyncHookConfig.builder()
+      .transactional(false).pollIntervalMillis(60000).build(), mongo, (hookType, entities) -> {
+        ran.add(hookType);
+        seen.addAll(entities);
+        done.countDown();
+      });
+    try {
+      Document snapshot = new Document("_id", "1").append("name", "Name1");
+      dispatcher.record(ImmutableList.of(HookType.POST_SAVE, HookType.POST_CREATE), ImmutableList.of("1"),
+        ImmutableList.of(snapshot));
+
+      assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+      assertThat(ran).containsExactly(HookType.POST_SAVE, HookType.POST_CREATE);
+      assertThat(seen).containsExactly(snapshot, snapshot);
+      verify(mongo, times(1)).insert(any(HookEvent.class));
+    } finally {
+      dispatcher.close();
+    }
+  }
+
+}
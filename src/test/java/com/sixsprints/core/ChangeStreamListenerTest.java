@@ -0,0 +1,145 @@
+package com.sixsprints.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.sixsprints.core.cache.ChangeStreamListener;
+import com.sixsprints.core.cache.EntityChangedEvent;
+import com.sixsprints.core.domain.ChangeStreamToken;
+
+import de.flapdoodle.embed.mongo.MongodExecutable;
+import de.flapdoodle.embed.mongo.MongodStarter;
+import de.flapdoodle.embed.mongo.config.MongodConfigBuilder;
+import de.flapdoodle.embed.mongo.config.Net;
+import de.flapdoodle.embed.mongo.config.Storage;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.process.runtime.Network;
+
+// Runs against its own single-node replica set, since change streams are not available on a standalone mongod.
+public class ChangeStreamListenerTest {
+
+  private static final String REPLICA_SET = "rs0";
+
+  private static final String NAME = "changeStreamTest";
+
+  private static final String COLLECTION = "watched";
+
+  private static MongodExecutable mongod;
+
+  private static MongoClient client;
+
+  private MongoTemplate mongo;
+
+  private ChangeStreamListener listener;
+
+  private final List<EntityChangedEvent> events = new CopyOnWriteArrayList<>();
+
+  @BeforeClass
+  public static void startReplicaSet() throws Exception {
+    int port = Network.getFreeServerPort();
+    mongod = MongodStarter.getDefaultInstance().prepare(new MongodConfigBuilder().version(Version.Main.PRODUCTION)
+      .net(new Net("localhost", port, Network.localhostIsIPv6())).replication(new Storage(null, REPLICA_SET, 0))
+      .build());
+    mongod.start();
+    client = MongoClients.create("mongodb://localhost:" + port);
+    client.getDatabase("admin").runCommand(new Document("replSetInitiate", new Document("_id", REPLICA_SET)
+      .append("members", Arrays.asList(new Document("_id", 0).append("host", "localhost:" + port)))));
+    await(() -> client.getDatabase("admin").runCommand(new Document("isMaster", 1)).getBoolean("ismaster"));
+  }
+
+  @AfterClass
+  public static void stopReplicaSet() {
+    if (client != null) {
+      client.close();
+    }
+    if (mongod != null) {
+      mongod.stop();
+    }
+  }
+
+  @Before
+  public void before() {
+    mongo = new MongoTemplate(client, NAME);
+    mongo.getDb().drop();
+    listener = new ChangeStreamListener(mongo, event -> {
+    }, NAME);
+    listener.register(COLLECTION, events::add);
+    listener.start();
+  }
+
+  @After
+  public void after() {
+    listener.stop();
+  }
+
+  @Test
+  public void shouldPublishChangesOfWatchedCollections() {
+    ObjectId id = insertUntilObserved();
+    assertThat(events).anyMatch(event -> COLLECTION.equals(event.getCollection())
+      && id.toHexString().equals(event.getEntityId()) && "insert".equals(event.getOperation()));
+    assertThat(listener.isUnsupported()).isFalse();
+  }
+
+  @Test
+  public void shouldResumeFromPersistedTokenAfterRestart() {
+    insertUntilObserved();
+    await(() -> mongo.findById(NAME, ChangeStreamToken.class) != null);
+    listener.stop();
+
+    ObjectId missed = new ObjectId();
+    mongo.getCollection(COLLECTION).insertOne(new Document("_id", missed));
+    listener.start();
+
+    await(() -> events.stream().anyMatch(event -> missed.toHexString().equals(event.getEntityId())));
+  }
+
+  // The first cursor may open after an insert, so keep writing until one of them is observed.
+  private ObjectId insertUntilObserved() {
+    for (int i = 0; i < 100; i++) {
+      ObjectId id = new ObjectId();
+      mongo.getCollection(COLLECTION).insertOne(new Document("_id", id));
+      if (poll(() -> events.stream().anyMatch(event -> id.toHexString().equals(event.getEntityId())), 500)) {
+        return id;
+      }
+    }
+    throw new AssertionError("No change event was published");
+  }
+
+  private static void await(Supplier<Boolean> condition) {
+    if (!poll(condition, 30000)) {
+      throw new AssertionError("Condition not met within 30 seconds");
+    }
+  }
+
+  private static boolean poll(Supplier<Boolean> condition, long timeoutMillis) {
+    long deadline = System.currentTimeMillis() + timeoutMillis;
+    while (System.currentTimeMillis() < deadline) {
+      if (Boolean.TRUE.equals(condition.get())) {
+        return true;
+      }
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+    return false;
+  }
+
+}
@@ -0,0 +1,94 @@
+package com.sixsprints.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import com.sixsprints.core.cache.CoalescingLoader;
+import com.sixsprints.core.dto.LoaderConfig;
+
+public class CoalescingLoaderTest {
+
+  private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+  @Test
+  public void shouldCoalesceKeysWithinTheWindow() throws Exception {
+    CoalescingLoader<String> loader = loader(LoaderConfig.builder().windowMillis(50).build());
+    try {
+      CompletableFuture<String> first = loader.load("a");
+      CompletableFuture<String> duplicate = loader.load("a");
+      CompletableFuture<String> second = loader.load("b");
+
+      assertThat(duplicate).isSameAs(first);
+      assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("A");
+      assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("B");
+      assertThat(batches).containsExactly(Arrays.asList("a", "b"));
+    } finally {
+      loader.close();
+    }
+  }
+
+  @Test
+  public void shouldDispatchFullBatchesImmediately() throws Exception {
+    CoalescingLoader<String> loader = loader(LoaderConfig.builder().windowMillis(TimeUnit.HOURS.toMillis(1))
+      .maxBatchSize(2).build());
+    try {
+      loader.load("a");
+      assertThat(loader.load("b").get(5, TimeUnit.SECONDS)).isEqualTo("B");
+      assertThat(batches).containsExactly(Arrays.asList("a", "b"));
+    } finally {
+      loader.close();
+    }
+  }
+
+  @Test
+  public void shouldLoadOutsideTheLockOnceClosed() throws Exception {
+    AtomicReference<CoalescingLoader<String>> self = new AtomicReference<>();
+    CoalescingLoader<String> loader = new CoalescingLoader<>("test", LoaderConfig.builder().build(), keys -> {
+      assertThat(Thread.holdsLock(self.get())).isFalse();
+      return values(keys);
+    });
+    self.set(loader);
+    loader.close();
+
+    assertThat(loader.load("a").get(5, TimeUnit.SECONDS)).isEqualTo("A");
+  }
+
+  @Test
+  public void shouldFailEveryKeyOfAFailedBatch() {
+    CoalescingLoader<String> loader = new CoalescingLoader<>("test", LoaderConfig.builder().build(), keys -> {
+      throw new IllegalStateException("down");
+    });
+    try {
+      assertThatThrownBy(() -> loader.load("a").get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(IllegalStateException.class);
+    } finally {
+      loader.close();
+    }
+  }
+
+  private CoalescingLoader<String> loader(LoaderConfig config) {
+    return new CoalescingLoader<>("test", config, keys -> {
+      batches.add(keys);
+      return values(keys);
+    });
+  }
+
+  private Map<String, String> values(List<String> keys) {
+    Map<String, String> values = new HashMap<>();
+    keys.forEach(key -> values.put(key, key.toUpperCase()));
+    return values;
+  }
+
+}
@@ -0,0 +1,29 @@
+package com.sixsprints.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+
+import org.bson.Document;
+import org.junit.Test;
+
+import com.sixsprints.core.utils.ContentHashUtil;
+
+public class ContentHashUtilTest {
+
+  @Test
+  public void shouldIgnoreEntityFields() {
+    Document content = new Document("name", "Name").append("email", "a@b.com");
+    Document stored = new Document(content).append("_id", "1").append("slug", "U1").append("dateModified", new Date())
+      .append(ContentHashUtil.HASH, "stale");
+    assertThat(ContentHashUtil.hash(stored)).isEqualTo(ContentHashUtil.hash(content));
+    assertThat(stored.get(ContentHashUtil.HASH)).isEqualTo("stale");
+  }
+
+  @Test
+  public void shouldChangeWithContent() {
+    assertThat(ContentHashUtil.hash(new Document("name", "Name")))
+      .isNotEqualTo(ContentHashUtil.hash(new Document("name", "Changed")));
+  }
+
+}
@@ -0,0 +1,128 @@
+package com.sixsprints.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+
+import org.bson.Document;
+import org.junit.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import com.sixsprints.core.cache.EntityCache;
+import com.sixsprints.core.dto.CacheConfig;
+import com.sixsprints.core.dto.CacheStats;
+import com.sixsprints.core.dto.MetaData;
+import com.sixsprints.core.generic.GenericServiceSupport;
+import com.sixsprints.core.mock.domain.User;
+
+public class EntityCacheTest {
+
+  @Test
+  public void shouldReturnCachedDocumentByIdAndSlug() {
+    EntityCache cache = new EntityCache(CacheConfig.builder().build());
+    cache.put("1", "U1", new Document("name", "one"));
+
+    assertThat(cache.get("1").getString("name")).isEqualTo("one");
+    assertThat(cache.idForSlug("U1")).isEqualTo("1");
+    assertThat(cache.get("2")).isNull();
+
+    CacheStats stats = cache.stats();
+    assertThat(stats.getHits()).isEqualTo(1);
+    assertThat(stats.getMisses()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldEvictLeastRecentlyUsedWhenFull() {
+    EntityCache cache = new EntityCache(CacheConfig.builder().maxSize(2).build());
+    cache.put("1", "U1", new Document());
+    cache.put("2", "U2", new Document());
+    cache.get("1");
+    cache.put("3", "U3", new Document());
+
+    assertThat(cache.get("2")).isNull();
+    assertThat(cache.idForSlug("U2")).isNull();
+    assertThat(cache.get("1")).isNotNull();
+    assertThat(cache.stats().getEvictions()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldExpireEntriesAfterTtl() throws InterruptedException {
+    EntityCache cache = new EntityCache(CacheConfig.builder().ttlMillis(1).build());
+    cache.put("1", "U1", new Document());
+    Thread.sleep(5);
+
+    assertThat(cache.get("1")).isNull();
+    assertThat(cache.stats().getSize()).isEqualTo(0);
+  }
+
+  @Test
+  public void shouldRejectFillsReadBeforeAnInvalidation() {
+    EntityCache cache = new EntityCache(CacheConfig.builder().build());
+    long generation = cache.generation();
+    cache.invalidate("1");
+
+    assertThat(cache.put("1", "U1", new Document("name", "stale"), generation)).isFalse();
+    assertThat(cache.get("1")).isNull();
+    assertThat(cache.put("1", "U1", new Document("name", "fresh"), cache.generation())).isTrue();
+    assertThat(cache.get("1").getString("name")).isEqualTo("fresh");
+  }
+
+  @Test
+  public void shouldInvalidateEntries() {
+    EntityCache cache = new EntityCache(CacheConfig.builder().build());
+    cache.put("1", "U1", new Document());
+    cache.invalidate("1");
+
+    assertThat(cache.get("1")).isNull();
+    assertThat(cache.idForSlug("U1")).isNull();
+    assertThat(cache.stats().getInvalidations()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldBeInvalidatedByWritesThroughAnyServiceOfTheCollection() {
+    UserCaches reader = new UserCaches();
+    UserCaches writer = new UserCaches();
+    EntityCache cache = new EntityCache(CacheConfig.builder().build());
+    reader.register(cache);
+    cache.put("1", "U1", new Document());
+    long generation = reader.filterGeneration();
+
+    writer.invalidate("1");
+
+    assertThat(cache.get("1")).isNull();
+    assertThat(reader.filterGeneration()).isGreaterThan(generation);
+  }
+
+  private static class UserCaches extends GenericServiceSupport<User> {
+
+    private final MongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE,
+      new MongoMappingContext());
+
+    @Override
+    protected MetaData<User> metaData(User entity) {
+      return MetaData.<User>builder().classType(User.class).build();
+    }
+
+    @Override
+    protected MongoConverter converter() {
+      return converter;
+    }
+
+    private void register(EntityCache cache) {
+      registerEntityCache(cache);
+    }
+
+    private void invalidate(String id) {
+      invalidateCaches(Collections.singletonList(id));
+    }
+
+    private long filterGeneration() {
+      return filterCacheGeneration().get();
+    }
+
+  }
+
+}
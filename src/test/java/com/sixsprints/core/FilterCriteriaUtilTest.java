@@ -0,0 +1,67 @@
+package com.sixsprints.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Date;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.Test;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.http.HttpStatus;
+
+import com.google.common.collect.ImmutableList;
+import com.sixsprints.core.dto.FieldDto;
+import com.sixsprints.core.dto.FilterRequestDto;
+import com.sixsprints.core.dto.MetaData;
+import com.sixsprints.core.dto.filter.ColumnModel;
+import com.sixsprints.core.enums.DataType;
+import com.sixsprints.core.exception.BaseRuntimeException;
+import com.sixsprints.core.mock.domain.User;
+import com.sixsprints.core.utils.FilterCriteriaUtil;
+
+public class FilterCriteriaUtilTest {
+
+  private static final MetaData<User> META = MetaData.<User>builder().classType(User.class)
+    .fields(ImmutableList.of(FieldDto.builder().name("dateCreated").dataType(DataType.DATE).build(),
+      FieldDto.builder().name("sequence").dataType(DataType.NUMBER).build()))
+    .build();
+
+  @Test
+  public void shouldMatchDateGroupKeysAsDates() {
+    Date date = new Date(1577836800000L);
+
+    assertThat(groupKeyValue("dateCreated", "1577836800000")).isEqualTo(date);
+    assertThat(groupKeyValue("dateCreated", "2020-01-01T00:00:00.000+0000")).isEqualTo(date);
+  }
+
+  @Test
+  public void shouldRejectMalformedGroupKeysAsBadRequest() {
+    assertThatThrownBy(() -> groupKeyValue("sequence", "12abc")).isInstanceOf(BaseRuntimeException.class)
+      .hasFieldOrPropertyWithValue("httpStatus", HttpStatus.BAD_REQUEST);
+    assertThatThrownBy(() -> groupKeyValue("dateCreated", "yesterday")).isInstanceOf(BaseRuntimeException.class)
+      .hasFieldOrPropertyWithValue("httpStatus", HttpStatus.BAD_REQUEST);
+  }
+
+  @Test
+  public void shouldKeepGroupKeysOutOfFilterCriteria() {
+    FilterRequestDto request = request("sequence", "7");
+
+    assertThat(FilterCriteriaUtil.buildCriteria(request, META).getCriteriaObject()).isEmpty();
+    assertThat(FilterCriteriaUtil.buildGroupKeyCriteria(FilterRequestDto.builder().build(), META)).isNull();
+  }
+
+  private Object groupKeyValue(String field, String key) {
+    Criteria criteria = FilterCriteriaUtil.buildGroupKeyCriteria(request(field, key), META);
+    @SuppressWarnings("unchecked")
+    List<Document> and = (List<Document>) criteria.getCriteriaObject().get("$and");
+    return and.get(0).get(field);
+  }
+
+  private FilterRequestDto request(String field, String key) {
+    return FilterRequestDto.builder().rowGroupCols(ImmutableList.of(ColumnModel.builder().field(field).build()))
+      .groupKeys(ImmutableList.of(key)).build();
+  }
+
+}
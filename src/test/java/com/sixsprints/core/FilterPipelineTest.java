@@ -0,0 +1,102 @@
+package com.sixsprints.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.sixsprints.core.dto.FilterRequestDto;
+import com.sixsprints.core.dto.MetaData;
+import com.sixsprints.core.dto.filter.SetColumnFilter;
+import com.sixsprints.core.dto.filter.SortModel;
+import com.sixsprints.core.generic.GenericServiceSupport;
+import com.sixsprints.core.mock.domain.User;
+import com.sixsprints.core.mock.util.UserFieldData;
+
+public class FilterPipelineTest {
+
+  private final UserPipelines pipelines = new UserPipelines();
+
+  @Test
+  public void shouldJoinDeepFiltersInsideThePipeline() {
+    FilterRequestDto request = FilterRequestDto.builder().deepFilter(true).page(1).size(10)
+      .filterModel(ImmutableMap.of("name", SetColumnFilter.builder().values(ImmutableList.of("Name1")).build(),
+        "roleName.slug", SetColumnFilter.builder().values(ImmutableList.of("R1")).build()))
+      .build();
+
+    List<Document> pipeline = pipelines.page(Criteria.where("name").in("Name1"), request, Sort.unsorted());
+
+    assertThat(pipeline).extracting(stage -> stage.keySet().iterator().next())
+      .containsExactly("$match", "$lookup", "$match", "$facet");
+    assertThat(pipeline.get(0).toJson()).contains("name").doesNotContain("roleName");
+    Document lookup = pipeline.get(1).get("$lookup", Document.class);
+    assertThat(lookup.getString("from")).isEqualTo("role");
+    assertThat(lookup.get("let", Document.class).getString("reference")).isEqualTo("$roleName");
+    assertThat(lookup.getList("pipeline", Document.class).get(0).toJson()).contains("slug").contains("R1");
+    assertThat(pipeline.get(2).toJson()).contains("_deep_roleName");
+    Document facet = pipeline.get(3).get("$facet", Document.class);
+    assertThat(facet.getList("rows", Document.class)).extracting(stage -> stage.keySet().iterator().next())
+      .containsExactly("$skip", "$limit", "$project");
+    assertThat(facet.getList("rows", Document.class).get(0).get("$skip")).isEqualTo(10L);
+  }
+
+  @Test
+  public void shouldJoinSortOnlyReferencesWithoutNarrowingTheRows() {
+    FilterRequestDto request = FilterRequestDto.builder().deepFilter(true).page(0).size(10)
+      .sortModel(ImmutableList.of(SortModel.builder().colId("roleName.slug").sort(Sort.Direction.DESC).build()))
+      .build();
+
+    List<Document> pipeline = pipelines.page(new Criteria(), request, Sort.by(Sort.Direction.DESC, "roleName.slug"));
+
+    assertThat(pipeline).extracting(stage -> stage.keySet().iterator().next())
+      .containsExactly("$match", "$lookup", "$facet");
+    Document rows = pipeline.get(2).get("$facet", Document.class).getList("rows", Document.class).get(0);
+    assertThat(rows.get("$sort", Document.class)).containsEntry("_deep_roleName.slug", -1);
+  }
+
+  @Test
+  public void shouldNotJoinPlainRequests() {
+    FilterRequestDto request = FilterRequestDto.builder().page(0).size(10)
+      .filterModel(ImmutableMap.of("roleName.slug", SetColumnFilter.builder().values(ImmutableList.of("R1")).build()))
+      .build();
+
+    assertThat(pipelines.joined(request)).isFalse();
+  }
+
+  private static class UserPipelines extends GenericServiceSupport<User> {
+
+    private final MongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE,
+      new MongoMappingContext());
+
+    @Override
+    protected MetaData<User> metaData(User entity) {
+      return MetaData.<User>builder().classType(User.class).fields(UserFieldData.fields()).build();
+    }
+
+    @Override
+    protected MongoConverter converter() {
+      return converter;
+    }
+
+    private List<Document> page(Criteria local, FilterRequestDto request, Sort sort) {
+      return joinedPagePipeline(local, request, PageRequest.of(request.getPage(), request.getSize(), sort), metaData());
+    }
+
+    private boolean joined(FilterRequestDto request) {
+      return !joinedFields(request, Sort.unsorted(), metaData()).isEmpty();
+    }
+
+  }
+
+}
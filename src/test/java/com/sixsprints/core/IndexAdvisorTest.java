@@ -0,0 +1,128 @@
+package com.sixsprints.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import com.google.common.collect.ImmutableList;
+import com.sixsprints.core.dto.IndexAdvisorConfig;
+import com.sixsprints.core.dto.IndexCandidate;
+import com.sixsprints.core.monitoring.IndexAdvisor;
+
+public class IndexAdvisorTest {
+
+  private final MongoOperations mongo = mock(MongoOperations.class);
+
+  private IndexAdvisor advisor;
+
+  @After
+  public void tearDown() {
+    advisor.destroy();
+  }
+
+  @Test
+  public void shouldOrderKeysEqualityThenSortThenRange() throws InterruptedException {
+    advisor = advisor(IndexAdvisorConfig.builder().build());
+    when(mongo.executeCommand(any(Document.class))).thenReturn(explain("COLLSCAN", 100, 1));
+
+    Document query = new Document("status", "A").append("age", new Document("$gt", 5))
+      .append("name", Pattern.compile("^jo")).append("role", new Document("$in", ImmutableList.of("admin")));
+    advisor.record("users", query, new Document("dateCreated", -1), 0, 500);
+
+    IndexCandidate candidate = awaitCandidates(1).get(0);
+    assertThat(new ArrayList<>(candidate.getKeys().keySet()))
+      .containsExactly("role", "status", "dateCreated", "age", "name");
+    assertThat(candidate.getKeys().get("dateCreated")).isEqualTo(-1);
+    assertThat(candidate.getKeys().get("age")).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldProposeOnlyCollscansAndWastefulPlans() throws InterruptedException {
+    advisor = advisor(IndexAdvisorConfig.builder().build());
+    when(mongo.executeCommand(any(Document.class))).thenAnswer(invocation -> {
+      Document filter = (Document) ((Document) invocation.<Document>getArgument(0).get("explain")).get("filter");
+      if (filter.containsKey("efficient")) {
+        return explain("IXSCAN", 10, 10);
+      }
+      return filter.containsKey("wasteful") ? explain("IXSCAN", 1000, 10) : explain("COLLSCAN", 50, 5);
+    });
+
+    advisor.record("users", new Document("efficient", 1), null, 0, 500);
+    advisor.record("users", new Document("wasteful", 1), null, 0, 500);
+    advisor.record("users", new Document("scanned", 1), null, 0, 500);
+
+    List<IndexCandidate> candidates = awaitCandidates(2);
+    assertThat(shapes(candidates)).containsExactly("users{wasteful=1}", "users{scanned=1}");
+    assertThat(candidates.get(0).getEstimatedDocsExaminedSaved()).isEqualTo(990);
+    assertThat(candidates.get(1).getWinningStage()).isEqualTo("COLLSCAN");
+  }
+
+  @Test
+  public void shouldRetryTheExplainOfAShapeAfterAFailure() throws InterruptedException {
+    advisor = advisor(IndexAdvisorConfig.builder().build());
+    when(mongo.executeCommand(any(Document.class))).thenThrow(new IllegalStateException("interrupted"))
+      .thenReturn(explain("COLLSCAN", 100, 1));
+
+    long deadline = System.currentTimeMillis() + 5000;
+    while (advisor.candidates().isEmpty() && System.currentTimeMillis() < deadline) {
+      advisor.record("users", new Document("email", "a@b.c"), null, 0, 500);
+      Thread.sleep(10);
+    }
+
+    assertThat(shapes(advisor.candidates())).containsExactly("users{email=1}");
+    verify(mongo, times(2)).executeCommand(any(Document.class));
+  }
+
+  @Test
+  public void shouldEvictTheColdestShapeAtCapacity() throws InterruptedException {
+    advisor = advisor(IndexAdvisorConfig.builder().maxShapes(2).build());
+    when(mongo.executeCommand(any(Document.class))).thenReturn(explain("COLLSCAN", 100, 1));
+
+    advisor.record("users", new Document("hot", 1), null, 0, 500);
+    advisor.record("users", new Document("hot", 2), null, 0, 5);
+    advisor.record("users", new Document("cold", 1), null, 0, 500);
+    advisor.record("users", new Document("fresh", 1), null, 0, 500);
+
+    long deadline = System.currentTimeMillis() + 5000;
+    while (!shapes(advisor.candidates()).contains("users{fresh=1}") && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(shapes(advisor.candidates())).containsExactlyInAnyOrder("users{hot=1}", "users{fresh=1}");
+  }
+
+  private IndexAdvisor advisor(IndexAdvisorConfig config) {
+    return new IndexAdvisor(mongo, config);
+  }
+
+  private List<IndexCandidate> awaitCandidates(int count) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (advisor.candidates().size() < count && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    return advisor.candidates();
+  }
+
+  private List<String> shapes(List<IndexCandidate> candidates) {
+    return candidates.stream().map(IndexCandidate::getShape).collect(Collectors.toList());
+  }
+
+  private Document explain(String stage, long docsExamined, long nReturned) {
+    Document winningPlan = new Document("stage", "FETCH").append("inputStage", new Document("stage", stage));
+    return new Document("queryPlanner", new Document("winningPlan", winningPlan))
+      .append("executionStats", new Document("totalDocsExamined", docsExamined).append("nReturned", nReturned));
+  }
+
+}
@@ -0,0 +1,58 @@
+package com.sixsprints.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+import com.google.common.collect.ImmutableList;
+import com.sixsprints.core.dto.FieldDto;
+import com.sixsprints.core.dto.IndexPlan;
+import com.sixsprints.core.dto.MetaData;
+import com.sixsprints.core.enums.DataType;
+import com.sixsprints.core.generic.read.IndexProvisioner;
+import com.sixsprints.core.mock.domain.User;
+
+public class IndexProvisionerTest {
+
+  @Test
+  public void shouldSkipBooleanColumns() {
+    List<IndexPlan> plans = plan(MetaData.<User>builder().classType(User.class)
+      .fields(ImmutableList.of(field("flag", DataType.BOOLEAN), field("status", DataType.SELECT))).build());
+
+    assertThat(plans).extracting(plan -> plan.getKeys().toString()).containsExactly("{active=1}", "{status=1}");
+  }
+
+  @Test
+  public void shouldCapTheMissingIndexesInPlanOrder() {
+    List<IndexPlan> plans = plan(MetaData.<User>builder().classType(User.class).maxPlannedIndexes(3)
+      .defaultSort(Sort.by(Sort.Direction.DESC, "dateModified"))
+      .fields(ImmutableList.of(field("status", DataType.SELECT), field("gender", DataType.ENUM),
+        field("dateCreated", DataType.DATE)))
+      .build());
+
+    assertThat(plans).extracting(IndexPlan::getReason).containsExactly("active", "defaultSort", "set:status");
+    assertThat(plans.get(2).getKeys()).containsExactly(entry("status", 1), entry("dateModified", -1));
+  }
+
+  private List<IndexPlan> plan(MetaData<User> meta) {
+    MongoOperations mongo = mock(MongoOperations.class);
+    IndexOperations indexOps = mock(IndexOperations.class);
+    when(mongo.getCollectionName(User.class)).thenReturn("user");
+    when(mongo.indexOps(User.class)).thenReturn(indexOps);
+    when(indexOps.getIndexInfo()).thenReturn(ImmutableList.of());
+    return new IndexProvisioner(mongo, meta).plan();
+  }
+
+  private FieldDto field(String name, DataType dataType) {
+    return FieldDto.builder().name(name).dataType(dataType).build();
+  }
+
+}
@@ -0,0 +1,70 @@
+package com.sixsprints.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDbFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.collect.ImmutableMap;
+import com.mongodb.ReadPreference;
+import com.sixsprints.core.enums.ReadOperation;
+import com.sixsprints.core.generic.read.ReadPreferenceRouter;
+import com.sixsprints.core.monitoring.ServiceMetrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ReadPreferenceRouterTest {
+
+  private SimpleMongoClientDbFactory dbFactory;
+
+  private MongoTemplate primary;
+
+  private StaticApplicationContext context;
+
+  private ReadPreferenceRouter router;
+
+  @Before
+  public void setUp() {
+    dbFactory = new SimpleMongoClientDbFactory("mongodb://localhost/test");
+    primary = new MongoTemplate(dbFactory);
+    context = new StaticApplicationContext();
+    context.refresh();
+    router = new ReadPreferenceRouter(primary,
+      ImmutableMap.of(ReadOperation.EXPORT, ReadPreference.secondaryPreferred(),
+        ReadOperation.FILTER, ReadPreference.primary()),
+      context, new ServiceMetrics(new SimpleMeterRegistry(), "User", false));
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    context.close();
+    dbFactory.destroy();
+  }
+
+  @Test
+  public void shouldRouteToAContextAwareTemplateWithThePreference() {
+    MongoOperations routed = router.route(ReadOperation.EXPORT);
+
+    assertThat(routed).isNotSameAs(primary).isSameAs(router.route(ReadOperation.EXPORT));
+    assertThat(ReflectionTestUtils.getField(routed, "readPreference")).isEqualTo(ReadPreference.secondaryPreferred());
+    assertThat(ReflectionTestUtils.getField(routed, "eventPublisher")).isSameAs(context);
+    assertThat(router.route(ReadOperation.FILTER)).isSameAs(primary);
+    assertThat(router.route(ReadOperation.STREAM)).isSameAs(primary);
+  }
+
+  @Test
+  public void shouldCountRoutesInTheMeterRegistry() {
+    router.route(ReadOperation.EXPORT);
+    router.route(ReadOperation.EXPORT);
+    router.route(ReadOperation.FILTER);
+
+    assertThat(router.stats()).containsEntry("EXPORT:secondaryPreferred", 2L).containsEntry("FILTER:primary", 1L);
+  }
+
+}
@@ -0,0 +1,50 @@
+package com.sixsprints.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.sixsprints.core.monitoring.ServiceMetrics;
+
+import io.micrometer.core.instrument.Meter.Id;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.distribution.pause.PauseDetector;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ServiceMetricsTest {
+
+  @Test
+  public void shouldTimeOnlyTheOutermostOperation() {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    ServiceMetrics metrics = new ServiceMetrics(registry, "User", false);
+
+    metrics.run("softDelete", () -> metrics.run("softDelete", () -> metrics.time("save", () -> "saved")));
+    metrics.run("softDelete", () -> {
+    });
+
+    assertThat(registry.get(ServiceMetrics.TIMER).tag("operation", "softDelete").timer().count()).isEqualTo(2);
+    assertThat(registry.find(ServiceMetrics.TIMER).tag("operation", "save").timer()).isNull();
+  }
+
+  @Test
+  public void shouldNotPublishHistogramsByDefault() {
+    Map<String, Boolean> histograms = new HashMap<>();
+    MeterRegistry registry = new SimpleMeterRegistry() {
+      @Override
+      protected Timer newTimer(Id id, DistributionStatisticConfig config, PauseDetector pauseDetector) {
+        histograms.put(id.getTag("entity"), config.isPublishingHistogram());
+        return super.newTimer(id, config, pauseDetector);
+      }
+    };
+    new ServiceMetrics(registry, "User", false).time("findOne", () -> "found");
+    new ServiceMetrics(registry, "Role", true).time("findOne", () -> "found");
+
+    assertThat(histograms).containsEntry("User", false).containsEntry("Role", true);
+  }
+
+}
@@ -0,0 +1,75 @@
+package com.sixsprints.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import com.sixsprints.core.cache.SingleFlightCache;
+import com.sixsprints.core.dto.FilterCacheConfig;
+
+public class SingleFlightCacheTest {
+
+  private static final FilterCacheConfig CONFIG = FilterCacheConfig.builder().ttlMillis(60000).build();
+
+  @Test
+  public void shouldServeCachedResultsUntilInvalidated() {
+    SingleFlightCache<String> cache = new SingleFlightCache<>(CONFIG);
+    AtomicInteger loads = new AtomicInteger();
+
+    assertThat(cache.get("q", () -> "v" + loads.incrementAndGet())).isEqualTo("v1");
+    assertThat(cache.get("q", () -> "v" + loads.incrementAndGet())).isEqualTo("v1");
+    cache.invalidateAll();
+    assertThat(cache.get("q", () -> "v" + loads.incrementAndGet())).isEqualTo("v2");
+  }
+
+  @Test
+  public void shouldInvalidateCachesSharingAGeneration() {
+    AtomicLong generation = new AtomicLong();
+    SingleFlightCache<String> parent = new SingleFlightCache<>(CONFIG, generation);
+    SingleFlightCache<String> subclass = new SingleFlightCache<>(CONFIG, generation);
+    SingleFlightCache<String> other = new SingleFlightCache<>(CONFIG);
+    parent.get("q", () -> "stale");
+    other.get("q", () -> "kept");
+
+    subclass.invalidateAll();
+
+    assertThat(parent.get("q", () -> "fresh")).isEqualTo("fresh");
+    assertThat(other.get("q", () -> "reloaded")).isEqualTo("kept");
+  }
+
+  @Test
+  public void shouldNotStoreALoadThatRacedAnInvalidation() throws Exception {
+    AtomicLong generation = new AtomicLong();
+    SingleFlightCache<String> parent = new SingleFlightCache<>(CONFIG, generation);
+    SingleFlightCache<String> subclass = new SingleFlightCache<>(CONFIG, generation);
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch invalidated = new CountDownLatch(1);
+
+    CompletableFuture<String> load = CompletableFuture.supplyAsync(() -> parent.get("q", () -> {
+      loading.countDown();
+      await(invalidated);
+      return "stale";
+    }));
+    await(loading);
+    subclass.invalidateAll();
+    invalidated.countDown();
+
+    assertThat(load.get(5, TimeUnit.SECONDS)).isEqualTo("stale");
+    assertThat(parent.get("q", () -> "fresh")).isEqualTo("fresh");
+  }
+
+  private void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+}
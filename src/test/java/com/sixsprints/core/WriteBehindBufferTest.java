@@ -0,0 +1,80 @@
+package com.sixsprints.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.sixsprints.core.dto.WriteBehindConfig;
+import com.sixsprints.core.generic.create.WriteBehindBuffer;
+import com.sixsprints.core.generic.create.WriteBehindBuffer.PendingWrite;
+
+public class WriteBehindBufferTest {
+
+  private final List<List<String>> flushed = new CopyOnWriteArrayList<>();
+
+  @Test
+  public void shouldFlushOnEveryAddWithoutInterval() throws Exception {
+    WriteBehindBuffer<String> buffer = buffer(WriteBehindConfig.builder().flushIntervalMillis(0).build());
+    try {
+      assertThat(buffer.add("a").get(5, TimeUnit.SECONDS)).isEqualTo("a");
+      assertThat(buffer.add("b").get(5, TimeUnit.SECONDS)).isEqualTo("b");
+      assertThat(flushed.stream().flatMap(List::stream)).containsExactly("a", "b");
+    } finally {
+      buffer.close();
+    }
+  }
+
+  @Test
+  public void shouldFlushFullBatches() throws Exception {
+    WriteBehindBuffer<String> buffer = buffer(WriteBehindConfig.builder().batchSize(2)
+      .flushIntervalMillis(TimeUnit.HOURS.toMillis(1)).build());
+    try {
+      CompletableFuture<String> first = buffer.add("a");
+      CompletableFuture<String> second = buffer.add("b");
+      CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+      assertThat(flushed).containsExactly(Arrays.asList("a", "b"));
+    } finally {
+      buffer.close();
+    }
+  }
+
+  @Test
+  public void shouldFlushPendingOnClose() throws Exception {
+    WriteBehindBuffer<String> buffer = buffer(WriteBehindConfig.builder()
+      .flushIntervalMillis(TimeUnit.HOURS.toMillis(1)).build());
+    CompletableFuture<String> pending = buffer.add("a");
+    buffer.close();
+    assertThat(pending.get(5, TimeUnit.SECONDS)).isEqualTo("a");
+  }
+
+  @Test
+  public void shouldFailEveryEntityOfAFailedFlush() {
+    WriteBehindBuffer<String> buffer = new WriteBehindBuffer<>("test",
+      WriteBehindConfig.builder().flushIntervalMillis(0).build(), batch -> {
+        throw new IllegalStateException("down");
+      });
+    try {
+      assertThatThrownBy(() -> buffer.add("a").get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(IllegalStateException.class);
+    } finally {
+      buffer.close();
+    }
+  }
+
+  private WriteBehindBuffer<String> buffer(WriteBehindConfig config) {
+    return new WriteBehindBuffer<>("test", config, batch -> {
+      flushed.add(batch.stream().map(PendingWrite::getEntity).collect(Collectors.toList()));
+      batch.forEach(write -> write.getFuture().complete(write.getEntity()));
+    });
+  }
+
+}
@@ -0,0 +1,8 @@
+package com.sixsprints.core.mock.service;
+
+import com.sixsprints.core.generic.reactive.ReactiveGenericCrudService;
+import com.sixsprints.core.mock.domain.User;
+
+public interface ReactiveUserService extends ReactiveGenericCrudService<User> {
+
+}
@@ -3,6 +3,7 @@ package com.sixsprints.core.mock.service.impl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.sixsprints.core.dto.FilterCacheConfig;
 import com.sixsprints.core.dto.MetaData;
 import com.sixsprints.core.mock.domain.inheritance.Animal;
 import com.sixsprints.core.mock.repository.inheritance.AnimalRepository;
@@ -22,7 +23,8 @@ public class AnimalServiceImpl extends AnimalAbstractService<Animal> implements
 
   @Override
   protected MetaData<Animal> metaData(Animal entity) {
-    return MetaData.<Animal>builder().classType(Animal.class).build();
+    return MetaData.<Animal>builder().classType(Animal.class)
+      .filterCache(FilterCacheConfig.builder().ttlMillis(60000).build()).build();
   }
 
 }
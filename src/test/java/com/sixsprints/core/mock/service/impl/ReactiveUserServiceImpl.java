@@ -0,0 +1,49 @@
+package com.sixsprints.core.mock.service.impl;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+import com.sixsprints.core.dto.MetaData;
+import com.sixsprints.core.generic.reactive.ReactiveAbstractCrudService;
+import com.sixsprints.core.mock.domain.User;
+import com.sixsprints.core.mock.dto.UserDto;
+import com.sixsprints.core.mock.service.ReactiveUserService;
+import com.sixsprints.core.mock.util.UserFieldData;
+
+@Service
+public class ReactiveUserServiceImpl extends ReactiveAbstractCrudService<User> implements ReactiveUserService {
+
+  private final List<String> hookThreads = new CopyOnWriteArrayList<>();
+
+  @Override
+  protected MetaData<User> metaData(User entity) {
+    return MetaData.<User>builder().collection("user").prefix("U")
+      .classType(User.class).dtoClassType(UserDto.class)
+      .fields(UserFieldData.fields())
+      .contentHash(true)
+      .build();
+  }
+
+  @Override
+  protected Criteria duplicateCriteria(User entity) {
+    return Criteria.where("email").is(entity.getEmail());
+  }
+
+  @Override
+  protected void preSave(User entity) {
+    hookThreads.add(Thread.currentThread().getName());
+  }
+
+  @Override
+  protected void preCreate(User entity) {
+    hookThreads.add(Thread.currentThread().getName());
+  }
+
+  public List<String> hookThreads() {
+    return hookThreads;
+  }
+
+}
@@ -1,9 +1,15 @@
 package com.sixsprints.core.mock.service.impl;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 
 import com.sixsprints.core.dto.MetaData;
+import com.sixsprints.core.dto.WriteBehindConfig;
+import com.sixsprints.core.exception.BaseRuntimeException;
 import com.sixsprints.core.mock.domain.User;
 import com.sixsprints.core.mock.dto.UserDto;
 import com.sixsprints.core.mock.repository.UserRepository;
@@ -16,6 +22,10 @@ import com.sixsprints.core.transformer.UserMapper;
 @Service
 public class UserServiceImpl extends AbstractCrudService<User> implements UserService {
 
+  public static final String FAILING_NAME = "Failing";
+
+  private final List<String> hookCalls = new CopyOnWriteArrayList<>();
+
   @Autowired
   private UserRepository userRepository;
 
@@ -29,21 +39,61 @@ public class UserServiceImpl extends AbstractCrudService<User> implements UserSe
     return MetaData.<User>builder().collection("user").prefix("U")
       .classType(User.class).dtoClassType(UserDto.class)
       .fields(UserFieldData.fields())
+      .contentHash(true)
+      .writeBehind(WriteBehindConfig.builder().flushIntervalMillis(0).build())
       .build();
   }
 
   @Override
-  protected User findDuplicate(User entity) {
-    return userRepository.findByEmail(entity.getEmail());
+  protected Criteria duplicateCriteria(User entity) {
+    return Criteria.where("email").is(entity.getEmail());
   }
 
   @Override
   protected void preSave(User entity) {
+    if (FAILING_NAME.equals(entity.getName())) {
+      throw BaseRuntimeException.builder().error("Failing user").build();
+    }
     if (entity.getFlag() == null) {
       entity.setFlag(true);
     }
   }
 
+  @Override
+  public User save(User entity) {
+    User saved = super.save(entity);
+    hookCalls.add("save:" + saved.getEmail());
+    return saved;
+  }
+
+  @Override
+  protected void postCreate(User user) {
+    hookCalls.add("postCreate:" + user.getEmail());
+  }
+
+  @Override
+  protected void postSaveAll(List<User> users) {
+    record("postSaveAll", users);
+  }
+
+  @Override
+  protected void postUpdateAll(List<User> users) {
+    record("postUpdateAll", users);
+  }
+
+  @Override
+  protected void postCreateAll(List<User> users) {
+    record("postCreateAll", users);
+  }
+
+  public List<String> hookCalls() {
+    return hookCalls;
+  }
+
+  private void record(String hook, List<User> users) {
+    users.forEach(user -> hookCalls.add(hook + ":" + user.getEmail()));
+  }
+
   @Override
   protected void copyNonNullValues(User source, User target) {
     UserMapper.INSTANCE.copyNonNull(source, target);
@@ -1,14 +1,17 @@
 package com.sixsprints.core.service;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.assertj.core.api.Assertions;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 
+import com.google.common.collect.ImmutableList;
 import com.sixsprints.core.ApplicationTests;
 import com.sixsprints.core.dto.FilterRequestDto;
+import com.sixsprints.core.exception.EntityNotFoundException;
 import com.sixsprints.core.mock.domain.inheritance.Animal;
 import com.sixsprints.core.mock.domain.inheritance.Parrot;
 import com.sixsprints.core.mock.domain.inheritance.Tiger;
@@ -37,6 +40,12 @@ public class InheritanceTest extends ApplicationTests {
     Assertions.assertThat(animalService.findByCanFly(false).size()).isEqualTo(1);
     Assertions.assertThat(parrotService.findAll().size()).isEqualTo(1);
     Assertions.assertThat(tigerService.findAll().size()).isEqualTo(1);
+    Assertions.assertThat(tigerService.findAll(0, 10).getContent()).extracting(Animal::getName)
+      .containsExactly("Bagheera");
+    Assertions.assertThat(tigerService.findAll(0, 10).getTotalElements()).isEqualTo(1);
+    try (Stream<Tiger> tigers = tigerService.streamAll()) {
+      Assertions.assertThat(tigers.count()).isEqualTo(tigerService.findAll().size());
+    }
     Assertions.assertThat(tigerService.findByCanFly(true).size()).isEqualTo(0);
     Assertions.assertThat(tigerService.findByCanFly(false).size()).isEqualTo(1);
     Assertions.assertThat(tigerService.filterAll(FilterRequestDto.builder().page(0).size(10).build()).size())
@@ -51,4 +60,25 @@ public class InheritanceTest extends ApplicationTests {
 
   }
 
+  @Test
+  public void shouldReadSingleEntitiesOfTheServiceTypeOnly() throws EntityNotFoundException {
+    Parrot parrot = parrotService.save(Parrot.builder().name("Iago").canFly(true).beakColor("red").build());
+    Assertions.assertThat(parrotService.findOne(parrot.getId()).getName()).isEqualTo("Iago");
+    Assertions.assertThat(animalService.findOne(parrot.getId()).getName()).isEqualTo("Iago");
+    Assertions.assertThatThrownBy(() -> tigerService.findOne(parrot.getId()))
+      .isInstanceOf(EntityNotFoundException.class);
+    Assertions.assertThat(tigerService.findByIds(ImmutableList.of(parrot.getId())).getMissing())
+      .containsExactly(parrot.getId());
+  }
+
+  @Test
+  public void shouldDropCachedFilterResultsOnWritesThroughASubclassService() {
+    FilterRequestDto all = FilterRequestDto.builder().page(0).size(10).build();
+    Assertions.assertThat(animalService.filter(all).getTotalElements()).isEqualTo(0);
+    Parrot parrot = parrotService.save(Parrot.builder().name("Iago").canFly(true).beakColor("red").build());
+    Assertions.assertThat(animalService.filter(all).getContent()).extracting(Animal::getName).containsExactly("Iago");
+    parrotService.delete(parrot);
+    Assertions.assertThat(animalService.filter(all).getTotalElements()).isEqualTo(0);
+  }
+
 }
@@ -0,0 +1,61 @@
+package com.sixsprints.core.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.sixsprints.core.ApplicationTests;
+import com.sixsprints.core.exception.EntityAlreadyExistsException;
+import com.sixsprints.core.mock.domain.User;
+import com.sixsprints.core.mock.service.UserService;
+import com.sixsprints.core.mock.service.impl.ReactiveUserServiceImpl;
+
+import reactor.core.publisher.Flux;
+
+public class ReactiveUserServiceTest extends ApplicationTests {
+
+  @Autowired
+  private ReactiveUserServiceImpl reactiveUserService;
+
+  @Autowired
+  private UserService userService;
+
+  @Test
+  public void shouldSaveAllInInputOrder() {
+    User existing = userService.save(user(1));
+    existing.setName("Changed");
+
+    List<User> saved = reactiveUserService.saveAll(Flux.just(user(2), existing, user(3))).collectList().block();
+    assertThat(saved).extracting(User::getEmail).containsExactly("email2@gmail.com", "email1@gmail.com",
+      "email3@gmail.com");
+    assertThat(saved).extracting(User::getSlug).containsExactly("U2", "U1", "U3");
+    assertThat(saved).allMatch(user -> user.getHash() != null);
+  }
+
+  @Test
+  public void shouldRunHooksOffDriverThreads() {
+    reactiveUserService.hookThreads().clear();
+    User created = reactiveUserService.create(user(1)).block();
+
+    assertThat(created.getSlug()).isEqualTo("U1");
+    assertThat(reactiveUserService.hookThreads()).hasSize(2)
+      .allMatch(thread -> thread.startsWith("boundedElastic"));
+  }
+
+  @Test
+  public void shouldRejectActiveDuplicateOnCreate() {
+    reactiveUserService.create(user(1)).block();
+
+    assertThatThrownBy(() -> reactiveUserService.create(user(1)).block())
+      .hasCauseInstanceOf(EntityAlreadyExistsException.class);
+  }
+
+  private User user(int i) {
+    return User.builder().email("email" + i + "@gmail.com").name("Name" + i).flag(true).build();
+  }
+
+}
@@ -1,41 +1,81 @@
 package com.sixsprints.core.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintWriter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
+import org.bson.Document;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.sixsprints.core.ApplicationTests;
 import com.sixsprints.core.dto.BulkUpdateInfo;
+import com.sixsprints.core.dto.DatasetConfig;
+import com.sixsprints.core.dto.DatasetStats;
+import com.sixsprints.core.dto.FilterRequestDto;
 import com.sixsprints.core.dto.ImportLogDetails;
 import com.sixsprints.core.dto.ImportResponseWrapper;
+import com.sixsprints.core.dto.IndexPlan;
+import com.sixsprints.core.dto.MetaData;
+import com.sixsprints.core.dto.MultiGetResult;
+import com.sixsprints.core.dto.RoundTripStats;
+import com.sixsprints.core.dto.filter.ColumnModel;
+import com.sixsprints.core.dto.filter.SetColumnFilter;
+import com.sixsprints.core.dto.filter.SortModel;
 import com.sixsprints.core.enums.UpdateAction;
 import com.sixsprints.core.exception.BaseException;
+import com.sixsprints.core.exception.BaseRuntimeException;
+import com.sixsprints.core.exception.EntityNotFoundException;
+import com.sixsprints.core.generic.create.DatasetGenerator;
 import com.sixsprints.core.mock.domain.Role;
 import com.sixsprints.core.mock.domain.User;
 import com.sixsprints.core.mock.domain.embedded.Address;
 import com.sixsprints.core.mock.dto.UserDto;
 import com.sixsprints.core.mock.service.UserService;
+import com.sixsprints.core.mock.service.impl.UserServiceImpl;
+import com.sixsprints.core.mock.util.UserFieldData;
+import com.sixsprints.core.monitoring.RoundTripTracker;
+import com.sixsprints.core.monitoring.ServiceMetrics;
 import com.sixsprints.core.transformer.UserMapper;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 public class UserServiceTest extends ApplicationTests {
 
   @Autowired
   private UserService userService;
 
+  @Autowired
+  private UserServiceImpl userServiceImpl;
+
   @Autowired
   private MongoOperations mongo;
 
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private RoundTripTracker roundTripTracker;
+
   private UserMapper userMapper = UserMapper.INSTANCE;
 
   @Test
@@ -79,6 +119,249 @@ public class UserServiceTest extends ApplicationTests {
     userAssert(user.get(0).getData(), i);
   }
 
+  @Test
+  public void shouldIgnoreUnchangedRowsUsingContentHash() {
+    userService.updateAll(ImmutableList.<User>of(user(1), user(2)));
+
+    List<BulkUpdateInfo<User>> users = userService.updateAll(ImmutableList.<User>of(user(1), user(2)));
+    int i = 1;
+    for (BulkUpdateInfo<User> user : users) {
+      assertThat(user.getUpdateAction()).isEqualTo(UpdateAction.IGNORE);
+      assertThat(user.getData().getHash()).isNotNull();
+      userAssert(user.getData(), i++);
+    }
+
+    User changed = user(1);
+    changed.setName("Changed");
+    users = userService.updateAll(ImmutableList.<User>of(changed));
+    assertThat(users.get(0).getUpdateAction()).isEqualTo(UpdateAction.UPDATE);
+    assertThat(users.get(0).getData().getName()).isEqualTo("Changed");
+  }
+
+  @Test
+  public void shouldFireListHooksPerAction() {
+    userService.updateAll(ImmutableList.<User>of(user(1)));
+    User changed = user(1);
+    changed.setName("Changed");
+    userServiceImpl.hookCalls().clear();
+
+    userService.updateAll(ImmutableList.<User>of(changed, user(2)));
+    assertThat(userServiceImpl.hookCalls()).containsExactly("postSaveAll:email1@gmail.com",
+      "postSaveAll:email2@gmail.com", "postUpdateAll:email1@gmail.com", "postCreateAll:email2@gmail.com");
+  }
+
+  @Test
+  public void shouldCreateThroughOverriddenSave() throws Exception {
+    userServiceImpl.hookCalls().clear();
+
+    userService.create(user(1));
+    assertThat(userServiceImpl.hookCalls()).containsExactly("save:email1@gmail.com", "postCreate:email1@gmail.com");
+  }
+
+  @Test
+  public void shouldFireHooksForRowsWrittenBeforeFailure() {
+    User failing = user(2);
+    failing.setName(UserServiceImpl.FAILING_NAME);
+    userServiceImpl.hookCalls().clear();
+
+    assertThatThrownBy(() -> userService.updateAll(ImmutableList.<User>of(user(1), failing, user(3))))
+      .isInstanceOf(BaseRuntimeException.class);
+    assertThat(mongo.findAll(User.class)).extracting(User::getEmail).containsExactly("email1@gmail.com");
+    assertThat(userServiceImpl.hookCalls()).containsExactly("postSaveAll:email1@gmail.com",
+      "postCreateAll:email1@gmail.com");
+  }
+
+  @Test
+  public void shouldSaveAsyncLikeSave() throws Exception {
+    User created = userService.saveAsync(user(1)).get(5, TimeUnit.SECONDS);
+    assertThat(created.getSlug()).startsWith("U");
+    assertThat(created.getDateCreated()).isNotNull();
+    assertThat(created.getHash()).isNotNull();
+
+    created.setName("Changed");
+    User updated = userService.saveAsync(created).get(5, TimeUnit.SECONDS);
+    assertThat(updated.getId()).isEqualTo(created.getId());
+    assertThat(mongo.findAll(User.class)).extracting(User::getName).containsExactly("Changed");
+  }
+
+  @Test
+  public void shouldFailOnlyTheAsyncSaveWhosePreSaveThrows() throws Exception {
+    User failing = user(2);
+    failing.setName(UserServiceImpl.FAILING_NAME);
+    CompletableFuture<User> failed = userService.saveAsync(failing);
+    assertThat(userService.saveAsync(user(1)).get(5, TimeUnit.SECONDS).getId()).isNotNull();
+    assertThatThrownBy(() -> failed.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(BaseRuntimeException.class);
+    assertThat(mongo.findAll(User.class)).extracting(User::getEmail).containsExactly("email1@gmail.com");
+  }
+
+  @Test
+  public void shouldDropContentHashOnSoftDelete() {
+    User saved = userService.updateAll(ImmutableList.<User>of(user(1))).get(0).getData();
+    userService.softDelete(saved.getId());
+    assertThat(mongo.findById(saved.getId(), User.class).getHash()).isNull();
+
+    BulkUpdateInfo<User> restored = userService.updateAll(ImmutableList.<User>of(user(1))).get(0);
+    assertThat(restored.getUpdateAction()).isNotEqualTo(UpdateAction.IGNORE);
+    assertThat(userService.findAllActive()).extracting(User::getEmail).containsExactly(user(1).getEmail());
+  }
+
+  @Test
+  public void shouldFindByIdsInInputOrder() {
+    User first = userService.save(user(1));
+    User second = userService.save(user(2));
+
+    MultiGetResult<User> result = userService.findByIds(ImmutableList.of(second.getId(), "missing", first.getId()));
+    assertThat(result.getData().keySet()).containsExactly(second.getId(), first.getId());
+    assertThat(result.getMissing()).containsExactly("missing");
+    userAssert(result.getData().get(first.getId()), 1);
+
+    MultiGetResult<User> bySlug = userService.findBySlugs(ImmutableList.of(first.getSlug(), second.getSlug()));
+    assertThat(bySlug.getData().keySet()).containsExactly(first.getSlug(), second.getSlug());
+    assertThat(bySlug.getMissing()).isEmpty();
+  }
+
+  @Test
+  public void shouldComposeAsyncLookups() throws Exception {
+    User first = userService.save(user(1));
+    User second = userService.save(user(2));
+
+    CompletableFuture<User> byId = userService.findOneAsync(first.getId());
+    CompletableFuture<User> bySlug = userService.findBySlugAsync(second.getSlug());
+    CompletableFuture.allOf(byId, bySlug).get();
+
+    userAssert(byId.get(), 1);
+    userAssert(bySlug.get(), 2);
+    assertThat(userService.asyncStats().getCompleted()).isGreaterThanOrEqualTo(2);
+  }
+
+  @Test
+  public void shouldStreamFilteredEntities() {
+    for (int i = 1; i < 5; i++) {
+      userService.save(user(i));
+    }
+    try (Stream<User> users = userService.streamAll(FilterRequestDto.builder().build())) {
+      assertThat(users.count()).isEqualTo(4);
+    }
+    try (Stream<User> users = userService.streamActive()) {
+      assertThat(users.map(User::getEmail)).contains("email1@gmail.com", "email4@gmail.com");
+    }
+  }
+
+  @Test
+  public void shouldRejectDeleteWithoutFilter() {
+    userService.saveAll(ImmutableList.of(user(1), user(2)));
+
+    assertThatThrownBy(() -> userService.delete(FilterRequestDto.builder().build()))
+      .isInstanceOf(BaseRuntimeException.class);
+    assertThatThrownBy(() -> userService.delete(FilterRequestDto.builder()
+      .filterModel(ImmutableMap.of("name", SetColumnFilter.builder().values(ImmutableList.of()).build())).build()))
+        .isInstanceOf(BaseRuntimeException.class);
+    assertThat(mongo.count(new Query(), User.class)).isEqualTo(2);
+  }
+
+  @Test
+  public void shouldDeleteByDeepFilter() {
+    saveAdminAndMember();
+    assertThat(userService.delete(adminFilter())).isEqualTo(1);
+    assertThat(mongo.findAll(User.class)).extracting(User::getRoleName).containsExactly("USER");
+  }
+
+  @Test
+  public void shouldApplyDeepFilterToEveryEntryPoint() {
+    saveAdminAndMember();
+    FilterRequestDto filter = adminFilter();
+    assertThat(userService.filterAll(filter)).extracting(User::getRoleName).containsExactly("ADMIN");
+    try (Stream<User> stream = userService.streamAll(filter)) {
+      assertThat(stream.map(User::getRoleName)).containsExactly("ADMIN");
+    }
+    assertThat(userService.distinctColumnValues("roleName", filter)).contains("ADMIN").doesNotContain("USER");
+    assertThat(userService.aggregate(filter)).extracting(row -> row.get("childCount")).containsExactly(1);
+    filter.setPage(0);
+    filter.setSize(10);
+    assertThat(userService.filter(filter).getContent()).extracting(User::getRoleName).containsExactly("ADMIN");
+  }
+
+  @Test
+  public void shouldSortOnReferencedColumn() {
+    saveAdminAndMember();
+    FilterRequestDto filter = FilterRequestDto.builder().deepFilter(true).page(0).size(10)
+      .sortModel(ImmutableList.of(SortModel.builder().colId("roleName.slug").sort(Sort.Direction.DESC).build()))
+      .build();
+    assertThat(userService.filter(filter).getContent()).extracting(User::getRoleName).containsExactly("USER", "ADMIN");
+  }
+
+  @Test
+  public void shouldPageAggregatedGroups() {
+    userService.saveAll(ImmutableList.of(user(1), user(2), user(3)));
+    FilterRequestDto request = FilterRequestDto.builder()
+      .rowGroupCols(ImmutableList.of(ColumnModel.builder().id("name").field("name").build())).page(1).size(2).build();
+
+    assertThat(userService.aggregate(request)).extracting(row -> row.get("name")).containsExactly("Name3");
+    request.setSize(0);
+    assertThat(userService.aggregate(request)).extracting(row -> row.get("name"))
+      .containsExactly("Name1", "Name2", "Name3");
+
+    request.setPage(0);
+    request.setSize(2);
+    Page<Map<String, Object>> groups = userService.filterGroups(request);
+    assertThat(groups.getContent()).extracting(row -> row.get("name")).containsExactly("Name1", "Name2");
+    assertThat(groups.getTotalElements()).isEqualTo(3);
+  }
+
+  @Test
+  public void shouldPlanActiveIndex() {
+    List<IndexPlan> plans = userService.indexReport();
+    assertThat(plans).extracting(IndexPlan::getReason).containsExactly("active", "date:dateCreated", "set:gender");
+    assertThat(plans).extracting(plan -> plan.getKeys().toString()).containsExactly("{active=1}",
+      "{dateCreated=-1}", "{gender=1}");
+    assertThat(plans).allMatch(plan -> !plan.isCreated());
+  }
+
+  @Test
+  public void shouldRecordServiceMetrics() {
+    long before = meterRegistry.find(ServiceMetrics.TIMER).tag("operation", "saveAll").timers().stream()
+      .mapToLong(Timer::count).sum();
+    userService.saveAll(ImmutableList.of(user(1), user(2)));
+    assertThat(meterRegistry.get(ServiceMetrics.TIMER).tag("operation", "saveAll").tag("outcome", "success")
+      .timer().count()).isEqualTo(before + 1);
+    assertThat(meterRegistry.get(ServiceMetrics.ROWS).tag("operation", "saveAll").summary().max()).isEqualTo(2);
+  }
+
+  @Test
+  public void shouldReportRepeatedRoundTrips() throws EntityNotFoundException {
+    User saved = userService.save(user(1));
+    roundTripTracker.begin("shouldReportRepeatedRoundTrips");
+    for (int i = 0; i < 10; i++) {
+      userService.findOne(saved.getId());
+    }
+    RoundTripStats stats = roundTripTracker.end();
+    assertThat(stats.getCommands()).isGreaterThanOrEqualTo(10);
+    assertThat(stats.getRepeated().values()).contains(10);
+  }
+
+  @Test
+  public void shouldGenerateReproducibleDataset() {
+    mongo.save(Role.builder().name("ADMIN").build(), "role");
+    MetaData<User> meta = MetaData.<User>builder().collection("user").prefix("U").classType(User.class)
+      .fields(UserFieldData.fields()).contentHash(true).build();
+    DatasetConfig config = DatasetConfig.builder().seed(7L).batchSize(30).threads(2).build();
+
+    DatasetStats first = new DatasetGenerator<>(mongo, meta, config).generate(100);
+    List<Document> documents = generatedDocuments();
+    assertThat(first.getInserted()).isEqualTo(100);
+    assertThat(first.getBatches()).isEqualTo(4);
+    assertThat(first.getFirstSequence()).isEqualTo(1);
+    assertThat(documents.get(99).getString("slug")).isEqualTo("U100");
+    assertThat(mongo.findAll(User.class)).allMatch(user -> "ADMIN".equals(user.getRoleName()))
+      .allMatch(user -> user.getHash() != null);
+
+    mongo.dropCollection(User.class);
+    DatasetStats second = new DatasetGenerator<>(mongo, meta, config).generate(100);
+    assertThat(second.getFirstSequence()).isEqualTo(first.getFirstSequence());
+    assertThat(generatedDocuments()).isEqualTo(documents);
+    assertThat(userService.save(user(1)).getSequence()).isEqualTo(101);
+  }
+
   @Test
   public void shouldExportToCsv() throws IOException, BaseException {
 
@@ -110,12 +393,35 @@ public class UserServiceTest extends ApplicationTests {
 
   }
 
+  private List<Document> generatedDocuments() {
+    List<Document> documents = new ArrayList<>();
+    mongo.getCollection(mongo.getCollectionName(User.class)).find().sort(new Document("sequence", 1))
+      .projection(new Document("_id", 0)).into(documents);
+    return documents;
+  }
+
   private String fileName() {
     String currentUsersHomeDir = System.getProperty("user.home");
     String otherFolder = currentUsersHomeDir + File.separator + "Desktop" + File.separator + "test.csv";
     return otherFolder;
   }
 
+  private void saveAdminAndMember() {
+    mongo.save(Role.builder().name("ADMIN").slug("R1").build(), "role");
+    mongo.save(Role.builder().name("USER").slug("R2").build(), "role");
+    User admin = user(1);
+    admin.setRoleName("ADMIN");
+    User member = user(2);
+    member.setRoleName("USER");
+    userService.saveAll(ImmutableList.of(admin, member));
+  }
+
+  private FilterRequestDto adminFilter() {
+    return FilterRequestDto.builder().deepFilter(true)
+      .filterModel(ImmutableMap.of("roleName.slug", SetColumnFilter.builder().values(ImmutableList.of("R1")).build()))
+      .build();
+  }
+
   private User user(int i) {
     Address address = Address.builder().city("city" + i).state("state" + i).country("country" + i).build();
     return User.builder().email("email" + i + "@gmail.com").name("Name" + i).flag(true)